@@ -0,0 +1,52 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Client command streams in ra_svn wire format for protocol benchmarks.
+ * <p>
+ * Streams:
+ * <ul>
+ * <li>report - update command with working copy report (mixed revisions, locks, deleted paths);</li>
+ * <li>commit - commit editor drive with text deltas;</li>
+ * <li>log - log viewer session (paged log requests with revision properties).</li>
+ * </ul>
+ *
+ * @author agent <agent@local>
+ */
+final class CommandStreams {
+  private CommandStreams() {
+  }
+
+  @NotNull
+  static byte[] load(@NotNull String name) throws IOException {
+    final String resource = name + ".dump";
+    try (InputStream stream = CommandStreams.class.getResourceAsStream(resource)) {
+      if (stream == null) {
+        throw new FileNotFoundException(resource);
+      }
+      final ByteArrayOutputStream result = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[32 * 1024];
+      while (true) {
+        final int size = stream.read(buffer);
+        if (size < 0) {
+          break;
+        }
+        result.write(buffer, 0, size);
+      }
+      return result.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import svnserver.parser.token.ListBeginToken;
+import svnserver.parser.token.ListEndToken;
+import svnserver.server.command.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command arguments decoding throughput on recorded client command streams.
+ * <p>
+ * Commands are decoded the same way as by server: arguments by {@link MessageParser},
+ * textdelta-chunk data by {@link SvnServerParser#readStringStream()}.
+ *
+ * @author agent <agent@local>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageParserBenchmark {
+  @NotNull
+  private static final Map<String, Class<?>> arguments = new HashMap<>();
+
+  static {
+    // Commands
+    arguments.put("update", UpdateParams.class);
+    arguments.put("commit", new CommitCmd().getArguments());
+    arguments.put("log", new LogCmd().getArguments());
+    arguments.put("get-latest-rev", new GetLatestRevCmd().getArguments());
+    arguments.put("rev-proplist", new RevPropListCmd().getArguments());
+    arguments.put("stat", new StatCmd().getArguments());
+    arguments.put("get-locations", new GetLocationsCmd().getArguments());
+    // Report commands
+    arguments.put("set-path", DeltaCmd.SetPathParams.class);
+    arguments.put("delete-path", DeltaCmd.DeleteParams.class);
+    arguments.put("finish-report", NoParams.class);
+    // Editor commands
+    arguments.put("open-root", CommitCmd.OpenRootParams.class);
+    arguments.put("open-dir", CommitCmd.OpenParams.class);
+    arguments.put("open-file", CommitCmd.OpenParams.class);
+    arguments.put("add-file", CommitCmd.AddParams.class);
+    arguments.put("change-file-prop", CommitCmd.ChangePropParams.class);
+    arguments.put("apply-textdelta", CommitCmd.ChecksumParams.class);
+    arguments.put("textdelta-end", CommitCmd.TokenParams.class);
+    arguments.put("close-file", CommitCmd.ChecksumParams.class);
+    arguments.put("close-dir", CommitCmd.TokenParams.class);
+    arguments.put("close-edit", NoParams.class);
+  }
+
+  @Param({"report", "commit", "log"})
+  public String stream;
+
+  private byte[] data;
+  @NotNull
+  private final byte[] chunkBuffer = new byte[32 * 1024];
+
+  @Setup
+  public void setup() throws IOException {
+    data = CommandStreams.load(stream);
+  }
+
+  @Benchmark
+  public void parse(@NotNull Blackhole blackhole) throws IOException {
+    final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(data));
+    try {
+      while (true) {
+        parser.readToken(ListBeginToken.class);
+        final String cmd = parser.readText();
+        if (cmd.equals("textdelta-chunk")) {
+          parser.readToken(ListBeginToken.class);
+          blackhole.consume(parser.readText());
+          try (InputStream chunk = parser.readStringStream()) {
+            while (true) {
+              final int size = chunk.read(chunkBuffer);
+              if (size < 0) {
+                break;
+              }
+              blackhole.consume(size);
+            }
+          }
+          parser.readToken(ListEndToken.class);
+        } else {
+          final Class<?> type = arguments.get(cmd);
+          if (type == null) {
+            throw new IllegalStateException("Unexpected command: " + cmd);
+          }
+          blackhole.consume(MessageParser.parse(type, parser));
+        }
+        parser.readToken(ListEndToken.class);
+      }
+    } catch (EOFException ignored) {
+    }
+  }
+}
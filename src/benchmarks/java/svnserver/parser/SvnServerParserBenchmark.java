@@ -0,0 +1,62 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizer throughput on recorded client command streams.
+ *
+ * @author agent <agent@local>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SvnServerParserBenchmark {
+  @Param({"report", "commit", "log"})
+  public String stream;
+
+  private byte[] data;
+
+  @Setup
+  public void setup() throws IOException {
+    data = CommandStreams.load(stream);
+  }
+
+  @Benchmark
+  public void readToken(@NotNull Blackhole blackhole) throws IOException {
+    final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(data));
+    try {
+      while (true) {
+        blackhole.consume(parser.readToken());
+      }
+    } catch (EOFException ignored) {
+    }
+  }
+
+  @Benchmark
+  public void readItem(@NotNull Blackhole blackhole) throws IOException {
+    final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(data));
+    try {
+      while (true) {
+        blackhole.consume(parser.readItem());
+      }
+    } catch (EOFException ignored) {
+    }
+  }
+}
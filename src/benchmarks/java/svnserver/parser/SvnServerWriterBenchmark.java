@@ -0,0 +1,187 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writer throughput on typical server responses.
+ *
+ * @author agent <agent@local>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SvnServerWriterBenchmark {
+  private static final int ENTRIES = 1000;
+  @NotNull
+  private static final OutputStream nullStream = new OutputStream() {
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) {
+    }
+  };
+
+  @NotNull
+  private final byte[] delta = new byte[4096];
+
+  @State(Scope.Thread)
+  public static class Recorded {
+    @Param({"report", "commit", "log"})
+    public String stream;
+
+    @NotNull
+    private final List<SvnServerToken> tokens = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+      final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(CommandStreams.load(stream)));
+      try {
+        while (true) {
+          tokens.add(parser.readToken());
+        }
+      } catch (EOFException ignored) {
+      }
+    }
+  }
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < delta.length; ++i) {
+      delta[i] = (byte) ('a' + i % 26);
+    }
+  }
+
+  /**
+   * Write recorded stream tokens.
+   */
+  @Benchmark
+  public void writeTokens(@NotNull Recorded recorded) throws IOException {
+    final SvnServerWriter writer = new SvnServerWriter(nullStream);
+    for (SvnServerToken token : recorded.tokens) {
+      writer.write(token);
+    }
+    writer.flush();
+  }
+
+  /**
+   * Log response: ( rev ( changed-paths ) ( author ) ( date ) ( message ) ... ).
+   */
+  @Benchmark
+  public void writeLog() throws IOException {
+    final SvnServerWriter writer = new SvnServerWriter(nullStream);
+    for (int rev = ENTRIES; rev > 0; --rev) {
+      writer
+          .listBegin()
+          .listBegin();
+      for (int i = 0; i < 5; ++i) {
+        writer
+            .listBegin()
+            .string("/trunk/core/src/main/java/org/example/core/impl/DefaultParser" + i + ".java")
+            .word('M')
+            .listBegin()
+            .listEnd()
+            .listBegin()
+            .word("file")
+            .bool(true)
+            .bool(false)
+            .listEnd()
+            .listEnd();
+      }
+      writer
+          .listEnd()
+          .number(rev)
+          .listBegin().string("author").listEnd()
+          .listBegin().string("2018-11-29T12:34:56.000000Z").listEnd()
+          .listBegin().string("Commit message for revision " + rev).listEnd()
+          .bool(false)
+          .bool(false)
+          .number(0)
+          .listBegin()
+          .listEnd()
+          .listEnd();
+    }
+    writer
+        .word("done")
+        .flush();
+  }
+
+  /**
+   * Update editor drive: add-file, textdelta-chunk and close-file for each file.
+   */
+  @Benchmark
+  public void writeEditor() throws IOException {
+    final SvnServerWriter writer = new SvnServerWriter(nullStream);
+    final byte[] md5 = "d41d8cd98f00b204e9800998ecf8427e".getBytes(StandardCharsets.US_ASCII);
+    for (int i = 0; i < ENTRIES; ++i) {
+      final String token = "c" + i;
+      writer
+          .listBegin()
+          .word("add-file")
+          .listBegin()
+          .string("trunk/core/src/main/java/org/example/core/impl/DefaultParser" + i + ".java")
+          .string("d1")
+          .string(token)
+          .listBegin()
+          .listEnd()
+          .listEnd()
+          .listEnd();
+      writer
+          .listBegin()
+          .word("apply-textdelta")
+          .listBegin()
+          .string(token)
+          .listBegin()
+          .listEnd()
+          .listEnd()
+          .listEnd();
+      writer
+          .listBegin()
+          .word("textdelta-chunk")
+          .listBegin()
+          .string(token)
+          .binary(delta)
+          .listEnd()
+          .listEnd();
+      writer
+          .listBegin()
+          .word("textdelta-end")
+          .listBegin()
+          .string(token)
+          .listEnd()
+          .listEnd();
+      writer
+          .listBegin()
+          .word("close-file")
+          .listBegin()
+          .string(token)
+          .listBegin()
+          .binary(md5)
+          .listEnd()
+          .listEnd()
+          .listEnd();
+    }
+    writer.flush();
+  }
+}
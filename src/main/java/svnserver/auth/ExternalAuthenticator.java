@@ -0,0 +1,39 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerWriter;
+
+/**
+ * Authentication of user, which is already authenticated by transport (svn+ssh tunnel).
+ *
+ * @author agent <agent@local>
+ */
+public final class ExternalAuthenticator implements Authenticator {
+  @NotNull
+  private final User user;
+
+  public ExternalAuthenticator(@NotNull User user) {
+    this.user = user;
+  }
+
+  @NotNull
+  @Override
+  public String getMethodName() {
+    return "EXTERNAL";
+  }
+
+  @Nullable
+  @Override
+  public User authenticate(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer, @NotNull String token) {
+    return user;
+  }
+}
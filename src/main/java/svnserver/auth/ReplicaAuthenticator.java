@@ -0,0 +1,71 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Authentication of user, which session is forwarded by replica node.
+ * <p>
+ * Token: base64("\0" + shared secret + "\0" + user name).
+ *
+ * @author agent <agent@local>
+ */
+public final class ReplicaAuthenticator implements Authenticator {
+  @NotNull
+  public static final String METHOD_NAME = "REPLICA";
+  /**
+   * Client capability of replica node connection. Replica authentication is offered only for such connections.
+   */
+  @NotNull
+  public static final String CAPABILITY = "git-as-svn-replica";
+
+  @NotNull
+  private final UserDB userDB;
+  @NotNull
+  private final String secretToken;
+
+  public ReplicaAuthenticator(@NotNull UserDB userDB, @NotNull String secretToken) {
+    this.userDB = userDB;
+    this.secretToken = secretToken;
+  }
+
+  @NotNull
+  public static String createToken(@NotNull String secretToken, @NotNull String userName) {
+    return Base64.getEncoder().encodeToString(("\0" + secretToken + "\0" + userName).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @NotNull
+  @Override
+  public String getMethodName() {
+    return METHOD_NAME;
+  }
+
+  @Nullable
+  @Override
+  public User authenticate(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer, @NotNull String token) throws SVNException {
+    final String decodedToken = new String(Base64.getDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+    final String[] credentials = decodedToken.split("\u0000");
+    if (credentials.length < 3)
+      return null;
+
+    final byte[] clientSecret = credentials[1].getBytes(StandardCharsets.UTF_8);
+    if (secretToken.isEmpty() || !MessageDigest.isEqual(clientSecret, secretToken.getBytes(StandardCharsets.UTF_8)))
+      return null;
+
+    return userDB.lookupByUserName(credentials[2]);
+  }
+}
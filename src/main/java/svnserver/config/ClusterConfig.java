@@ -0,0 +1,51 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.repository.mapping.RepositoryPlacement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository placement between cluster nodes.
+ *
+ * @author agent <agent@local>
+ */
+public final class ClusterConfig {
+  @NotNull
+  private List<String> nodes = new ArrayList<>();
+  @NotNull
+  private String self = "";
+  private int virtualNodes = 128;
+
+  /**
+   * @return Cluster nodes addresses (host:port).
+   */
+  @NotNull
+  public List<String> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * @param router Create placement for routing node.
+   * @return Repository placement or null, if cluster is not configured.
+   */
+  @Nullable
+  public RepositoryPlacement create(boolean router) {
+    if (nodes.isEmpty()) {
+      return null;
+    }
+    if (!router && !nodes.contains(self)) {
+      throw new IllegalStateException("Current node address is not found in cluster nodes list: " + self);
+    }
+    return new RepositoryPlacement(nodes, router ? "" : self, virtualNodes);
+  }
+}
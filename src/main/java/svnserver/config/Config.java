@@ -39,13 +39,39 @@ public final class Config {
 
   @NotNull
   private List<SharedConfig> shared = new ArrayList<>();
+  @NotNull
+  private ClusterConfig cluster = new ClusterConfig();
 
   private int port = 3690;
+  @NotNull
+  private String unixSocket = "";
 
   private boolean reuseAddress = false;
   private boolean compressionEnabled = true;
+  private boolean lz4Compression = false;
+  private boolean adaptiveCompression = false;
+  private int deltaThreads = 0;
+  private long deltaCacheSize = 32 * 1024 * 1024;
+  @NotNull
+  private String checkoutCachePath = "";
+  private long checkoutCacheSize = 1024L * 1024 * 1024;
   private long shutdownTimeout = TimeUnit.SECONDS.toMillis(5);
   private boolean parallelIndexing = true;
+  private int maxThreads = 256;
+  private int threadQueueSize = 1024;
+  private int repositoryRequestLimit = 0;
+  private boolean virtualThreads = false;
+  @NotNull
+  private String primaryUrl = "";
+  @NotNull
+  private String replicaToken = "";
+  private long replicaSyncTimeout = TimeUnit.SECONDS.toMillis(30);
+  private long primaryConnectTimeout = TimeUnit.SECONDS.toMillis(10);
+  private long primaryReadTimeout = TimeUnit.MINUTES.toMillis(5);
+  private long idleTimeout = TimeUnit.MINUTES.toMillis(30);
+  private long headerTimeout = TimeUnit.MINUTES.toMillis(1);
+  private long authTimeout = TimeUnit.MINUTES.toMillis(5);
+  private long commandTimeout = 0;
 
   @SuppressWarnings("UnusedDeclaration")
   public Config() {
@@ -65,6 +91,14 @@ public final class Config {
     return host;
   }
 
+  /**
+   * @return Unix domain socket path for client connections (empty string - disabled).
+   */
+  @NotNull
+  public String getUnixSocket() {
+    return unixSocket;
+  }
+
   @NotNull
   public String getRealm() {
     return realm;
@@ -110,10 +144,143 @@ public final class Config {
     return shared;
   }
 
+  @NotNull
+  public ClusterConfig getCluster() {
+    return cluster;
+  }
+
   public boolean canUseParallelIndexing() {
     return parallelIndexing;
   }
 
+  public int getMaxThreads() {
+    return maxThreads;
+  }
+
+  public void setMaxThreads(int maxThreads) {
+    this.maxThreads = maxThreads;
+  }
+
+  public int getThreadQueueSize() {
+    return threadQueueSize;
+  }
+
+  public void setThreadQueueSize(int threadQueueSize) {
+    this.threadQueueSize = threadQueueSize;
+  }
+
+  /**
+   * @return Maximum count of concurrently processing requests for single repository (0 - unlimited).
+   */
+  public int getRepositoryRequestLimit() {
+    return repositoryRequestLimit;
+  }
+
+  public void setRepositoryRequestLimit(int repositoryRequestLimit) {
+    this.repositoryRequestLimit = repositoryRequestLimit;
+  }
+
+  public boolean useVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * @return Primary node url for forwarding write requests from read-only replica (empty string - disabled).
+   */
+  @NotNull
+  public String getPrimaryUrl() {
+    return primaryUrl;
+  }
+
+  public void setPrimaryUrl(@NotNull String primaryUrl) {
+    this.primaryUrl = primaryUrl;
+  }
+
+  /**
+   * @return Shared secret for authentication of sessions forwarded from replica (empty string - disabled).
+   */
+  @NotNull
+  public String getReplicaToken() {
+    return replicaToken;
+  }
+
+  public void setReplicaToken(@NotNull String replicaToken) {
+    this.replicaToken = replicaToken;
+  }
+
+  /**
+   * @return Maximum time in milliseconds to wait for new revision on replica after forwarded commit.
+   */
+  public long getReplicaSyncTimeout() {
+    return replicaSyncTimeout;
+  }
+
+  public void setReplicaSyncTimeout(long replicaSyncTimeout) {
+    this.replicaSyncTimeout = replicaSyncTimeout;
+  }
+
+  /**
+   * @return Timeout in milliseconds for connecting to primary node (0 - unlimited).
+   */
+  public long getPrimaryConnectTimeout() {
+    return primaryConnectTimeout;
+  }
+
+  /**
+   * @return Maximum time in milliseconds for waiting primary node response (0 - unlimited).
+   */
+  public long getPrimaryReadTimeout() {
+    return primaryReadTimeout;
+  }
+
+  /**
+   * @return Maximum time in milliseconds between client commands (0 - unlimited).
+   */
+  public long getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  public void setIdleTimeout(long idleTimeout) {
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * @return Maximum time in milliseconds for handshake of new connection after worker thread picks it up (0 - unlimited).
+   */
+  public long getHeaderTimeout() {
+    return headerTimeout;
+  }
+
+  public void setHeaderTimeout(long headerTimeout) {
+    this.headerTimeout = headerTimeout;
+  }
+
+  /**
+   * @return Maximum time in milliseconds for authentication of new connection (0 - unlimited).
+   */
+  public long getAuthTimeout() {
+    return authTimeout;
+  }
+
+  public void setAuthTimeout(long authTimeout) {
+    this.authTimeout = authTimeout;
+  }
+
+  /**
+   * @return Maximum time in milliseconds for single client command processing (0 - unlimited).
+   */
+  public long getCommandTimeout() {
+    return commandTimeout;
+  }
+
+  public void setCommandTimeout(long commandTimeout) {
+    this.commandTimeout = commandTimeout;
+  }
+
   public boolean isCompressionEnabled() {
     return compressionEnabled;
   }
@@ -121,4 +288,63 @@ public final class Config {
   public void setCompressionEnabled(boolean compressionEnabled) {
     this.compressionEnabled = compressionEnabled;
   }
+
+  /**
+   * @return Use LZ4 compression (svndiff2) instead of zlib (svndiff1) for clients that support it.
+   */
+  public boolean isLz4Compression() {
+    return lz4Compression;
+  }
+
+  public void setLz4Compression(boolean lz4Compression) {
+    this.lz4Compression = lz4Compression;
+  }
+
+  /**
+   * @return Select compression for each connection by measured network throughput.
+   */
+  public boolean isAdaptiveCompression() {
+    return adaptiveCompression;
+  }
+
+  public void setAdaptiveCompression(boolean adaptiveCompression) {
+    this.adaptiveCompression = adaptiveCompression;
+  }
+
+  /**
+   * @return Thread count for parallel file delta computation on checkout/update (0 - compute delta in session thread).
+   */
+  public int getDeltaThreads() {
+    return deltaThreads;
+  }
+
+  public void setDeltaThreads(int deltaThreads) {
+    this.deltaThreads = deltaThreads;
+  }
+
+  /**
+   * @return Memory size in bytes for encoded file delta cache (0 - disabled).
+   */
+  public long getDeltaCacheSize() {
+    return deltaCacheSize;
+  }
+
+  /**
+   * @return Directory for checkout editor stream cache (empty string - disabled).
+   */
+  @NotNull
+  public String getCheckoutCachePath() {
+    return checkoutCachePath;
+  }
+
+  public void setCheckoutCachePath(@NotNull String checkoutCachePath) {
+    this.checkoutCachePath = checkoutCachePath;
+  }
+
+  /**
+   * @return Maximum total size in bytes of checkout editor stream cache files.
+   */
+  public long getCheckoutCacheSize() {
+    return checkoutCacheSize;
+  }
 }
@@ -18,6 +18,7 @@ import svnserver.context.LocalContext;
 import svnserver.repository.VcsRepository;
 import svnserver.repository.git.GitCreateMode;
 import svnserver.repository.git.GitLocation;
+import svnserver.repository.git.GitRefWatcher;
 import svnserver.repository.git.GitRepository;
 import svnserver.repository.git.push.GitPushEmbeddedConfig;
 import svnserver.repository.locks.PersistentLockFactory;
@@ -26,6 +27,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Repository configuration.
@@ -47,6 +49,9 @@ public final class GitRepositoryConfig implements RepositoryConfig {
   private GitCreateMode createMode;
 
   private boolean renameDetection = true;
+  private boolean watchRefs = true;
+  private boolean replica = false;
+  private long refsPollInterval = TimeUnit.MINUTES.toMillis(1);
 
   public GitRepositoryConfig() {
     this(GitCreateMode.ERROR);
@@ -76,6 +81,10 @@ public final class GitRepositoryConfig implements RepositoryConfig {
   public VcsRepository create(@NotNull LocalContext context, @NotNull File fullPath) throws IOException, SVNException {
     context.add(GitLocation.class, new GitLocation(fullPath));
 
-    return new GitRepository(context, createRepository(context, fullPath), pusher.create(context), branch, renameDetection, new PersistentLockFactory(context));
+    final GitRepository repository = new GitRepository(context, createRepository(context, fullPath), pusher.create(context), branch, renameDetection, new PersistentLockFactory(context), replica);
+    if (watchRefs) {
+      context.add(GitRefWatcher.class, new GitRefWatcher(repository, refsPollInterval));
+    }
+    return repository;
   }
 }
@@ -8,7 +8,9 @@
 package svnserver.config;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tmatesoft.svn.core.SVNException;
+import svnserver.StringHelper;
 import svnserver.config.serializer.ConfigType;
 import svnserver.context.LocalContext;
 import svnserver.context.SharedContext;
@@ -16,10 +18,12 @@ import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRepositoryMapping;
 import svnserver.repository.mapping.RepositoryListMapping;
+import svnserver.repository.mapping.RepositoryPlacement;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.function.Consumer;
 
@@ -47,6 +51,9 @@ public final class RepositoryListMappingConfig implements RepositoryMappingConfi
     final Map<String, VcsRepository> repos = new HashMap<>();
 
     for (Map.Entry<String, Entry> entry : repositories.entrySet()) {
+      if (!RepositoryPlacement.isLocal(context, entry.getKey())) {
+        continue;
+      }
       final LocalContext local = new LocalContext(context, entry.getKey());
       local.add(VcsAccess.class, entry.getValue().access.create(local));
       repos.put(entry.getKey(), entry.getValue().repository.create(local));
@@ -68,4 +75,15 @@ public final class RepositoryListMappingConfig implements RepositoryMappingConfi
 
     return new RepositoryListMapping(repos);
   }
+
+  @Nullable
+  @Override
+  public String getRepositoryName(@NotNull String path) {
+    final NavigableMap<String, String> names = new TreeMap<>();
+    for (String name : repositories.keySet()) {
+      names.put(StringHelper.normalizeDir(name), name);
+    }
+    final Map.Entry<String, String> entry = RepositoryListMapping.getMapped(names, path);
+    return entry != null ? entry.getValue() : null;
+  }
 }
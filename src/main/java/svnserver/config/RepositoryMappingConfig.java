@@ -8,11 +8,14 @@
 package svnserver.config;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.context.SharedContext;
 import svnserver.repository.VcsRepositoryMapping;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Repository mapping config.
@@ -22,4 +25,29 @@ import java.io.IOException;
 public interface RepositoryMappingConfig {
   @NotNull
   VcsRepositoryMapping create(@NotNull SharedContext context, boolean canUseParallelIndexing) throws IOException, SVNException;
+
+  /**
+   * Get repository name by path without repository mapping creation.
+   * Used by routing node for repository placement.
+   *
+   * @param path Repository path.
+   * @return Repository name or null, if repository name can't be determined.
+   */
+  @Nullable
+  default String getRepositoryName(@NotNull String path) {
+    return null;
+  }
+
+  /**
+   * Get possible repository names by path without repository mapping creation, from the most specific.
+   * Used by routing node, when repository path can't be separated from path inside repository.
+   *
+   * @param path Repository path.
+   * @return Repository names.
+   */
+  @NotNull
+  default List<String> getRepositoryNames(@NotNull String path) {
+    final String name = getRepositoryName(path);
+    return name != null ? Collections.singletonList(name) : Collections.emptyList();
+  }
 }
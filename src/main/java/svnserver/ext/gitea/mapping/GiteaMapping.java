@@ -30,6 +30,7 @@ import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRepositoryMapping;
 import svnserver.repository.mapping.RepositoryListMapping;
+import svnserver.repository.mapping.RepositoryPlacement;
 
 /**
  * Simple repository mapping by predefined list.
@@ -75,6 +76,9 @@ final class GiteaMapping implements VcsRepositoryMapping {
 
   @Nullable GiteaProject addRepository(@NotNull Repository repository) throws IOException, SVNException {
     final String projectName = repository.getFullName();
+    if (!RepositoryPlacement.isLocal(context, projectName)) {
+      return null;
+    }
     final String projectKey = StringHelper.normalizeDir(projectName);
     final GiteaProject oldProject = mapping.get(projectKey);
     if (oldProject == null || oldProject.getProjectId() != repository.getId()) {
@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.function.Consumer;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.SVNException;
@@ -30,6 +31,7 @@ import svnserver.context.SharedContext;
 import svnserver.ext.gitea.config.GiteaContext;
 import svnserver.repository.VcsRepositoryMapping;
 import svnserver.repository.git.GitCreateMode;
+import svnserver.repository.mapping.RepositoryPlacement;
 
 /**
  * Repository list mapping.
@@ -124,4 +126,10 @@ public final class GiteaMappingConfig implements RepositoryMappingConfig {
 
     return mapping;
   }
+
+  @Nullable
+  @Override
+  public String getRepositoryName(@NotNull String path) {
+    return RepositoryPlacement.getProjectName(path);
+  }
 }
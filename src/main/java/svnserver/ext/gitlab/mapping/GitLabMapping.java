@@ -21,6 +21,7 @@ import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRepositoryMapping;
 import svnserver.repository.mapping.RepositoryListMapping;
+import svnserver.repository.mapping.RepositoryPlacement;
 
 import java.io.File;
 import java.io.IOException;
@@ -72,7 +73,7 @@ final class GitLabMapping implements VcsRepositoryMapping {
 
   @Nullable
   GitLabProject updateRepository(@NotNull GitlabProject project) throws IOException, SVNException {
-    if (!tagsMatch(project)) {
+    if (!tagsMatch(project) || !RepositoryPlacement.isLocal(context, project.getPathWithNamespace())) {
       removeRepository(project.getId(), project.getPathWithNamespace());
       return null;
     }
@@ -24,6 +24,7 @@ import svnserver.ext.gitlab.config.GitLabContext;
 import svnserver.ext.web.server.WebServer;
 import svnserver.repository.VcsRepositoryMapping;
 import svnserver.repository.git.GitCreateMode;
+import svnserver.repository.mapping.RepositoryPlacement;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -154,6 +155,13 @@ public final class GitLabMappingConfig implements RepositoryMappingConfig {
     return false;
   }
 
+  @NotNull
+  @Override
+  public List<String> getRepositoryNames(@NotNull String path) {
+    // Project can be placed in nested groups.
+    return RepositoryPlacement.getProjectNames(path);
+  }
+
   private static class GitLabHookServlet extends HttpServlet {
     @NotNull
     private final GitLabMapping mapping;
@@ -0,0 +1,49 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream, which flushes pending output before reading.
+ * <p>
+ * Client can wait for server response before sending new data, so buffered output must be sent before blocking read.
+ *
+ * @author agent <agent@local>
+ */
+public final class FlushingInputStream extends FilterInputStream {
+  @NotNull
+  private final SvnServerWriter writer;
+
+  public FlushingInputStream(@NotNull InputStream stream, @NotNull SvnServerWriter writer) {
+    super(stream);
+    this.writer = writer;
+  }
+
+  @Override
+  public int read() throws IOException {
+    writer.flush();
+    return super.read();
+  }
+
+  @Override
+  public int read(@NotNull byte[] buffer, int offset, int length) throws IOException {
+    writer.flush();
+    return super.read(buffer, offset, length);
+  }
+
+  @Override
+  public long skip(long count) throws IOException {
+    writer.flush();
+    return super.skip(count);
+  }
+}
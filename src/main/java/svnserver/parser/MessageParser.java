@@ -16,9 +16,10 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Parse data from class.
@@ -35,11 +36,13 @@ public final class MessageParser {
   private static final byte[] emptyBytes = {};
   @NotNull
   private static final int[] emptyInts = {};
+  /**
+   * Parsers by type. Parser for object or array is created on first use.
+   */
   @NotNull
-  private static final Map<Class<?>, Parser> parsers;
+  private static final Map<Class<?>, Parser> parsers = new ConcurrentHashMap<>();
 
   static {
-    parsers = new HashMap<>();
     parsers.put(String.class, MessageParser::parseString);
     parsers.put(byte[].class, MessageParser::parseBinary);
     parsers.put(int.class, MessageParser::parseInt);
@@ -50,55 +53,73 @@ public final class MessageParser {
   @SuppressWarnings("unchecked")
   @NotNull
   public static <T> T parse(@NotNull Class<T> type, @Nullable SvnServerParser tokenParser) throws IOException {
-    Parser typeParser = parsers.get(type);
-    if (typeParser != null) {
-      return (T) typeParser.parse(tokenParser);
-    }
-    return parseObject(type, tokenParser);
+    return (T) getParser(type).parse(tokenParser);
   }
 
-  @SuppressWarnings("unchecked")
   @NotNull
-  private static <T> T parseObject(Class<T> type, @Nullable SvnServerParser tokenParser) throws IOException {
-    if (tokenParser != null && tokenParser.readItem(ListBeginToken.class) == null)
-      tokenParser = null;
+  private static Parser getParser(@NotNull Class<?> type) {
+    final Parser parser = parsers.get(type);
+    if (parser != null) {
+      return parser;
+    }
+    // Can't use computeIfAbsent: parser creation is recursive.
+    final Parser created = type.isArray() ? createArrayParser(type.getComponentType()) : createObjectParser(type);
+    final Parser prev = parsers.putIfAbsent(type, created);
+    return prev != null ? prev : created;
+  }
 
-    final int depth = getDepth(tokenParser);
+  @NotNull
+  private static Parser createArrayParser(@NotNull Class<?> componentType) {
+    final Parser elementParser = getParser(componentType);
+    return tokenParser -> {
+      if (tokenParser != null && tokenParser.readItem(ListBeginToken.class) == null)
+        tokenParser = null;
 
-    if (type.isArray()) {
+      final int depth = getDepth(tokenParser);
       final List<Object> result = new ArrayList<>();
-
       if (tokenParser != null) {
         while (true) {
-          final Object element = parse(type.getComponentType(), tokenParser);
+          final Object element = elementParser.parse(tokenParser);
           if (getDepth(tokenParser) < depth)
             break;
 
           result.add(element);
         }
       }
+      return result.toArray((Object[]) Array.newInstance(componentType, result.size()));
+    };
+  }
 
-      return (T) result.toArray((Object[]) Array.newInstance(type.getComponentType(), result.size()));
-    }
-
+  @NotNull
+  private static Parser createObjectParser(@NotNull Class<?> type) {
     final Constructor<?>[] ctors = type.getDeclaredConstructors();
     if (ctors.length != 1) {
       throw new IllegalStateException("Can't find parser ctor for object: " + type.getName());
     }
     final Constructor<?> ctor = ctors[0];
     final Parameter[] ctorParams = ctor.getParameters();
-    Object[] params = new Object[ctorParams.length];
-    for (int i = 0; i < params.length; ++i) {
-      params[i] = parse(ctorParams[i].getType(), getDepth(tokenParser) == depth ? tokenParser : null);
-    }
-    while (tokenParser != null && getDepth(tokenParser) >= depth) {
-      tokenParser.readToken();
-    }
-    try {
-      return (T) ctor.newInstance(params);
-    } catch (ReflectiveOperationException e) {
-      throw new IllegalStateException(e);
+    final Parser[] paramParsers = new Parser[ctorParams.length];
+    for (int i = 0; i < paramParsers.length; ++i) {
+      paramParsers[i] = getParser(ctorParams[i].getType());
     }
+    return tokenParser -> {
+      if (tokenParser != null && tokenParser.readItem(ListBeginToken.class) == null)
+        tokenParser = null;
+
+      final int depth = getDepth(tokenParser);
+      final Object[] params = new Object[paramParsers.length];
+      for (int i = 0; i < params.length; ++i) {
+        params[i] = paramParsers[i].parse(getDepth(tokenParser) == depth ? tokenParser : null);
+      }
+      while (tokenParser != null && getDepth(tokenParser) >= depth) {
+        tokenParser.readToken();
+      }
+      try {
+        return ctor.newInstance(params);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException(e);
+      }
+    };
   }
 
   @NotNull
@@ -141,17 +162,17 @@ public final class MessageParser {
       return emptyInts;
     }
     if (tokenParser.readItem(ListBeginToken.class) != null) {
-      final List<Integer> result = new ArrayList<>();
+      int[] result = emptyInts;
+      int size = 0;
       while (true) {
         final NumberToken token = tokenParser.readItem(NumberToken.class);
         if (token == null) break;
-        result.add(token.getNumber());
-      }
-      final int[] array = new int[result.size()];
-      for (int i = 0; i < array.length; ++i) {
-        array[i] = result.get(i);
+        if (size == result.length) {
+          result = Arrays.copyOf(result, Math.max(size * 2, 1));
+        }
+        result[size++] = token.getNumber();
       }
-      return array;
+      return size == result.length ? result : Arrays.copyOf(result, size);
     }
     return emptyInts;
   }
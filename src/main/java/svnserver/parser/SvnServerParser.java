@@ -14,8 +14,10 @@ import svnserver.parser.token.*;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Интерфейс для чтения токенов из потока.
@@ -28,6 +30,8 @@ public final class SvnServerParser {
   private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
   // Buffer size limit for out-of-memory prevention.
   private static final int MAX_BUFFER_SIZE = 10 * 1024 * 1024;
+  // Word cache size (must be power of two).
+  private static final int WORD_CACHE_SIZE = 256;
   @NotNull
   private final InputStream stream;
   private int depth = 0;
@@ -36,6 +40,9 @@ public final class SvnServerParser {
   private final byte[] buffer;
   private int offset = 0;
   private int limit = 0;
+  // Protocol uses small set of words: reuse parsed word tokens.
+  @NotNull
+  private final WordToken[] words = new WordToken[WORD_CACHE_SIZE];
 
   public SvnServerParser(@NotNull InputStream stream, int bufferSize) {
     this.stream = stream;
@@ -51,14 +58,56 @@ public final class SvnServerParser {
     return readToken(TextToken.class).getText();
   }
 
+  /**
+   * Read number without token creation.
+   *
+   * @return Number value.
+   */
   public int readNumber() throws IOException {
-    return readToken(NumberToken.class).getNumber();
+    final byte read = skipSpaces();
+    if (!isDigit(read)) {
+      throw new IOException("Unexpected character in stream: " + read + " (need '0'..'9')");
+    }
+    final int result = readDigits(read);
+    if (!isSpace(buffer[offset - 1])) {
+      throw new IOException("Unexpected character in stream: " + buffer[offset - 1] + " (need ' ' or '\n')");
+    }
+    return result;
   }
 
   public int getDepth() {
     return depth;
   }
 
+  /**
+   * Check for already received, but not yet parsed data (leading spaces are skipped).
+   *
+   * @return Returns false if next token can't be read without blocking on the stream.
+   */
+  public boolean hasBufferedData() {
+    while (offset < limit && isSpace(buffer[offset])) {
+      offset++;
+    }
+    return offset < limit;
+  }
+
+  /**
+   * Check next token type without consuming it (leading spaces are skipped).
+   *
+   * @return Returns true if next token is word.
+   */
+  public boolean isWordNext() throws IOException {
+    while (true) {
+      while (offset < limit && isSpace(buffer[offset])) {
+        offset++;
+      }
+      if (offset < limit) {
+        return isAlpha(buffer[offset]);
+      }
+      fillBuffer();
+    }
+  }
+
   /**
    * Чтение элемента указанного типа из потока.
    *
@@ -127,21 +176,53 @@ public final class SvnServerParser {
     throw new IOException("Unexpected character in stream: " + read + " (need 'a'..'z', 'A'..'Z', '0'..'9', ' ' or '\n')");
   }
 
+  /**
+   * Read string token as stream without loading whole string into memory.
+   * <p>
+   * Stream must be closed before reading next token: closing skips unread string data.
+   *
+   * @return String data stream.
+   */
+  @NotNull
+  public InputStream readStringStream() throws IOException {
+    final byte read = skipSpaces();
+    if (!isDigit(read)) {
+      throw new IOException("Unexpected character in stream: " + read + " (need '0'..'9')");
+    }
+    final int length = readDigits(read);
+    if (buffer[offset - 1] != ':') {
+      throw new IOException("Unexpected character in stream: " + buffer[offset - 1] + " (need ':')");
+    }
+    checkStringLength(length);
+    return new StringStream(length);
+  }
+
   private SvnServerToken readNumberToken(byte first) throws IOException {
+    final int result = readDigits(first);
+    if (buffer[offset - 1] == ':') {
+      return readString(result);
+    }
+    return NumberToken.valueOf(result);
+  }
+
+  /**
+   * Read number digits. Terminating character is consumed and available as buffer[offset - 1].
+   */
+  private int readDigits(byte first) throws IOException {
     int result = first - '0';
     while (true) {
       while (offset < limit) {
         final byte data = buffer[offset];
         offset++;
         if ((data < '0') || (data > '9')) {
-          if (data == ':') {
-            return readString(result);
-          }
-          if (isSpace(data)) {
-            return new NumberToken(result);
+          if (data == ':' || isSpace(data)) {
+            return result;
           }
           throw new IOException("Unexpected character in stream: " + data + " (need ' ', '\\n' or ':')");
         }
+        if (result > (Integer.MAX_VALUE - (data - '0')) / 10) {
+          throw new IOException("Number is too large (limit: " + Integer.MAX_VALUE + ")");
+        }
         result = result * 10 + (data - '0');
       }
       if (limit < 0) {
@@ -169,6 +250,12 @@ public final class SvnServerParser {
     }
   }
 
+  private static void checkStringLength(int length) throws IOException {
+    if (length >= MAX_BUFFER_SIZE) {
+      throw new IOException("Data is too long. Buffer overflow: " + length + " (limit: " + MAX_BUFFER_SIZE + ")");
+    }
+  }
+
   private static boolean isSpace(int data) {
     return (data == ' ')
         || (data == '\n');
@@ -180,12 +267,13 @@ public final class SvnServerParser {
 
   @NotNull
   private StringToken readString(int length) throws IOException {
-    if (length >= MAX_BUFFER_SIZE) {
-      throw new IOException("Data is too long. Buffer overflow: " + buffer.length);
-    }
+    checkStringLength(length);
     if (limit < 0) {
       throw new EOFException();
     }
+    if (length == 0) {
+      return StringToken.EMPTY;
+    }
     final byte[] token = new byte[length];
     if (length <= limit - offset) {
       System.arraycopy(buffer, offset, token, 0, length);
@@ -204,7 +292,7 @@ public final class SvnServerParser {
         position += size;
       }
     }
-    return new StringToken(Arrays.copyOf(token, length));
+    return new StringToken(token);
   }
 
   private static boolean isAlpha(int data) {
@@ -219,7 +307,7 @@ public final class SvnServerParser {
       final byte data = buffer[offset];
       offset++;
       if (isSpace(data)) {
-        return new WordToken(new String(buffer, begin, offset - begin - 1, StandardCharsets.US_ASCII));
+        return createWord(begin, offset - begin - 1);
       }
       if (!(isAlpha(data) || isDigit(data) || (data == '-'))) {
         throw new IOException("Unexpected character in stream: " + data + " (need 'a'..'z', 'A'..'Z', '0'..'9' or '-')");
@@ -238,7 +326,7 @@ public final class SvnServerParser {
         final byte data = buffer[offset];
         offset++;
         if (isSpace(data)) {
-          return new WordToken(new String(buffer, 0, offset - 1, StandardCharsets.US_ASCII));
+          return createWord(0, offset - 1);
         }
         if (!(isAlpha(data) || isDigit(data) || (data == '-'))) {
           throw new IOException("Unexpected character in stream: " + data + " (need 'a'..'z', 'A'..'Z', '0'..'9' or '-')");
@@ -248,6 +336,77 @@ public final class SvnServerParser {
     throw new IOException("Data is too long. Buffer overflow: " + buffer.length);
   }
 
+  @NotNull
+  private WordToken createWord(int begin, int length) {
+    // Same as String.hashCode() for ASCII string.
+    int hash = 0;
+    for (int i = begin; i < begin + length; ++i) {
+      hash = 31 * hash + buffer[i];
+    }
+    final int index = (hash ^ (hash >>> 16)) & (WORD_CACHE_SIZE - 1);
+    final WordToken cached = words[index];
+    if (cached != null && isSame(cached.getText(), begin, length)) {
+      return cached;
+    }
+    final WordToken word = new WordToken(new String(buffer, begin, length, StandardCharsets.US_ASCII));
+    words[index] = word;
+    return word;
+  }
+
+  private boolean isSame(@NotNull String word, int begin, int length) {
+    if (word.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; ++i) {
+      if (word.charAt(i) != buffer[begin + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read single item (token or whole list with nested items).
+   *
+   * @return Item tokens.
+   */
+  @NotNull
+  public List<SvnServerToken> readItem() throws IOException {
+    final List<SvnServerToken> result = new ArrayList<>();
+    final int itemDepth = depth;
+    do {
+      result.add(readToken());
+    } while (depth > itemDepth);
+    return result;
+  }
+
+  /**
+   * Fill buffer if all received data is already parsed.
+   */
+  private void fillBuffer() throws IOException {
+    while (offset >= limit) {
+      if (limit < 0) {
+        throw new EOFException();
+      }
+      offset = 0;
+      limit = stream.read(buffer);
+    }
+  }
+
+  /**
+   * Move already received, but not parsed data to output stream.
+   * <p>
+   * Used for switching from token parsing to raw data transfer.
+   *
+   * @param output Output stream.
+   */
+  public void transferBuffered(@NotNull OutputStream output) throws IOException {
+    if (offset < limit) {
+      output.write(buffer, offset, limit - offset);
+      offset = limit;
+    }
+  }
+
   public void skipItems() throws IOException {
     int depth = 0;
     while (depth >= 0) {
@@ -260,5 +419,61 @@ public final class SvnServerParser {
       }
     }
   }
-}
 
+  private final class StringStream extends InputStream {
+    private int remaining;
+
+    private StringStream(int length) {
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      fillBuffer();
+      remaining--;
+      return buffer[offset++] & 0xFF;
+    }
+
+    @Override
+    public int read(@NotNull byte[] data, int off, int len) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      if (len == 0) {
+        return 0;
+      }
+      fillBuffer();
+      final int size = Math.min(Math.min(len, remaining), limit - offset);
+      System.arraycopy(buffer, offset, data, off, size);
+      offset += size;
+      remaining -= size;
+      return size;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+      long skipped = 0;
+      while (skipped < count && remaining > 0) {
+        fillBuffer();
+        final int size = (int) Math.min(Math.min(count - skipped, remaining), limit - offset);
+        offset += size;
+        remaining -= size;
+        skipped += size;
+      }
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return Math.max(0, Math.min(remaining, limit - offset));
+    }
+
+    @Override
+    public void close() throws IOException {
+      skip(remaining);
+    }
+  }
+}
@@ -11,46 +11,149 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import svnserver.parser.token.*;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Интерфейс для записи данных в поток.
+ * <p>
+ * Data is buffered until {@link #flush()} call or buffer overflow.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class SvnServerWriter {
+  private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+  // Minimum written data size for throughput estimation.
+  private static final long THROUGHPUT_MIN_SAMPLE = 1024 * 1024;
+  // Statistics is halved after this size for prefer recent measurements.
+  private static final long THROUGHPUT_MAX_SAMPLE = 16 * 1024 * 1024;
+  @NotNull
+  private static final byte[] LIST_BEGIN = {'(', ' '};
+  @NotNull
+  private static final byte[] LIST_END = {')', ' '};
+  /**
+   * Pre-encoded protocol words (with trailing space).
+   */
+  @NotNull
+  private static final Map<String, byte[]> words = new HashMap<>();
+
+  static {
+    for (String word : new String[]{
+        // Responses
+        "success", "failure", "done", "true", "false",
+        // Node kinds
+        "none", "file", "dir", "unknown",
+        // Depth
+        "empty", "files", "immediates", "infinity",
+        // Editor commands
+        "target-rev", "open-root", "delete-entry", "add-dir", "open-dir", "change-dir-prop", "close-dir", "absent-dir",
+        "add-file", "open-file", "apply-textdelta", "textdelta-chunk", "textdelta-end", "change-file-prop", "close-file",
+        "absent-file", "close-edit", "abort-edit", "finish-replay", "revprops",
+        // Capabilities
+        "edit-pipeline", "svndiff1", "accepts-svndiff2", "absent-entries", "inherited-props", "log-revprops",
+    }) {
+      words.put(word, (word + ' ').getBytes(StandardCharsets.US_ASCII));
+    }
+  }
+
   @NotNull
   private final OutputStream stream;
+  @NotNull
+  private final byte[] buffer;
+  private int count = 0;
+  @NotNull
+  private final OutputStream output = new OutputStream() {
+    @Override
+    public void write(int b) throws IOException {
+      if (capture != null) {
+        capture.write(b);
+      }
+      if (count == buffer.length) {
+        flushBuffer();
+      }
+      buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(@NotNull byte[] data, int offset, int length) throws IOException {
+      if (capture != null) {
+        capture.write(data, offset, length);
+      }
+      if (length >= buffer.length) {
+        // Large data is written without copy.
+        flushBuffer();
+        writeStream(data, offset, length);
+        return;
+      }
+      if (length > buffer.length - count) {
+        flushBuffer();
+      }
+      System.arraycopy(data, offset, buffer, count, length);
+      count += length;
+    }
+  };
   private int depth = 0;
+  // Buffer for number encoding.
+  @NotNull
+  private final byte[] digits = new byte[20];
+  // Written bytes and time spent in stream writes for throughput estimation.
+  private long writtenBytes = 0;
+  private long writtenNanos = 0;
+  @Nullable
+  private OutputStream capture;
+
+  public SvnServerWriter(@NotNull OutputStream stream, int bufferSize) {
+    this.stream = stream;
+    this.buffer = new byte[Math.max(1, bufferSize)];
+  }
 
   public SvnServerWriter(@NotNull OutputStream stream) {
-    this.stream = new BufferedOutputStream(stream);
+    this(stream, DEFAULT_BUFFER_SIZE);
   }
 
   @NotNull
   public SvnServerWriter listBegin() throws IOException {
-    return write(ListBeginToken.instance);
+    output.write(LIST_BEGIN, 0, LIST_BEGIN.length);
+    depth++;
+    return this;
   }
 
   @NotNull
   public SvnServerWriter listEnd() throws IOException {
-    return write(ListEndToken.instance);
+    output.write(LIST_END, 0, LIST_END.length);
+    depth--;
+    if (depth < 0) {
+      throw new IllegalStateException("Too many closed lists.");
+    }
+    if (depth == 0) {
+      separator();
+    }
+    return this;
   }
 
   @NotNull
   public SvnServerWriter word(@NotNull String word) throws IOException {
-    WordToken.write(stream, word);
-    if (depth == 0) stream.flush();
+    final byte[] encoded = words.get(word);
+    if (encoded != null) {
+      output.write(encoded, 0, encoded.length);
+      return this;
+    }
+    for (int i = 0; i < word.length(); ++i) {
+      output.write(word.charAt(i));
+    }
+    output.write(' ');
     return this;
   }
 
   @NotNull
   public SvnServerWriter word(char c) throws IOException {
-    return word(String.valueOf(c));
+    output.write(c);
+    output.write(' ');
+    return this;
   }
 
   @SuppressWarnings("QuestionableName")
@@ -72,21 +175,36 @@ public final class SvnServerWriter {
 
   @NotNull
   public SvnServerWriter binary(@NotNull byte[] data, int offset, int length) throws IOException {
-    StringToken.write(stream, data, offset, length);
-    if (depth == 0) stream.flush();
+    writeDigits(length);
+    output.write(':');
+    output.write(data, offset, length);
+    output.write(' ');
     return this;
   }
 
   @NotNull
   public SvnServerWriter number(long number) throws IOException {
-    NumberToken.write(stream, number);
-    if (depth == 0) stream.flush();
+    writeDigits(number);
+    output.write(' ');
     return this;
   }
 
+  private void writeDigits(long number) throws IOException {
+    if (number < 0) {
+      output.write('-');
+    }
+    int position = digits.length;
+    long value = number;
+    do {
+      digits[--position] = (byte) ('0' + Math.abs(value % 10));
+      value /= 10;
+    } while (value != 0);
+    output.write(digits, position, digits.length - position);
+  }
+
   @NotNull
   public SvnServerWriter separator() throws IOException {
-    stream.write('\n');
+    output.write('\n');
     return this;
   }
 
@@ -97,7 +215,7 @@ public final class SvnServerWriter {
 
   @NotNull
   public SvnServerWriter write(@NotNull SvnServerToken token) throws IOException {
-    token.write(stream);
+    token.write(output);
     if (token.equals(ListBeginToken.instance)) {
       depth++;
     } else if (token.equals(ListEndToken.instance)) {
@@ -108,11 +226,80 @@ public final class SvnServerWriter {
     }
     if (depth == 0) {
       separator();
-      stream.flush();
     }
     return this;
   }
 
+  /**
+   * Write already encoded protocol data (for example, previously captured by {@link #setCapture}).
+   */
+  @NotNull
+  public SvnServerWriter raw(@NotNull InputStream data) throws IOException {
+    final byte[] chunk = new byte[buffer.length];
+    while (true) {
+      final int read = data.read(chunk);
+      if (read < 0) {
+        break;
+      }
+      output.write(chunk, 0, read);
+    }
+    return this;
+  }
+
+  /**
+   * Copy all data written after this call to capture stream.
+   *
+   * @param capture Capture stream or null for stop capturing.
+   */
+  public void setCapture(@Nullable OutputStream capture) {
+    this.capture = capture;
+  }
+
+  /**
+   * Send buffered data to stream.
+   * <p>
+   * Should be called before waiting for client response.
+   */
+  public void flush() throws IOException {
+    flushBuffer();
+    stream.flush();
+  }
+
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      writeStream(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  private void writeStream(@NotNull byte[] data, int offset, int length) throws IOException {
+    final long startTime = System.nanoTime();
+    stream.write(data, offset, length);
+    writtenNanos += System.nanoTime() - startTime;
+    writtenBytes += length;
+    if (writtenBytes > THROUGHPUT_MAX_SAMPLE) {
+      writtenBytes /= 2;
+      writtenNanos /= 2;
+    }
+  }
+
+  /**
+   * Estimated output stream throughput.
+   * <p>
+   * Measured by time spent in stream writes: if writes don't block, stream is faster than we produce data.
+   *
+   * @return Throughput in bytes per second or -1, if too few data is written for estimation.
+   */
+  public long getThroughput() {
+    if (writtenBytes < THROUGHPUT_MIN_SAMPLE) {
+      return -1;
+    }
+    if (writtenNanos <= 0) {
+      return Long.MAX_VALUE;
+    }
+    return (long) (writtenBytes * 1e9 / writtenNanos);
+  }
+
   @NotNull
   public SvnServerWriter writeMap(@Nullable Map<String, String> properties) throws IOException {
     listBegin();
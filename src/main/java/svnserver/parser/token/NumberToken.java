@@ -20,12 +20,36 @@ import java.nio.charset.StandardCharsets;
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class NumberToken implements SvnServerToken {
+  private static final int CACHE_SIZE = 1024;
+  @NotNull
+  private static final NumberToken[] cache = new NumberToken[CACHE_SIZE];
+
+  static {
+    for (int i = 0; i < CACHE_SIZE; ++i) {
+      cache[i] = new NumberToken(i);
+    }
+  }
+
   private final int number;
 
   public NumberToken(int number) {
     this.number = number;
   }
 
+  /**
+   * Get number token. Small numbers are cached.
+   *
+   * @param number Number.
+   * @return Number token.
+   */
+  @NotNull
+  public static NumberToken valueOf(int number) {
+    if (number >= 0 && number < CACHE_SIZE) {
+      return cache[number];
+    }
+    return new NumberToken(number);
+  }
+
   public int getNumber() {
     return number;
   }
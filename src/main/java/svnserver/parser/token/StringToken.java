@@ -23,6 +23,8 @@ import java.util.Arrays;
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class StringToken implements TextToken {
+  @NotNull
+  public static final StringToken EMPTY = new StringToken(new byte[0]);
   @NotNull
   private final byte[] data;
 
@@ -16,6 +16,7 @@ import svnserver.repository.locks.LockManagerWrite;
 import svnserver.repository.locks.LockWorker;
 
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * Repository interface.
@@ -64,6 +65,36 @@ public interface VcsRepository extends AutoCloseable {
    */
   void updateRevisions() throws IOException, SVNException;
 
+  /**
+   * Update revision information on new client connection.
+   * <p>
+   * Can do nothing, if revision information is kept up to date in background.
+   *
+   * @throws IOException
+   */
+  default void updateRevisionsOnConnect() throws IOException, SVNException {
+    updateRevisions();
+  }
+
+  /**
+   * Check for read-only repository (replica). Read-only repository can't create commits or modify locks.
+   *
+   * @return True, if repository is read-only.
+   */
+  default boolean isReadOnly() {
+    return false;
+  }
+
+  /**
+   * Hint about files, which content will be read soon.
+   * <p>
+   * Implementation can load file contents in storage order for avoid random reads.
+   *
+   * @param files Files.
+   */
+  default void prefetch(@NotNull Collection<? extends VcsFile> files) throws IOException {
+  }
+
   /**
    * Get revision info.
    *
@@ -34,6 +34,11 @@ final class GitLogEntry implements VcsLogEntry {
     this.copyFrom = pair.getNewEntry() != null ? renames.get(pair.getNewEntry().getFullPath()) : null;
   }
 
+  @Nullable
+  GitFile getNewEntry() {
+    return pair.getNewEntry();
+  }
+
   @Override
   public char getChange() throws IOException, SVNException {
     if (pair.getNewEntry() == null)
@@ -0,0 +1,119 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+import svnserver.repository.git.filter.GitFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background computation of file metadata (MD5 and size) for new revisions.
+ * <p>
+ * File MD5 is cached by filter, but computed on first request by reading whole file content. Computing it
+ * in background after revision indexing prevents first checkout after push from blocking on large files.
+ * Changed files are collected in indexer thread, so revision loading is not delayed by tree comparison.
+ *
+ * @author agent <agent@local>
+ */
+public final class GitMetadataIndexer implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitMetadataIndexer.class);
+  // Maximum count of files for metadata computation per submit (newest files are preferred).
+  private static final int MAX_FILES = 10000;
+
+  @NotNull
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+    final Thread thread = new Thread(r, "GitMetadataIndexer");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  GitMetadataIndexer() {
+  }
+
+  /**
+   * Compute metadata of files, changed by revisions, in background.
+   *
+   * @param name      Repository name for logging.
+   * @param revisions Newly indexed revisions (oldest first).
+   */
+  void submit(@NotNull String name, @NotNull List<GitRevision> revisions) {
+    if (revisions.isEmpty()) {
+      return;
+    }
+    try {
+      executor.execute(() -> index(name, revisions));
+    } catch (RejectedExecutionException ignored) {
+      // Server is shutting down.
+    }
+  }
+
+  private void index(@NotNull String name, @NotNull List<GitRevision> revisions) {
+    final long beginTime = System.currentTimeMillis();
+    final List<GitFile> files = collectFiles(name, revisions);
+    log.debug("[{}]: computing metadata of {} files", name, files.size());
+    for (GitFile file : files) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      try {
+        file.getMd5();
+        file.getSize();
+      } catch (Exception e) {
+        // Error will be reported on actual file request.
+        log.debug("[{}]: can't compute metadata of {}", name, file.getFullPath(), e);
+      }
+    }
+    log.debug("[{}]: metadata of {} files computed: {} ms", name, files.size(), System.currentTimeMillis() - beginTime);
+  }
+
+  /**
+   * Collect new and modified files with cached metadata, newest revisions first.
+   */
+  @NotNull
+  private static List<GitFile> collectFiles(@NotNull String name, @NotNull List<GitRevision> revisions) {
+    final List<GitFile> files = new ArrayList<>();
+    for (int i = revisions.size() - 1; i >= 0; --i) {
+      final GitRevision revision = revisions.get(i);
+      try {
+        for (GitLogEntry entry : revision.getChanges().values()) {
+          final GitFile file = entry.getNewEntry();
+          if (file == null || file.isDirectory()) {
+            continue;
+          }
+          // Metadata, which is not cached by filter, will be computed again on actual file request.
+          final GitFilter filter = file.getFilter();
+          if (filter == null || !filter.isMetadataCached()) {
+            continue;
+          }
+          files.add(file);
+          if (files.size() >= MAX_FILES) {
+            return files;
+          }
+        }
+      } catch (Exception e) {
+        log.debug("[{}]: can't collect changes of revision {}", name, revision.getId(), e);
+      }
+    }
+    return files;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.internal.storage.file.PackFile;
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Blob content prefetch in pack order.
+ * <p>
+ * Tree walk reads blobs in path order, which jumps randomly across pack files. Reading blobs, that will be needed
+ * soon, ordered by pack offset replaces random reads by sequential ones. Loaded pack data is kept by JGit window
+ * cache and OS file cache, so prefetch is bounded by data size to keep it in cache until blobs are read again.
+ *
+ * @author agent <agent@local>
+ */
+final class GitPrefetch {
+  // Maximum total size of prefetched blobs.
+  private static final long MAX_PREFETCH_SIZE = 4 * 1024 * 1024;
+  // Large blobs are streamed anyway.
+  private static final long MAX_OBJECT_SIZE = 512 * 1024;
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitPrefetch.class);
+
+  private static volatile boolean packOrderSupported = true;
+
+  private GitPrefetch() {
+  }
+
+  static void prefetch(@NotNull Repository repository, @NotNull Collection<ObjectId> objects) throws IOException {
+    if (objects.size() < 2) {
+      return;
+    }
+    try (ObjectReader reader = repository.newObjectReader()) {
+      long size = 0;
+      for (ObjectId objectId : sortByPackOrder(repository, objects)) {
+        try {
+          final ObjectLoader loader = reader.open(objectId, Constants.OBJ_BLOB);
+          if (loader.isLarge() || loader.getSize() > MAX_OBJECT_SIZE) {
+            continue;
+          }
+          loader.getCachedBytes();
+          size += loader.getSize();
+          if (size >= MAX_PREFETCH_SIZE) {
+            break;
+          }
+        } catch (MissingObjectException ignored) {
+          // Object will be reported on actual read.
+        }
+      }
+    }
+  }
+
+  /**
+   * Sort objects by pack file and offset in pack file.
+   * <p>
+   * Loose objects and objects from unknown storage are placed last in original order. If pack file offsets are
+   * not available, objects are returned in original order.
+   */
+  @NotNull
+  static List<ObjectId> sortByPackOrder(@NotNull Repository repository, @NotNull Collection<ObjectId> objects) {
+    final List<ObjectId> result = new ArrayList<>(new LinkedHashSet<>(objects));
+    if (!packOrderSupported) {
+      return result;
+    }
+    final Map<ObjectId, Location> locations;
+    try {
+      locations = getLocations(repository, result);
+    } catch (LinkageError e) {
+      // Pack file API is JGit internal and can be changed without notice.
+      log.warn("Can't get pack file offsets, blob prefetch in pack order disabled", e);
+      packOrderSupported = false;
+      return result;
+    }
+    result.sort(Comparator.comparing(locations::get));
+    return result;
+  }
+
+  @NotNull
+  private static Map<ObjectId, Location> getLocations(@NotNull Repository repository, @NotNull Collection<ObjectId> objects) {
+    final Map<ObjectId, Location> locations = new HashMap<>();
+    final ObjectDatabase database = repository.getObjectDatabase();
+    final Collection<PackFile> packs = database instanceof ObjectDirectory ? ((ObjectDirectory) database).getPacks() : Collections.emptyList();
+    for (ObjectId objectId : objects) {
+      int packIndex = 0;
+      long offset = -1;
+      for (PackFile pack : packs) {
+        try {
+          offset = pack.getIndex().findOffset(objectId);
+        } catch (IOException ignored) {
+          // Pack file can be removed by concurrent gc: object will be read from other pack.
+        }
+        if (offset >= 0) {
+          break;
+        }
+        packIndex++;
+      }
+      // Loose objects and objects from unknown storage are read last.
+      locations.put(objectId, new Location(packIndex, offset));
+    }
+    return locations;
+  }
+
+  private static final class Location implements Comparable<Location> {
+    private final int packIndex;
+    private final long offset;
+
+    private Location(int packIndex, long offset) {
+      this.packIndex = packIndex;
+      this.offset = offset;
+    }
+
+    @Override
+    public int compareTo(@NotNull Location o) {
+      final int result = Integer.compare(packIndex, o.packIndex);
+      return result != 0 ? result : Long.compare(offset, o.offset);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Shared Git reference change notifier.
+ * <p>
+ * Single watch service and thread receive filesystem events of all watched repositories. Revision updates and
+ * periodic polling are run by single scheduled executor.
+ *
+ * @author agent <agent@local>
+ */
+public final class GitRefWatchService implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitRefWatchService.class);
+  @NotNull
+  private static final WatchEvent.Kind<?>[] KINDS = {
+      StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_MODIFY,
+      StandardWatchEventKinds.ENTRY_DELETE
+  };
+
+  @NotNull
+  private final Map<WatchKey, GitRefWatcher> watchers = new ConcurrentHashMap<>();
+  @NotNull
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    final Thread thread = new Thread(r, "GitRefWatcher-update");
+    thread.setDaemon(true);
+    return thread;
+  });
+  @Nullable
+  private WatchService watchService;
+  private boolean watchUnsupported;
+  private boolean closed;
+
+  GitRefWatchService() {
+  }
+
+  @NotNull
+  ScheduledExecutorService getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * Watch directories for changes.
+   *
+   * @return Watch keys or empty list, if filesystem events are not supported.
+   */
+  @NotNull
+  List<WatchKey> watch(@NotNull GitRefWatcher watcher, @NotNull Collection<Path> directories) {
+    final WatchService service = getWatchService();
+    if (service == null) {
+      return Collections.emptyList();
+    }
+    final List<WatchKey> keys = new ArrayList<>();
+    try {
+      for (Path directory : directories) {
+        final WatchKey key = directory.register(service, KINDS);
+        watchers.put(key, watcher);
+        keys.add(key);
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("Can't watch for reference changes, fallback to periodic update: {}", e.getMessage());
+      unwatch(keys);
+      return Collections.emptyList();
+    }
+    return keys;
+  }
+
+  void unwatch(@NotNull Collection<WatchKey> keys) {
+    for (WatchKey key : keys) {
+      key.cancel();
+      watchers.remove(key);
+    }
+  }
+
+  @Nullable
+  private synchronized WatchService getWatchService() {
+    if (watchService != null || watchUnsupported || closed) {
+      return watchService;
+    }
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+    } catch (IOException | UnsupportedOperationException e) {
+      log.warn("Can't watch for reference changes, fallback to periodic update: {}", e.getMessage());
+      watchUnsupported = true;
+      return null;
+    }
+    final WatchService service = watchService;
+    final Thread thread = new Thread(() -> run(service), "GitRefWatcher");
+    thread.setDaemon(true);
+    thread.start();
+    return service;
+  }
+
+  private void run(@NotNull WatchService service) {
+    try {
+      while (true) {
+        final WatchKey key = service.take();
+        key.pollEvents();
+        final GitRefWatcher watcher = watchers.get(key);
+        if (!key.reset()) {
+          watchers.remove(key);
+        }
+        if (watcher != null) {
+          watcher.requestUpdate();
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ignored) {
+      // Watcher is closed.
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    final WatchService service;
+    synchronized (this) {
+      closed = true;
+      service = watchService;
+    }
+    scheduler.shutdownNow();
+    if (service != null) {
+      service.close();
+    }
+  }
+}
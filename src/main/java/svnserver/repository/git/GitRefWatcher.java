@@ -0,0 +1,142 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.context.Local;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background revision updater.
+ * <p>
+ * Watch for Git reference changes (loose refs and packed-refs) and update repository revisions.
+ * Periodic update is used as fallback for missing filesystem events.
+ * <p>
+ * Watch thread and update executor are shared by all repositories (see {@link GitRefWatchService}).
+ *
+ * @author agent <agent@local>
+ */
+public final class GitRefWatcher implements Local {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitRefWatcher.class);
+  /**
+   * Delay before update to merge event burst of single reference change into one update.
+   */
+  private static final long EVENT_DELAY = 100;
+
+  @NotNull
+  private final GitRepository repository;
+  @NotNull
+  private final GitRefWatchService service;
+  private final long pollInterval;
+  @NotNull
+  private final AtomicBoolean updatePending = new AtomicBoolean(false);
+  private boolean started = false;
+  private volatile boolean closed = false;
+  @NotNull
+  private List<WatchKey> keys = Collections.emptyList();
+  @Nullable
+  private ScheduledFuture<?> poll;
+
+  /**
+   * @param pollInterval Periodic update interval in milliseconds.
+   */
+  public GitRefWatcher(@NotNull GitRepository repository, long pollInterval) {
+    this.repository = repository;
+    this.service = repository.getContext().getShared().getOrCreate(GitRefWatchService.class, GitRefWatchService::new);
+    this.pollInterval = pollInterval;
+  }
+
+  /**
+   * Start watching. Should be called after initial revision loading.
+   */
+  public synchronized void start() {
+    if (closed || started) {
+      return;
+    }
+    started = true;
+    keys = service.watch(this, getWatchedDirectories());
+    try {
+      poll = service.getScheduler().scheduleWithFixedDelay(this::requestUpdate, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ignored) {
+      // Server is shutting down.
+    }
+  }
+
+  /**
+   * @return True, if repository revisions are updated in background.
+   */
+  public synchronized boolean isActive() {
+    return started && !closed;
+  }
+
+  @NotNull
+  private List<Path> getWatchedDirectories() {
+    final File gitDir = repository.getRepository().getDirectory();
+    final List<Path> directories = new ArrayList<>();
+    // packed-refs
+    directories.add(gitDir.toPath());
+    for (String refName : repository.getWatchedRefs()) {
+      final File refDir = new File(gitDir, refName).getParentFile();
+      if (refDir.isDirectory() && !directories.contains(refDir.toPath())) {
+        directories.add(refDir.toPath());
+      }
+    }
+    return directories;
+  }
+
+  /**
+   * Schedule revision update. Requests, received before update is started, are merged.
+   */
+  void requestUpdate() {
+    if (closed || !updatePending.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      service.getScheduler().schedule(this::update, EVENT_DELAY, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ignored) {
+      // Server is shutting down.
+    }
+  }
+
+  private void update() {
+    updatePending.set(false);
+    if (closed) {
+      return;
+    }
+    try {
+      repository.updateRevisions();
+    } catch (IOException | SVNException | RuntimeException e) {
+      log.error("[{}]: failed to update revisions", repository.getContext().getName(), e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (poll != null) {
+      poll.cancel(false);
+    }
+    service.unwatch(keys);
+  }
+}
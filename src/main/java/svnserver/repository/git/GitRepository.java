@@ -111,6 +111,10 @@ public final class GitRepository implements VcsRepository {
   @NotNull
   private final Map<ObjectId, GitProperty[]> filePropertyCache = new ConcurrentHashMap<>();
   private final boolean renameDetection;
+  // Read-only replica: revision cache is created by primary node.
+  private final boolean readOnly;
+  @NotNull
+  private final GitMetadataIndexer metadataIndexer;
 
   @NotNull
   private static final GroupSerializerObjectArray<ObjectId> objectIdSerializer = new GroupSerializerObjectArray<ObjectId>() {
@@ -199,9 +203,21 @@ public final class GitRepository implements VcsRepository {
                        @NotNull String branch,
                        boolean renameDetection,
                        @NotNull LockManagerFactory lockManagerFactory) throws IOException {
+    this(context, repository, pusher, branch, renameDetection, lockManagerFactory, false);
+  }
+
+  public GitRepository(@NotNull LocalContext context,
+                       @NotNull Repository repository,
+                       @NotNull GitPusher pusher,
+                       @NotNull String branch,
+                       boolean renameDetection,
+                       @NotNull LockManagerFactory lockManagerFactory,
+                       boolean readOnly) throws IOException {
     this.context = context;
+    this.readOnly = readOnly;
     final SharedContext shared = context.getShared();
     shared.getOrCreate(GitSubmodules.class, GitSubmodules::new).register(repository);
+    this.metadataIndexer = shared.getOrCreate(GitMetadataIndexer.class, GitMetadataIndexer::new);
     this.repository = repository;
     this.binaryCache = shared.getCacheDB().hashMap("cache.binary", Serializer.STRING, Serializer.BOOLEAN).createOrOpen();
     this.revisionCache = context.getShared().getCacheDB().hashMap(String.format("cache-revision.%s.%s.v%s", context.getName(), renameDetection ? 1 : 0, revisionCacheVersion), objectIdSerializer, cacheRevisionSerializer).createOrOpen();
@@ -210,13 +226,41 @@ public final class GitRepository implements VcsRepository {
     this.lockManagerFactory = lockManagerFactory;
     this.gitFilters = GitFilterHelper.createFilters(context);
 
-    final Ref svnBranchRef = LayoutHelper.initRepository(repository, branch);
+    final Ref svnBranchRef = readOnly ? LayoutHelper.findCacheRef(repository, branch) : LayoutHelper.initRepository(repository, branch);
     this.svnBranch = svnBranchRef.getName();
     this.gitBranch = Constants.R_HEADS + branch;
     final String repositoryId = loadRepositoryId(repository, svnBranchRef);
     this.uuid = UUID.nameUUIDFromBytes((repositoryId + "\0" + gitBranch).getBytes(StandardCharsets.UTF_8)).toString();
 
-    log.info("[{}]: registered branch: {}", context.getName(), gitBranch);
+    log.info("[{}]: registered branch: {}{}", context.getName(), gitBranch, readOnly ? " (read-only replica)" : "");
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  @Override
+  public void prefetch(@NotNull Collection<? extends VcsFile> files) throws IOException {
+    final List<ObjectId> objects = new ArrayList<>(files.size());
+    for (VcsFile file : files) {
+      if (!(file instanceof GitFile)) {
+        continue;
+      }
+      final GitFile gitFile = (GitFile) file;
+      final GitObject<ObjectId> objectId = gitFile.getObjectId();
+      // Submodule objects are stored in other repositories.
+      if (objectId != null && objectId.getRepo() == repository && gitFile.getFileMode().getObjectType() == Constants.OBJ_BLOB) {
+        objects.add(objectId.getObject());
+      }
+    }
+    GitPrefetch.prefetch(repository, objects);
+  }
+
+  private void checkWritable() throws SVNException {
+    if (readOnly) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNSUPPORTED_FEATURE, "Repository is read-only replica"));
+    }
   }
 
   @NotNull
@@ -249,7 +293,7 @@ public final class GitRepository implements VcsRepository {
    * @throws IOException
    * @throws SVNException
    */
-  private void loadRevisions() throws IOException, SVNException {
+  private boolean loadRevisions() throws IOException, SVNException {
     // Fast check.
     lock.readLock().lock();
     try {
@@ -259,13 +303,14 @@ public final class GitRepository implements VcsRepository {
         lastCommitId = revisions.get(lastRevision).getCacheCommit();
         final Ref head = repository.exactRef(svnBranch);
         if (head.getObjectId().equals(lastCommitId)) {
-          return;
+          return false;
         }
       }
     } finally {
       lock.readLock().unlock();
     }
     // Real loading.
+    final List<GitRevision> indexedRevisions = new ArrayList<>();
     lock.writeLock().lock();
     try {
       final int lastRevision = revisions.size() - 1;
@@ -284,14 +329,16 @@ public final class GitRepository implements VcsRepository {
         objectId = commit.getParent(0);
       }
       if (newRevs.isEmpty()) {
-        return;
+        return false;
       }
       final long beginTime = System.currentTimeMillis();
       int processed = 0;
       long reportTime = beginTime;
       log.info("[{}]: loading cached revision changes: {} revisions", context.getName(), newRevs.size());
       for (int i = newRevs.size() - 1; i >= 0; i--) {
-        loadRevisionInfo(newRevs.get(i));
+        if (loadRevisionInfo(newRevs.get(i))) {
+          indexedRevisions.add(revisions.get(revisions.size() - 1));
+        }
         processed++;
         long currentTime = System.currentTimeMillis();
         if (currentTime - reportTime > REPORT_DELAY) {
@@ -305,6 +352,8 @@ public final class GitRepository implements VcsRepository {
     } finally {
       lock.writeLock().unlock();
     }
+    metadataIndexer.submit(context.getName(), indexedRevisions);
+    return true;
   }
 
   private static class CacheInfo {
@@ -331,6 +380,9 @@ public final class GitRepository implements VcsRepository {
    * @throws SVNException
    */
   public boolean cacheRevisions() throws IOException {
+    if (readOnly) {
+      return false;
+    }
     // Fast check.
     lock.readLock().lock();
     try {
@@ -401,26 +453,19 @@ public final class GitRepository implements VcsRepository {
   }
 
   @NotNull
-  private CacheRevision loadCacheRevision(@NotNull ObjectReader reader, @NotNull RevCommit newCommit, int revisionId) throws IOException, SVNException {
-    final ObjectId cacheKey = newCommit.copy();
-
-    CacheRevision result = revisionCache.get(cacheKey);
-    if (result == null) {
-      final RevCommit baseCommit = LayoutHelper.loadOriginalCommit(reader, newCommit);
-      final GitFile oldTree = getSubversionTree(reader, newCommit.getParentCount() > 0 ? newCommit.getParent(0) : null, revisionId - 1);
-      final GitFile newTree = getSubversionTree(reader, newCommit, revisionId);
-      final Map<String, CacheChange> fileChange = new TreeMap<>();
-      for (Map.Entry<String, GitLogPair> entry : ChangeHelper.collectChanges(oldTree, newTree, true).entrySet()) {
-        fileChange.put(entry.getKey(), new CacheChange(entry.getValue()));
-      }
-      result = new CacheRevision(
-          baseCommit,
-          collectRename(oldTree, newTree),
-          fileChange
-      );
-      revisionCache.put(cacheKey, result);
+  private CacheRevision createCacheRevision(@NotNull ObjectReader reader, @NotNull RevCommit newCommit, int revisionId) throws IOException, SVNException {
+    final RevCommit baseCommit = LayoutHelper.loadOriginalCommit(reader, newCommit);
+    final GitFile oldTree = getSubversionTree(reader, newCommit.getParentCount() > 0 ? newCommit.getParent(0) : null, revisionId - 1);
+    final GitFile newTree = getSubversionTree(reader, newCommit, revisionId);
+    final Map<String, CacheChange> fileChange = new TreeMap<>();
+    for (Map.Entry<String, GitLogPair> entry : ChangeHelper.collectChanges(oldTree, newTree, true).entrySet()) {
+      fileChange.put(entry.getKey(), new CacheChange(entry.getValue()));
     }
-    return result;
+    return new CacheRevision(
+        baseCommit,
+        collectRename(oldTree, newTree),
+        fileChange
+    );
   }
 
   @NotNull
@@ -435,32 +480,72 @@ public final class GitRepository implements VcsRepository {
   @Override
   public void updateRevisions() throws IOException, SVNException {
     boolean gotNewRevisions = false;
+    boolean loadedRevisions = false;
 
     while (true) {
-      loadRevisions();
+      if (loadRevisions()) {
+        loadedRevisions = true;
+      }
       if (!cacheRevisions()) {
         break;
       }
       gotNewRevisions = true;
     }
 
-    if (gotNewRevisions) {
+    if (readOnly) {
+      // Revision cache created by primary node, only loaded revision info should be saved.
+      if (loadedRevisions) {
+        context.getShared().getCacheDB().commit();
+      }
+    } else if (gotNewRevisions) {
       wrapLockWrite((lockManager) -> {
         lockManager.validateLocks();
         return Boolean.TRUE;
       });
       context.getShared().getCacheDB().commit();
     }
+
+    final GitRefWatcher watcher = context.get(GitRefWatcher.class);
+    if (watcher != null) {
+      watcher.start();
+    }
+  }
+
+  @Override
+  public void updateRevisionsOnConnect() throws IOException, SVNException {
+    final GitRefWatcher watcher = context.get(GitRefWatcher.class);
+    if (watcher == null || !watcher.isActive()) {
+      updateRevisions();
+    }
+  }
+
+  /**
+   * @return References, which changes should be reflected in revision list.
+   */
+  @NotNull
+  List<String> getWatchedRefs() {
+    return readOnly ? Collections.singletonList(svnBranch) : Arrays.asList(gitBranch, svnBranch);
   }
 
   private boolean isTreeEmpty(RevTree tree) throws IOException {
     return new CanonicalTreeParser(GitRepository.emptyBytes, repository.newObjectReader(), tree).eof();
   }
 
-  private void loadRevisionInfo(@NotNull RevCommit commit) throws IOException, SVNException {
+  /**
+   * Load revision information.
+   *
+   * @return True, if revision changes were not found in revision cache and were indexed.
+   */
+  private boolean loadRevisionInfo(@NotNull RevCommit commit) throws IOException, SVNException {
     final ObjectReader reader = repository.newObjectReader();
-    final CacheRevision cacheRevision = loadCacheRevision(reader, commit, revisions.size());
     final int revisionId = revisions.size();
+    final ObjectId cacheKey = commit.copy();
+    CacheRevision cacheRevision = revisionCache.get(cacheKey);
+    final boolean indexed = cacheRevision == null;
+    if (cacheRevision == null) {
+      cacheRevision = createCacheRevision(reader, commit, revisionId);
+      revisionCache.put(cacheKey, cacheRevision);
+    }
     final Map<String, VcsCopyFrom> copyFroms = new HashMap<>();
     for (Map.Entry<String, String> entry : cacheRevision.getRenames().entrySet()) {
       copyFroms.put(entry.getKey(), new VcsCopyFrom(revisionId - 1, entry.getValue()));
@@ -498,6 +583,7 @@ public final class GitRepository implements VcsRepository {
       revisionByHash.put(svnCommit.getId(), revision);
     }
     revisions.add(revision);
+    return indexed;
   }
 
   @NotNull
@@ -691,6 +777,7 @@ public final class GitRepository implements VcsRepository {
   @NotNull
   @Override
   public VcsWriter createWriter(@NotNull User user) throws SVNException {
+    checkWritable();
     if (user.getEmail() == null || user.getEmail().isEmpty()) {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.RA_NOT_AUTHORIZED, "Users with undefined email can't create commits"));
     }
@@ -786,6 +873,7 @@ public final class GitRepository implements VcsRepository {
   @NotNull
   @Override
   public <T> T wrapLockWrite(@NotNull LockWorker<T, LockManagerWrite> work) throws SVNException, IOException {
+    checkWritable();
     return lockManagerFactory.wrapLockWrite(this, work);
   }
 
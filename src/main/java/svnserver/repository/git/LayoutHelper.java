@@ -81,6 +81,23 @@ public final class LayoutHelper {
     return ref;
   }
 
+  /**
+   * Get existing revision cache reference without repository modification.
+   *
+   * @param repository Repository.
+   * @param branch     Branch name.
+   * @return Revision cache reference.
+   * @throws IOException If revision cache is not created yet.
+   */
+  @NotNull
+  public static Ref findCacheRef(@NotNull Repository repository, @NotNull String branch) throws IOException {
+    final Ref ref = repository.exactRef(PREFIX_REF + branch);
+    if (ref == null) {
+      throw new IOException("Revision cache reference not found: " + PREFIX_REF + branch + " (repository must be indexed by primary node)");
+    }
+    return ref;
+  }
+
   /**
    * Get active branches with commits from repository.
    *
@@ -63,6 +63,18 @@ public interface GitFilter {
    */
   long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException;
 
+  /**
+   * Is object metadata cached.
+   * <p>
+   * Object md5 sum is stored in persistent cache and object size is cached or available without reading
+   * object content. Metadata of such objects is computed in background after revision indexing.
+   *
+   * @return True, if object metadata is cached by filter.
+   */
+  default boolean isMetadataCached() {
+    return false;
+  }
+
   /**
    * Get object stream.
    *
@@ -55,6 +55,11 @@ public class GitFilterGzip implements GitFilter {
     return GitFilterHelper.getSize(this, cacheMd5, cacheSize, objectId);
   }
 
+  @Override
+  public boolean isMetadataCached() {
+    return true;
+  }
+
   @NotNull
   @Override
   public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
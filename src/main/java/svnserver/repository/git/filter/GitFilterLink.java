@@ -59,6 +59,11 @@ public class GitFilterLink implements GitFilter {
     return reader.getObjectSize(objectId.getObject(), Constants.OBJ_BLOB) + LINK_PREFIX.length;
   }
 
+  @Override
+  public boolean isMetadataCached() {
+    return true;
+  }
+
   @NotNull
   @Override
   public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
@@ -56,6 +56,11 @@ public final class GitFilterRaw implements GitFilter {
     return reader.getObjectSize(objectId.getObject(), Constants.OBJ_BLOB);
   }
 
+  @Override
+  public boolean isMetadataCached() {
+    return true;
+  }
+
   @NotNull
   @Override
   public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
@@ -0,0 +1,69 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.mapping;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring.
+ * <p>
+ * Every node is placed on the ring multiple times (virtual nodes) for more uniform key distribution.
+ * Adding or removing node moves only keys of this node.
+ *
+ * @author agent <agent@local>
+ */
+public final class ConsistentHash<T> {
+  @NotNull
+  private final NavigableMap<Long, T> ring = new TreeMap<>();
+
+  public ConsistentHash(@NotNull Collection<T> nodes, int virtualNodes) {
+    for (T node : nodes) {
+      for (int i = 0; i < Math.max(1, virtualNodes); ++i) {
+        ring.put(hash(node.toString() + "#" + i), node);
+      }
+    }
+  }
+
+  /**
+   * Get node for key.
+   *
+   * @param key Key.
+   * @return Node or null if ring is empty.
+   */
+  @Nullable
+  public T get(@NotNull String key) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    final Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  private static long hash(@NotNull String value) {
+    final byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    long result = 0;
+    for (int i = 0; i < 8; ++i) {
+      result = (result << 8) | (digest[i] & 0xFF);
+    }
+    return result;
+  }
+}
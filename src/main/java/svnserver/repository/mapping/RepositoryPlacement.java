@@ -0,0 +1,103 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.mapping;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.StringHelper;
+import svnserver.context.Shared;
+import svnserver.context.SharedContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Repository placement between cluster nodes.
+ * <p>
+ * Repository is served only by one node, which is selected by consistent hash of repository name.
+ *
+ * @author agent <agent@local>
+ */
+public final class RepositoryPlacement implements Shared {
+  @NotNull
+  private final ConsistentHash<String> nodes;
+  @NotNull
+  private final String self;
+
+  /**
+   * @param nodes        Cluster nodes addresses (host:port).
+   * @param self         Current node address (empty string for routing node).
+   * @param virtualNodes Virtual nodes count per cluster node.
+   */
+  public RepositoryPlacement(@NotNull List<String> nodes, @NotNull String self, int virtualNodes) {
+    this.nodes = new ConsistentHash<>(nodes, virtualNodes);
+    this.self = self;
+  }
+
+  /**
+   * Get node for repository.
+   *
+   * @param name Repository name.
+   * @return Node address (host:port).
+   */
+  @Nullable
+  public String getNode(@NotNull String name) {
+    return nodes.get(StringHelper.normalizeDir(name));
+  }
+
+  public boolean isLocal(@NotNull String name) {
+    return self.equals(getNode(name));
+  }
+
+  /**
+   * Check repository should be served by current node.
+   *
+   * @param context Shared context.
+   * @param name    Repository name.
+   * @return True, if repository is placed on current node or server is not clustered.
+   */
+  public static boolean isLocal(@NotNull SharedContext context, @NotNull String name) {
+    final RepositoryPlacement placement = context.get(RepositoryPlacement.class);
+    return placement == null || placement.isLocal(name);
+  }
+
+  /**
+   * Get project name (namespace/project) for path. Used for mappings with projects in namespaces.
+   *
+   * @param path Project path (project can be placed in nested namespaces).
+   * @return Project name or null, if path is too short.
+   */
+  @Nullable
+  public static String getProjectName(@NotNull String path) {
+    final String[] segments = StringHelper.normalize(path).split("/");
+    // First segment is empty: path starts with '/'.
+    if (segments.length < 3) {
+      return null;
+    }
+    return segments[1] + "/" + segments[2];
+  }
+
+  /**
+   * Get possible project names (namespace/.../project) for path, from the longest.
+   * Used for mappings with projects in nested namespaces: project path can't be separated from path inside project.
+   *
+   * @param path Project path.
+   * @return Project names.
+   */
+  @NotNull
+  public static List<String> getProjectNames(@NotNull String path) {
+    final String[] segments = StringHelper.normalize(path).split("/");
+    final List<String> result = new ArrayList<>();
+    // First segment is empty: path starts with '/'.
+    for (int count = segments.length - 1; count >= 2; --count) {
+      result.add(String.join("/", Arrays.asList(segments).subList(1, count + 1)));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking streams over socket channel.
+ * <p>
+ * Streams from {@link java.nio.channels.Channels} synchronize every read and write on channel blocking lock, which
+ * is also taken by selector thread on channel registration. These streams call channel directly, so parking or
+ * resuming one session never waits for I/O of another thread.
+ *
+ * @author agent <agent@local>
+ */
+final class ChannelStreams {
+  private ChannelStreams() {
+  }
+
+  @NotNull
+  static ChannelInputStream input(@NotNull SocketChannel channel) {
+    return new ChannelInputStream(channel);
+  }
+
+  @NotNull
+  static OutputStream output(@NotNull SocketChannel channel) {
+    return new ChannelOutputStream(channel);
+  }
+
+  static final class ChannelInputStream extends InputStream {
+    @NotNull
+    private final SocketChannel channel;
+    /**
+     * Data, already read from channel by selector thread.
+     */
+    @Nullable
+    private ByteBuffer prefix;
+
+    private ChannelInputStream(@NotNull SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Return data, read from channel by selector thread. Must be called before passing session to worker thread.
+     */
+    void unread(@NotNull ByteBuffer data) {
+      prefix = data.hasRemaining() ? data : null;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] buffer = new byte[1];
+      final int size = read(buffer, 0, 1);
+      return size > 0 ? buffer[0] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(@NotNull byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      final ByteBuffer data = prefix;
+      if (data != null) {
+        final int size = Math.min(length, data.remaining());
+        data.get(buffer, offset, size);
+        if (!data.hasRemaining()) {
+          prefix = null;
+        }
+        return size;
+      }
+      final int size = channel.read(ByteBuffer.wrap(buffer, offset, length));
+      if (size == 0) {
+        // Channel is in non-blocking mode: session is parked.
+        throw new IllegalBlockingModeException();
+      }
+      return size;
+    }
+
+    @Override
+    public int available() {
+      final ByteBuffer data = prefix;
+      return data != null ? data.remaining() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  private static final class ChannelOutputStream extends OutputStream {
+    @NotNull
+    private final SocketChannel channel;
+
+    private ChannelOutputStream(@NotNull SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(@NotNull byte[] buffer, int offset, int length) throws IOException {
+      final ByteBuffer data = ByteBuffer.wrap(buffer, offset, length);
+      while (data.hasRemaining()) {
+        if (channel.write(data) == 0) {
+          // Channel is in non-blocking mode: session is parked.
+          throw new IllegalBlockingModeException();
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
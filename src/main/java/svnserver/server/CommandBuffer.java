@@ -0,0 +1,134 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Incoming data of parked session.
+ * <p>
+ * Selector thread collects data until complete command (top-level list) is received: worker thread is taken only
+ * when command can be read without waiting for client. Only list nesting and string lengths are tracked, all other
+ * syntax errors are left to parser.
+ *
+ * @author agent <agent@local>
+ */
+final class CommandBuffer {
+  /**
+   * Buffer limit: session with longer command is resumed without waiting for command end.
+   */
+  static final int MAX_SIZE = 64 * 1024;
+  private static final int INITIAL_SIZE = 1024;
+
+  // Buffer is allocated on first data: most of parked sessions are just idle.
+  @NotNull
+  private ByteBuffer buffer = ByteBuffer.allocate(0);
+  // Position of first not scanned byte.
+  private int scanned;
+  private int depth;
+  // Value of number token, which can be length of string (-1 - not a number).
+  private long number = -1;
+  // Remaining bytes of string content.
+  private long skip;
+  private boolean word;
+  private boolean complete;
+
+  /**
+   * Read available data from non-blocking channel.
+   *
+   * @return Number of read bytes or -1 on end of stream.
+   */
+  int read(@NotNull ReadableByteChannel channel) throws IOException {
+    int total = 0;
+    while (!isReady()) {
+      if (!buffer.hasRemaining()) {
+        final ByteBuffer grown = ByteBuffer.allocate(Math.min(Math.max(buffer.capacity() * 2, INITIAL_SIZE), MAX_SIZE));
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+      }
+      final int size = channel.read(buffer);
+      if (size < 0) {
+        return total > 0 ? total : -1;
+      }
+      if (size == 0) {
+        break;
+      }
+      total += size;
+      scan();
+    }
+    return total;
+  }
+
+  /**
+   * @return Buffer contains complete command or buffer limit is reached.
+   */
+  boolean isReady() {
+    return complete || buffer.position() >= MAX_SIZE;
+  }
+
+  /**
+   * Take collected data and reset buffer state.
+   */
+  @NotNull
+  ByteBuffer take() {
+    final ByteBuffer result = buffer;
+    result.flip();
+    buffer = ByteBuffer.allocate(0);
+    scanned = 0;
+    depth = 0;
+    number = -1;
+    skip = 0;
+    word = false;
+    complete = false;
+    return result;
+  }
+
+  private void scan() {
+    final byte[] data = buffer.array();
+    final int end = buffer.position();
+    while (scanned < end && !complete) {
+      if (skip > 0) {
+        final int size = (int) Math.min(skip, end - scanned);
+        skip -= size;
+        scanned += size;
+        continue;
+      }
+      final byte c = data[scanned++];
+      if (!word && c >= '0' && c <= '9') {
+        // Overflowed length can't be received anyway: buffer limit is much less.
+        number = Math.min((number < 0 ? 0 : number * 10) + (c - '0'), Integer.MAX_VALUE);
+        continue;
+      }
+      if (c == ':' && number >= 0) {
+        skip = number;
+        number = -1;
+        continue;
+      }
+      number = -1;
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+        word = true;
+        continue;
+      }
+      if (word && c == '-') {
+        continue;
+      }
+      word = false;
+      if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        complete = depth <= 0;
+      }
+    }
+  }
+}
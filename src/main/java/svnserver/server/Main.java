@@ -45,6 +45,19 @@ public class Main {
       if (cmd.showConfig) {
         log.info("Actual config:\n{}", serializer.dump(config));
       }
+      if (cmd.router) {
+        final SvnRouter router = new SvnRouter(config);
+        router.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+          try {
+            router.shutdown(config.getShutdownTimeout());
+          } catch (Exception e) {
+            log.error("Can't shutdown correctly", e);
+          }
+        }));
+        router.join();
+        return;
+      }
       final SvnServer server = new SvnServer(cmd.configuration.getAbsoluteFile().getParentFile(), config);
       server.start();
       Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -69,6 +82,9 @@ public class Main {
     @Parameter(names = {"-s", "--show-config"}, description = "Show actual configuration on start")
     private boolean showConfig = false;
 
+    @Parameter(names = {"-r", "--router"}, description = "Route client connections to cluster nodes instead of serving repositories")
+    private boolean router = false;
+
     @Parameter(names = {"-h", "--help"}, description = "Show help", help = true)
     private boolean help = false;
   }
@@ -0,0 +1,347 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import svnserver.StringHelper;
+import svnserver.auth.ReplicaAuthenticator;
+import svnserver.config.Config;
+import svnserver.parser.FlushingInputStream;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+import svnserver.parser.SvnServerWriter;
+import svnserver.parser.token.*;
+import svnserver.repository.VcsRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection from read-only replica to primary node.
+ * <p>
+ * Used for forwarding write requests (commit, lock, unlock) and lock queries of client session to primary node:
+ * replica has own lock storage, so only primary node knows actual locks.
+ * Primary node authenticates forwarded session with {@link ReplicaAuthenticator}.
+ *
+ * @author agent <agent@local>
+ */
+public final class PrimaryConnection implements AutoCloseable {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(PrimaryConnection.class);
+  private static final int DEFAULT_PORT = 3690;
+  private static final long SYNC_RETRY_DELAY = 100;
+  @NotNull
+  private static final WordToken SUCCESS = new WordToken("success");
+  @NotNull
+  private static final WordToken FAILURE = new WordToken("failure");
+  @NotNull
+  private static final WordToken DONE = new WordToken("done");
+
+  @NotNull
+  private final Socket socket;
+  @NotNull
+  private final InputStream input;
+  @NotNull
+  private final SvnServerParser parser;
+  @NotNull
+  private final SvnServerWriter writer;
+
+  private PrimaryConnection(@NotNull Socket socket) throws IOException {
+    this.socket = socket;
+    this.input = socket.getInputStream();
+    this.writer = new SvnServerWriter(socket.getOutputStream());
+    this.parser = new SvnServerParser(new FlushingInputStream(input, writer));
+  }
+
+  /**
+   * Check for forwarding write requests to primary node.
+   *
+   * @param context Session context.
+   * @return True, if repository is read-only replica and primary node is configured.
+   */
+  public static boolean canForward(@NotNull SessionContext context) {
+    return context.getRepository().isReadOnly() && !context.getServer().getConfig().getPrimaryUrl().isEmpty();
+  }
+
+  /**
+   * Open primary node session with same repository, path and user as client session.
+   *
+   * @param context Session context.
+   * @return Authenticated primary node session.
+   */
+  @NotNull
+  public static PrimaryConnection open(@NotNull SessionContext context) throws IOException, SVNException {
+    final Config config = context.getServer().getConfig();
+    final SVNURL primaryUrl = SVNURL.parseURIEncoded(config.getPrimaryUrl());
+    final SVNURL url = SVNURL.create(
+        primaryUrl.getProtocol(),
+        null,
+        primaryUrl.getHost(),
+        primaryUrl.hasPort() ? primaryUrl.getPort() : DEFAULT_PORT,
+        StringHelper.normalize(context.getRepositoryInfo().getBaseUrl().getPath()) + context.getRepositoryPath(""),
+        false
+    );
+    log.debug("Forward request to primary node: {}", url);
+
+    final Socket socket = new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.connect(new InetSocketAddress(url.getHost(), url.getPort()), (int) Math.min(config.getPrimaryConnectTimeout(), Integer.MAX_VALUE));
+      socket.setSoTimeout((int) Math.min(config.getPrimaryReadTimeout(), Integer.MAX_VALUE));
+      final PrimaryConnection connection = new PrimaryConnection(socket);
+      connection.handshake(url, ReplicaAuthenticator.createToken(config.getReplicaToken(), context.getUser().getUserName()));
+      return connection;
+    } catch (IOException | SVNException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  private void handshake(@NotNull SVNURL url, @NotNull String token) throws IOException, SVNException {
+    // Greeting.
+    checkSuccess(parser.readItem());
+    writer
+        .listBegin()
+        .number(2)
+        .listBegin()
+        .word("edit-pipeline")
+        .word("svndiff1")
+        .word("absent-entries")
+        .word("depth")
+        .word(ReplicaAuthenticator.CAPABILITY)
+        .listEnd()
+        .string(url.toString())
+        .string("git-as-svn replica")
+        .listBegin()
+        .listEnd()
+        .listEnd();
+    // Authentication.
+    checkSuccess(parser.readItem());
+    writer
+        .listBegin()
+        .word(ReplicaAuthenticator.METHOD_NAME)
+        .listBegin()
+        .string(token)
+        .listEnd()
+        .listEnd();
+    checkSuccess(parser.readItem());
+    // Repository information.
+    checkSuccess(parser.readItem());
+  }
+
+  @NotNull
+  public SvnServerWriter getWriter() {
+    return writer;
+  }
+
+  /**
+   * Transfer primary node command response to client.
+   * <p>
+   * Authentication request before response is not transferred: it is already sent to client by replica.
+   *
+   * @param clientWriter Client writer.
+   * @return True, if command is successfully executed.
+   */
+  public boolean relayResponse(@NotNull SvnServerWriter clientWriter) throws IOException {
+    List<SvnServerToken> item = parser.readItem();
+    if (isSuccess(item)) {
+      item = parser.readItem();
+    }
+    write(clientWriter, item);
+    return isSuccess(item);
+  }
+
+  /**
+   * Transfer primary node response of lock-many or unlock-many command to client.
+   * <p>
+   * Response is preceded by status of every path, ending with "done" word.
+   *
+   * @param clientWriter Client writer.
+   */
+  public void relayResponseList(@NotNull SvnServerWriter clientWriter) throws IOException {
+    // Authentication request or error.
+    List<SvnServerToken> item = parser.readItem();
+    if (isFailure(item)) {
+      write(clientWriter, item);
+      return;
+    }
+    do {
+      item = parser.readItem();
+      write(clientWriter, item);
+    } while (!(item.size() == 1 && item.get(0).equals(DONE)));
+    write(clientWriter, parser.readItem());
+  }
+
+  /**
+   * Transfer editor commands from client to primary node until close-edit or abort-edit command.
+   * After close-edit command wait for the new revision on replica before sending commit info to client.
+   *
+   * @param context Session context.
+   */
+  public void relayEdit(@NotNull SessionContext context) throws IOException {
+    final SvnServerParser clientParser = context.getParser();
+    final SvnServerWriter clientWriter = context.getWriter();
+    boolean failed = false;
+    while (true) {
+      // Editor commands are pipelined: primary node sends only errors until end of edit.
+      while (parser.hasBufferedData() || input.available() > 0) {
+        final List<SvnServerToken> item = parser.readItem();
+        failed |= isFailure(item);
+        write(clientWriter, item);
+        clientWriter.flush();
+      }
+      final List<SvnServerToken> command = clientParser.readItem();
+      write(writer, command);
+      final String cmd = command.size() > 1 && command.get(1) instanceof WordToken ? ((WordToken) command.get(1)).getText() : "";
+      if (cmd.equals("close-edit") || cmd.equals("abort-edit")) {
+        writer.flush();
+        if (failed) {
+          // Primary node ignores editor commands after error.
+          return;
+        }
+        if (cmd.equals("close-edit")) {
+          completeEdit(context.getRepository(), context.getServer().getConfig().getReplicaSyncTimeout(), clientWriter);
+        } else {
+          write(clientWriter, parser.readItem());
+        }
+        return;
+      }
+    }
+  }
+
+  private void completeEdit(@NotNull VcsRepository repository, long syncTimeout, @NotNull SvnServerWriter clientWriter) throws IOException {
+    while (true) {
+      final List<SvnServerToken> item = parser.readItem();
+      if (isFailure(item)) {
+        write(clientWriter, item);
+        return;
+      }
+      // Commit info: ( new-rev:number date:string author:string ? ( post-commit-err:string ) )
+      if (item.size() > 1 && item.get(1) instanceof NumberToken) {
+        final int revision = ((NumberToken) item.get(1)).getNumber();
+        if (waitRevision(repository, revision, syncTimeout)) {
+          write(clientWriter, item);
+        } else {
+          write(clientWriter, addPostCommitError(item, "Revision " + revision + " is committed, but is not yet available on replica"));
+        }
+        return;
+      }
+      write(clientWriter, item);
+    }
+  }
+
+  /**
+   * Wait for revision, committed on primary node, on replica.
+   *
+   * @return False, if revision is not received in time.
+   */
+  private static boolean waitRevision(@NotNull VcsRepository repository, int revision, long syncTimeout) throws IOException {
+    final long deadline = System.currentTimeMillis() + syncTimeout;
+    try {
+      while (true) {
+        repository.updateRevisions();
+        if (repository.getLatestRevision().getId() >= revision) {
+          return true;
+        }
+        if (System.currentTimeMillis() >= deadline) {
+          log.warn("Revision {} is not received from primary node in {} ms", revision, syncTimeout);
+          return false;
+        }
+        Thread.sleep(SYNC_RETRY_DELAY);
+      }
+    } catch (SVNException e) {
+      log.warn("Can't update revisions after forwarded commit: {}", e.getMessage());
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Add post-commit error to commit info: ( new-rev:number date:string author:string ? ( post-commit-err:string ) )
+   * <p>
+   * Post-commit error is shown to client as warning, commit is not failed.
+   */
+  @NotNull
+  static List<SvnServerToken> addPostCommitError(@NotNull List<SvnServerToken> item, @NotNull String message) {
+    final List<SvnServerToken> result = new ArrayList<>(item.subList(0, item.size() - 1));
+    // Tuples after revision number: ( date ) ( author ) ( post-commit-err )
+    int tuples = 0;
+    int depth = 0;
+    for (int i = 2; i < result.size(); ++i) {
+      final SvnServerToken token = result.get(i);
+      if (token.equals(ListBeginToken.instance)) {
+        if (depth++ == 0 && ++tuples == 3) {
+          final SvnServerToken error = result.get(i + 1);
+          if (error instanceof StringToken) {
+            // Post-commit error from primary node.
+            result.set(i + 1, new StringToken(((StringToken) error).getText() + "\n" + message));
+          } else {
+            result.add(i + 1, new StringToken(message));
+          }
+          result.add(ListEndToken.instance);
+          return result;
+        }
+      } else if (token.equals(ListEndToken.instance)) {
+        depth--;
+      }
+    }
+    result.add(ListBeginToken.instance);
+    result.add(new StringToken(message));
+    result.add(ListEndToken.instance);
+    result.add(ListEndToken.instance);
+    return result;
+  }
+
+  private static void write(@NotNull SvnServerWriter writer, @NotNull List<SvnServerToken> item) throws IOException {
+    for (SvnServerToken token : item) {
+      writer.write(token);
+    }
+  }
+
+  private static boolean isSuccess(@NotNull List<SvnServerToken> item) {
+    return item.size() > 1 && item.get(1).equals(SUCCESS);
+  }
+
+  private static boolean isFailure(@NotNull List<SvnServerToken> item) {
+    return item.size() > 1 && item.get(1).equals(FAILURE);
+  }
+
+  private static void checkSuccess(@NotNull List<SvnServerToken> item) throws SVNException {
+    if (isSuccess(item)) {
+      return;
+    }
+    // Failure: ( failure ( ( apr-err:number message:string file:string line:number ) ... ) )
+    SVNErrorCode code = SVNErrorCode.RA_SVN_MALFORMED_DATA;
+    String message = "Unexpected primary node response";
+    for (int i = 0; i < item.size() - 1; ++i) {
+      if (item.get(i) instanceof NumberToken && item.get(i + 1) instanceof StringToken) {
+        code = SVNErrorCode.getErrorCode(((NumberToken) item.get(i)).getNumber());
+        message = ((StringToken) item.get(i + 1)).getText();
+        break;
+      }
+    }
+    throw new SVNException(SVNErrorMessage.create(code, "Primary node: " + message));
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+}
@@ -14,18 +14,22 @@ import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNURL;
 import svnserver.StringHelper;
+import svnserver.auth.ReplicaAuthenticator;
 import svnserver.auth.User;
+import svnserver.config.Config;
 import svnserver.parser.SvnServerParser;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.RepositoryInfo;
 import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsFile;
 import svnserver.repository.VcsRepository;
+import svnserver.server.command.DeltaCompression;
 import svnserver.server.msg.ClientInfo;
 import svnserver.server.step.Step;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * SVN client session context.
@@ -33,6 +37,11 @@ import java.util.*;
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class SessionContext {
+  // Adaptive compression: zlib is used below this link throughput (bytes per second).
+  private static final long ZLIB_MAX_THROUGHPUT = 32 * 1024 * 1024;
+  // Adaptive compression: data is sent uncompressed above this link throughput (bytes per second).
+  private static final long NONE_MIN_THROUGHPUT = 256 * 1024 * 1024;
+
   @NotNull
   private final SvnServerParser parser;
   @NotNull
@@ -49,6 +58,11 @@ public final class SessionContext {
   private final VcsAccess acl;
   @NotNull
   private User user;
+  /**
+   * User authenticated by transport (svn+ssh tunnel).
+   */
+  @Nullable
+  private final User externalUser;
   @NotNull
   private String parent;
 
@@ -56,11 +70,13 @@ public final class SessionContext {
                         @NotNull SvnServerWriter writer,
                         @NotNull SvnServer server,
                         @NotNull RepositoryInfo repositoryInfo,
-                        @NotNull ClientInfo clientInfo) throws SVNException {
+                        @NotNull ClientInfo clientInfo,
+                        @Nullable User externalUser) throws SVNException {
     this.parser = parser;
     this.writer = writer;
     this.server = server;
     this.user = User.getAnonymous();
+    this.externalUser = externalUser;
     this.repositoryInfo = repositoryInfo;
     this.acl = getRepository().getContext().sure(VcsAccess.class);
     setParent(clientInfo.getUrl());
@@ -71,11 +87,60 @@ public final class SessionContext {
     return server.isCompressionEnabled() && hasCapability("svndiff1");
   }
 
+  /**
+   * @return Executor for parallel file delta computation or null, if parallel computation is disabled.
+   */
+  @Nullable
+  public ExecutorService getDeltaExecutor() {
+    return server.getDeltaExecutor();
+  }
+
+  /**
+   * Select compression for delta sent to client.
+   * <p>
+   * With adaptive compression LZ4 (or no compression) is preferred on fast links, because zlib
+   * compression becomes a bottleneck and zlib is used on slow links.
+   *
+   * @return Delta compression.
+   */
+  @NotNull
+  public DeltaCompression getDeltaCompression() {
+    final boolean zlib = isCompressionEnabled();
+    final boolean lz4 = server.isCompressionEnabled() && hasCapability("accepts-svndiff2");
+    return getDeltaCompression(server.getConfig(), zlib, lz4, writer.getThroughput());
+  }
+
+  /**
+   * Select compression for delta sent to client.
+   *
+   * @param config     Server configuration.
+   * @param zlib       Client supports zlib compression (svndiff1).
+   * @param lz4        Client supports LZ4 compression (svndiff2).
+   * @param throughput Measured link throughput in bytes per second (-1 if unknown).
+   * @return Delta compression.
+   */
+  @NotNull
+  static DeltaCompression getDeltaCompression(@NotNull Config config, boolean zlib, boolean lz4, long throughput) {
+    if (config.isAdaptiveCompression()) {
+      if (throughput < 0 || throughput < ZLIB_MAX_THROUGHPUT) {
+        return zlib ? DeltaCompression.Zlib : DeltaCompression.None;
+      }
+      if (lz4 && throughput < NONE_MIN_THROUGHPUT) {
+        return DeltaCompression.Lz4;
+      }
+      return DeltaCompression.None;
+    }
+    if (lz4 && config.isLz4Compression()) {
+      return DeltaCompression.Lz4;
+    }
+    return zlib ? DeltaCompression.Zlib : DeltaCompression.None;
+  }
+
   public void authenticate(boolean allowAnonymous) throws IOException, SVNException {
     if (!user.isAnonymous()) {
       throw new IllegalStateException();
     }
-    this.user = server.authenticate(parser, writer, repositoryInfo, allowAnonymous);
+    this.user = server.authenticate(parser, writer, repositoryInfo, allowAnonymous, externalUser, hasCapability(ReplicaAuthenticator.CAPABILITY));
   }
 
   public boolean hasCapability(@NotNull String capability) {
@@ -118,6 +183,16 @@ public final class SessionContext {
     return repositoryInfo.getRepository();
   }
 
+  @NotNull
+  SvnServer getServer() {
+    return server;
+  }
+
+  @NotNull
+  RepositoryInfo getRepositoryInfo() {
+    return repositoryInfo;
+  }
+
   @NotNull
   public SvnServerParser getParser() {
     return parser;
@@ -0,0 +1,551 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import svnserver.config.Config;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+import svnserver.parser.SvnServerWriter;
+import svnserver.parser.token.*;
+import svnserver.repository.mapping.RepositoryPlacement;
+import svnserver.server.command.BaseCmd;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Routing node for repositories placed on multiple servers.
+ * <p>
+ * Router reads client information from svn session, selects server node by repository name
+ * and transfers connection to the selected node without parsing. All connections are served
+ * by single selector thread, so idle sessions cost only their buffers.
+ * <p>
+ * Repository is selected once by URL from client information (ra_svn protocol version 2 always sends it).
+ * If repository name can't be separated from path inside repository (nested namespaces), nodes of all possible
+ * names are tried until node doesn't answer with "repository not found" error.
+ * Session can't be moved to other node later: reparent to repository on other node is answered by
+ * backend node with "repository not found" error.
+ *
+ * @author agent <agent@local>
+ */
+public final class SvnRouter extends Thread {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(SvnRouter.class);
+  private static final int DEFAULT_PORT = 3690;
+  // Buffer size for every transfer direction. Tunnel header and client information must fit into it.
+  private static final int BUFFER_SIZE = 32 * 1024;
+  @NotNull
+  private static final WordToken FAILURE = new WordToken("failure");
+
+  @NotNull
+  private final Config config;
+  @NotNull
+  private final RepositoryPlacement placement;
+  @NotNull
+  private final ServerSocketChannel serverChannel;
+  @NotNull
+  private final Selector selector;
+  @NotNull
+  private final byte[] greeting;
+  // Node addresses are resolved on start: name lookup would block selector thread.
+  @NotNull
+  private final Map<String, InetSocketAddress> nodeAddresses = new HashMap<>();
+  @NotNull
+  private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+  public SvnRouter(@NotNull Config config) throws IOException {
+    super("SvnRouter");
+    setDaemon(true);
+    this.config = config;
+    final RepositoryPlacement placement = config.getCluster().create(true);
+    if (placement == null) {
+      throw new IllegalStateException("Cluster nodes list is empty");
+    }
+    this.placement = placement;
+    for (String node : config.getCluster().getNodes()) {
+      nodeAddresses.put(node, getAddress(node));
+    }
+
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(buffer);
+    SvnServer.sendGreeting(writer, config.isCompressionEnabled());
+    writer.flush();
+    greeting = buffer.toByteArray();
+
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.socket().setReuseAddress(config.getReuseAddress());
+    serverChannel.bind(new InetSocketAddress(InetAddress.getByName(config.getHost()), config.getPort()));
+    serverChannel.configureBlocking(false);
+    selector = Selector.open();
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+  }
+
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  @Override
+  public void run() {
+    log.info("Ready for routing connections on {} to {}", serverChannel.socket().getLocalSocketAddress(), config.getCluster().getNodes());
+    try {
+      while (!stopped.get()) {
+        selector.select();
+        for (SelectionKey key : selector.selectedKeys()) {
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+            continue;
+          }
+          final Connection connection = (Connection) key.attachment();
+          try {
+            connection.process(key);
+          } catch (IOException | SVNException e) {
+            log.debug("Connection error: {}", e.getMessage());
+            connection.close();
+          }
+        }
+        selector.selectedKeys().clear();
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      if (!stopped.get()) {
+        log.error("Router selector failed", e);
+      }
+    } finally {
+      closeAll();
+    }
+    log.info("Router Stopped");
+  }
+
+  private void accept() {
+    final SocketChannel client;
+    try {
+      client = serverChannel.accept();
+      if (client == null) {
+        return;
+      }
+    } catch (IOException e) {
+      log.error("Error accepting client connection", e);
+      return;
+    }
+    try {
+      client.configureBlocking(false);
+      client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      // Greeting is short message and fits into empty socket buffer.
+      if (client.write(ByteBuffer.wrap(greeting)) != greeting.length) {
+        throw new IOException("Can't send greeting");
+      }
+      new Connection(client);
+    } catch (IOException e) {
+      log.info("Client error: {}", e.getMessage());
+      close(client);
+    }
+  }
+
+  private void closeAll() {
+    try {
+      for (SelectionKey key : selector.keys()) {
+        if (key.attachment() instanceof Connection) {
+          ((Connection) key.attachment()).close();
+        }
+      }
+      selector.close();
+    } catch (ClosedSelectorException | IOException ignored) {
+    }
+    close(serverChannel);
+  }
+
+  /**
+   * Get nodes for repository URL, from the most probable.
+   */
+  @NotNull
+  private List<String> getNodes(@NotNull String url) throws SVNException {
+    final Set<String> nodes = new LinkedHashSet<>();
+    for (String name : config.getRepositoryMapping().getRepositoryNames(SVNURL.parseURIEncoded(url).getPath())) {
+      final String node = placement.getNode(name);
+      if (node != null) {
+        nodes.add(node);
+      }
+    }
+    return new ArrayList<>(nodes);
+  }
+
+  /**
+   * Get URL from client information: ( version:number ( cap:word ... ) url:string ... ).
+   */
+  @Nullable
+  private static String getUrl(@NotNull List<SvnServerToken> clientInfo) {
+    int depth = 0;
+    for (SvnServerToken token : clientInfo) {
+      if (token == ListBeginToken.instance) {
+        depth++;
+      } else if (token == ListEndToken.instance) {
+        depth--;
+      } else if (depth == 1 && token instanceof StringToken) {
+        return ((StringToken) token).getText();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Parse optional tunnel header and client information.
+   *
+   * @return Client information or null, if it is not completely received yet.
+   */
+  @Nullable
+  private static List<SvnServerToken> readClientInfo(@NotNull ByteBuffer data) throws IOException {
+    try {
+      final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(data.array(), 0, data.position()), BUFFER_SIZE);
+      SvnServer.readTunnelHeader(parser);
+      return parser.readItem();
+    } catch (EOFException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Check backend response is "repository not found" error.
+   */
+  private static boolean isRepositoryNotFound(@NotNull ByteBuffer data) throws IOException {
+    final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(data.array(), 0, data.position()), BUFFER_SIZE);
+    // Failure: ( failure ( ( apr-err:number message:string file:string line:number ) ... ) )
+    final List<SvnServerToken> item = parser.readItem();
+    if (item.size() < 2 || !item.get(1).equals(FAILURE)) {
+      return false;
+    }
+    for (SvnServerToken token : item) {
+      if (token instanceof NumberToken) {
+        return ((NumberToken) token).getNumber() == SVNErrorCode.RA_SVN_REPOS_NOT_FOUND.getCode();
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get size of first item in data.
+   *
+   * @return Item size in bytes or -1, if item is not completely received yet.
+   */
+  private static int getItemSize(@NotNull ByteBuffer data) throws IOException {
+    try {
+      final SvnServerParser parser = new SvnServerParser(new ByteArrayInputStream(data.array(), 0, data.position()), BUFFER_SIZE);
+      parser.readItem();
+      // Skip spaces after item.
+      parser.hasBufferedData();
+      final ByteArrayOutputStream tail = new ByteArrayOutputStream();
+      parser.transferBuffered(tail);
+      return data.position() - tail.size();
+    } catch (EOFException e) {
+      return -1;
+    }
+  }
+
+  @NotNull
+  private static InetSocketAddress getAddress(@NotNull String node) {
+    final int separator = node.lastIndexOf(':');
+    final String host = separator < 0 ? node : node.substring(0, separator);
+    final int port = separator < 0 ? DEFAULT_PORT : Integer.parseInt(node.substring(separator + 1));
+    return new InetSocketAddress(host, port);
+  }
+
+  private static void close(@NotNull Channel channel) {
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  public void shutdown(long millis) throws IOException, InterruptedException {
+    if (stopped.compareAndSet(false, true)) {
+      log.info("Shutdown router");
+      selector.wakeup();
+      join(millis);
+    }
+  }
+
+  private enum State {
+    /**
+     * Waiting for client information.
+     */
+    Header,
+    /**
+     * Connecting to backend node.
+     */
+    Connect,
+    /**
+     * Waiting for backend node greeting (client already has router greeting).
+     */
+    Greeting,
+    /**
+     * Waiting for backend node response to client information.
+     */
+    Response,
+    /**
+     * Transfer data as is.
+     */
+    Transfer
+  }
+
+  /**
+   * Routed client connection.
+   * <p>
+   * Buffers are always in fill mode: data is between zero and position.
+   */
+  private final class Connection {
+    @NotNull
+    private final SocketChannel client;
+    @NotNull
+    private final SelectionKey clientKey;
+    @Nullable
+    private SocketChannel backend;
+    @Nullable
+    private SelectionKey backendKey;
+    @NotNull
+    private final ByteBuffer upload = ByteBuffer.allocate(BUFFER_SIZE);
+    @NotNull
+    private final ByteBuffer download = ByteBuffer.allocate(BUFFER_SIZE);
+    @NotNull
+    private State state = State.Header;
+    private boolean uploadEof;
+    private boolean downloadEof;
+    // Tunnel header and client information, sent to every tried node.
+    @NotNull
+    private byte[] header = new byte[0];
+    @NotNull
+    private Iterator<String> nodes = Collections.emptyIterator();
+    @Nullable
+    private String node;
+
+    private Connection(@NotNull SocketChannel client) throws IOException {
+      this.client = client;
+      this.clientKey = client.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    private void process(@NotNull SelectionKey key) throws IOException, SVNException {
+      if (key == clientKey) {
+        if (key.isReadable()) {
+          readClient();
+        }
+        if (key.isValid() && key.isWritable()) {
+          write(download, client);
+        }
+      } else {
+        try {
+          if (key.isConnectable() && backend != null && backend.finishConnect()) {
+            state = State.Greeting;
+          }
+          if (key.isValid() && key.isReadable()) {
+            readBackend();
+          }
+          if (key.isValid() && key.isWritable() && backend != null) {
+            write(upload, backend);
+          }
+        } catch (IOException e) {
+          if (state == State.Transfer) {
+            throw e;
+          }
+          nodeUnavailable(e.getMessage());
+          return;
+        }
+      }
+      if (clientKey.isValid()) {
+        update();
+      }
+    }
+
+    private void readClient() throws IOException, SVNException {
+      if (client.read(upload) < 0) {
+        uploadEof = true;
+        if (state == State.Header) {
+          close();
+        }
+        return;
+      }
+      if (state != State.Header) {
+        return;
+      }
+      final List<SvnServerToken> clientInfo = readClientInfo(upload);
+      if (clientInfo == null) {
+        if (!upload.hasRemaining()) {
+          reject(SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "Client information is too large"));
+        }
+        return;
+      }
+      final String url = getUrl(clientInfo);
+      if (url == null) {
+        reject(SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "Repository URL is not found in client information"));
+        return;
+      }
+      final List<String> urlNodes = getNodes(url);
+      if (urlNodes.isEmpty()) {
+        reject(SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "Repository not found: " + url));
+        return;
+      }
+      // Client information (and tunnel header) is sent to backend as is.
+      header = Arrays.copyOf(upload.array(), upload.position());
+      nodes = urlNodes.iterator();
+      connectNext();
+    }
+
+    /**
+     * Connect to next node of repository.
+     */
+    private void connectNext() throws IOException {
+      if (backend != null) {
+        backendKey = null;
+        SvnRouter.close(backend);
+      }
+      node = nodes.next();
+      log.debug("Route connection from {} to {}", client.getRemoteAddress(), node);
+      upload.clear();
+      upload.put(header);
+      download.clear();
+      downloadEof = false;
+      backend = SocketChannel.open();
+      try {
+        backend.configureBlocking(false);
+        backend.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        backendKey = backend.register(selector, 0, this);
+        state = backend.connect(nodeAddresses.get(node)) ? State.Greeting : State.Connect;
+      } catch (IOException e) {
+        nodeUnavailable(e.getMessage());
+      }
+    }
+
+    private void nodeUnavailable(@Nullable String message) throws IOException {
+      log.warn("Cluster node {} is unavailable: {}", node, message);
+      reject(SVNErrorMessage.create(SVNErrorCode.RA_CANNOT_CREATE_SESSION, "Repository node is unavailable: " + node));
+    }
+
+    private void readBackend() throws IOException {
+      if (backend == null || backend.read(download) < 0) {
+        if (state != State.Transfer) {
+          throw new EOFException("Connection closed by node");
+        }
+        downloadEof = true;
+        return;
+      }
+      if (state == State.Greeting) {
+        final int size = getItemSize(download);
+        if (size < 0) {
+          if (!download.hasRemaining()) {
+            throw new IOException("Backend greeting is too large");
+          }
+          return;
+        }
+        // Client already has router greeting: backend greeting is skipped, so it must be same.
+        if (!ByteBuffer.wrap(download.array(), 0, size).equals(ByteBuffer.wrap(greeting))) {
+          log.error("Cluster node {} greeting differs from router greeting, check server configuration", node);
+          reject(SVNErrorMessage.create(SVNErrorCode.RA_SVN_BAD_VERSION, "Repository node has different server configuration: " + node));
+          return;
+        }
+        download.flip().position(size);
+        download.compact();
+        state = State.Response;
+      }
+      if (state == State.Response) {
+        final int size = getItemSize(download);
+        if (size < 0) {
+          if (!download.hasRemaining()) {
+            throw new IOException("Backend response is too large");
+          }
+          return;
+        }
+        if (nodes.hasNext() && isRepositoryNotFound(download)) {
+          // Repository name is guessed wrong: try node of other name.
+          connectNext();
+          return;
+        }
+        state = State.Transfer;
+      }
+    }
+
+    private void write(@NotNull ByteBuffer buffer, @NotNull SocketChannel channel) throws IOException {
+      buffer.flip();
+      try {
+        channel.write(buffer);
+      } finally {
+        buffer.compact();
+      }
+    }
+
+    /**
+     * Send error to client and close connection. Error is sent by single non-blocking write: client reads
+     * greeting before sending client information, so socket buffer is empty.
+     */
+    private void reject(@NotNull SVNErrorMessage error) throws IOException {
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      final SvnServerWriter writer = new SvnServerWriter(buffer);
+      BaseCmd.sendError(writer, error);
+      writer.flush();
+      client.write(ByteBuffer.wrap(buffer.toByteArray()));
+      close();
+    }
+
+    private void update() throws IOException {
+      final boolean transfer = state == State.Greeting || state == State.Response || state == State.Transfer;
+      if (transfer && uploadEof && upload.position() == 0 && backend != null && !backend.socket().isOutputShutdown()) {
+        // Client closed output: pass it to backend.
+        backend.shutdownOutput();
+      }
+      if (downloadEof && download.position() == 0) {
+        close();
+        return;
+      }
+      int clientOps = 0;
+      // Client waits for response to client information: it is not read until node is selected.
+      if ((state == State.Header || state == State.Transfer) && !uploadEof && upload.hasRemaining()) {
+        clientOps |= SelectionKey.OP_READ;
+      }
+      if (state == State.Transfer && download.position() > 0) {
+        clientOps |= SelectionKey.OP_WRITE;
+      }
+      clientKey.interestOps(clientOps);
+      if (backendKey != null) {
+        int backendOps = 0;
+        if (state == State.Connect) {
+          backendOps |= SelectionKey.OP_CONNECT;
+        } else {
+          if (!downloadEof && download.hasRemaining()) {
+            backendOps |= SelectionKey.OP_READ;
+          }
+          if (!backend.socket().isOutputShutdown() && upload.position() > 0) {
+            backendOps |= SelectionKey.OP_WRITE;
+          }
+        }
+        backendKey.interestOps(backendOps);
+      }
+    }
+
+    private void close() {
+      SvnRouter.close(client);
+      if (backend != null) {
+        SvnRouter.close(backend);
+      }
+    }
+  }
+}
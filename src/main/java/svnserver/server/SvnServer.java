@@ -8,6 +8,7 @@
 package svnserver.server;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.SVNErrorCode;
@@ -15,40 +16,50 @@ import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.auth.AnonymousAuthenticator;
 import svnserver.auth.Authenticator;
+import svnserver.auth.ExternalAuthenticator;
+import svnserver.auth.ReplicaAuthenticator;
 import svnserver.auth.User;
 import svnserver.auth.UserDB;
 import svnserver.config.Config;
+import svnserver.config.ConfigHelper;
 import svnserver.context.SharedContext;
+import svnserver.parser.FlushingInputStream;
 import svnserver.parser.MessageParser;
 import svnserver.parser.SvnServerParser;
 import svnserver.parser.SvnServerToken;
 import svnserver.parser.SvnServerWriter;
 import svnserver.parser.token.ListBeginToken;
 import svnserver.parser.token.ListEndToken;
+import svnserver.parser.token.WordToken;
 import svnserver.repository.RepositoryInfo;
 import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRepositoryMapping;
+import svnserver.repository.mapping.RepositoryPlacement;
 import svnserver.server.command.*;
 import svnserver.server.msg.AuthReq;
 import svnserver.server.msg.ClientInfo;
 import svnserver.server.step.Step;
 
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Сервер для предоставления доступа к git-у через протокол subversion.
+ * <p>
+ * Connections are accepted by selector. Session holds worker thread only while command is processing:
+ * between commands idle session is parked on selector and resumed on incoming data.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
@@ -58,6 +69,8 @@ public final class SvnServer extends Thread {
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(SvnServer.class);
   private static final long FORCE_SHUTDOWN = TimeUnit.SECONDS.toMillis(5);
+  private static final long RESUME_RETRY_DELAY = 50;
+  private static final long REAPER_INTERVAL = TimeUnit.SECONDS.toMillis(1);
   @NotNull
   private static final Set<SVNErrorCode> WARNING_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
       SVNErrorCode.CANCELLED,
@@ -73,19 +86,43 @@ public final class SvnServer extends Thread {
   @NotNull
   private final Map<String, BaseCmd<?>> commands = new HashMap<>();
   @NotNull
-  private final Map<Long, Socket> connections = new ConcurrentHashMap<>();
+  private final Map<Long, ClientSession> connections = new ConcurrentHashMap<>();
+  @NotNull
+  private final Queue<ClientSession> parkQueue = new ConcurrentLinkedQueue<>();
+  /**
+   * Resumed sessions, waiting for free worker thread. Accessed only from selector thread.
+   */
+  @NotNull
+  private final Deque<ClientSession> pending = new ArrayDeque<>();
+  @NotNull
+  private final Map<VcsRepository, Semaphore> requestLimits = Collections.synchronizedMap(new WeakHashMap<>());
   @NotNull
   private final VcsRepositoryMapping repositoryMapping;
   @NotNull
   private final Config config;
   @NotNull
-  private final ServerSocket serverSocket;
+  private final ServerSocketChannel serverSocket;
+  @Nullable
+  private final ServerSocketChannel unixSocket;
+  @NotNull
+  private final Selector selector;
   @NotNull
   private final AtomicBoolean stopped = new AtomicBoolean(false);
   @NotNull
   private final AtomicLong lastSessionId = new AtomicLong();
   @NotNull
   private final SharedContext context;
+  @NotNull
+  private final ExecutorService sessionExecutor;
+  /**
+   * Admission limit for executor without own bound (virtual threads).
+   */
+  @Nullable
+  private final Semaphore sessionPermits;
+  @Nullable
+  private final ScheduledExecutorService reaper;
+  @Nullable
+  private final ExecutorService deltaExecutor;
 
   public SvnServer(@NotNull File basePath, @NotNull Config config) throws IOException, SVNException {
     super("SvnServer");
@@ -101,6 +138,37 @@ public final class SvnServer extends Thread {
     context = SharedContext.create(basePath, config.getCacheConfig().createCache(basePath), threadFactory, config.getShared());
     context.add(UserDB.class, config.getUserDB().create(context));
 
+    final ExecutorService virtualExecutor = config.useVirtualThreads() ? createVirtualThreadExecutor() : null;
+    if (virtualExecutor != null) {
+      log.info("Client sessions use virtual threads");
+      sessionExecutor = virtualExecutor;
+      sessionPermits = new Semaphore(config.getMaxThreads() + Math.max(config.getThreadQueueSize(), 0));
+    } else {
+      sessionExecutor = createSessionExecutor(config.getMaxThreads(), config.getThreadQueueSize(), threadFactory);
+      sessionPermits = null;
+    }
+
+    if (config.getIdleTimeout() > 0 || config.getHeaderTimeout() > 0 || config.getAuthTimeout() > 0 || config.getCommandTimeout() > 0) {
+      reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "SvnServer-reaper");
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      reaper = null;
+    }
+
+    if (config.getDeltaThreads() > 0) {
+      final AtomicInteger deltaThreadNumber = new AtomicInteger(0);
+      deltaExecutor = Executors.newFixedThreadPool(config.getDeltaThreads(), r -> {
+        final Thread thread = new Thread(r, String.format("SvnServer-delta-%s", deltaThreadNumber.incrementAndGet()));
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      deltaExecutor = null;
+    }
+
     commands.put("commit", new CommitCmd());
     commands.put("diff", new DeltaCmd(DiffParams.class));
     commands.put("get-locations", new GetLocationsCmd());
@@ -129,19 +197,41 @@ public final class SvnServer extends Thread {
     commands.put("get-lock", new GetLockCmd());
     commands.put("get-locks", new GetLocksCmd());
 
+    if (config.getDeltaCacheSize() > 0) {
+      context.add(DeltaCache.class, new DeltaCache(config.getDeltaCacheSize()));
+    }
+    if (!config.getCheckoutCachePath().isEmpty()) {
+      context.add(CheckoutCache.class, new CheckoutCache(ConfigHelper.joinPath(basePath, config.getCheckoutCachePath()), config.getCheckoutCacheSize()));
+    }
+
+    final RepositoryPlacement placement = config.getCluster().create(false);
+    if (placement != null) {
+      context.add(RepositoryPlacement.class, placement);
+    }
     repositoryMapping = config.getRepositoryMapping().create(context, config.canUseParallelIndexing());
 
     context.add(VcsRepositoryMapping.class, repositoryMapping);
 
-    serverSocket = new ServerSocket();
-    serverSocket.setReuseAddress(config.getReuseAddress());
+    selector = Selector.open();
+    serverSocket = ServerSocketChannel.open();
+    serverSocket.socket().setReuseAddress(config.getReuseAddress());
     serverSocket.bind(new InetSocketAddress(InetAddress.getByName(config.getHost()), config.getPort()));
+    serverSocket.configureBlocking(false);
+    serverSocket.register(selector, SelectionKey.OP_ACCEPT);
+
+    if (config.getUnixSocket().isEmpty()) {
+      unixSocket = null;
+    } else {
+      unixSocket = UnixDomainSockets.bind(Paths.get(config.getUnixSocket()));
+      unixSocket.configureBlocking(false);
+      unixSocket.register(selector, SelectionKey.OP_ACCEPT);
+    }
 
     context.ready();
   }
 
   public int getPort() {
-    return serverSocket.getLocalPort();
+    return serverSocket.socket().getLocalPort();
   }
 
   @NotNull
@@ -151,94 +241,467 @@ public final class SvnServer extends Thread {
 
   @Override
   public void run() {
-    log.info("Ready for connections on {}", serverSocket.getLocalSocketAddress());
-    while (!stopped.get()) {
-      final Socket client;
-      try {
-        client = this.serverSocket.accept();
-      } catch (IOException e) {
-        if (stopped.get()) {
-          log.info("Server Stopped");
+    log.info("Ready for connections on {}", serverSocket.socket().getLocalSocketAddress());
+    if (unixSocket != null) {
+      log.info("Ready for connections on unix socket {}", config.getUnixSocket());
+    }
+    if (reaper != null) {
+      reaper.scheduleWithFixedDelay(this::closeExpired, REAPER_INTERVAL, REAPER_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+    try {
+      while (!stopped.get()) {
+        try {
+          selector.select(pending.isEmpty() ? 0 : RESUME_RETRY_DELAY);
+          registerParked();
+          resumePending();
+          final List<ClientSession> resumed = new ArrayList<>();
+          for (Iterator<SelectionKey> iter = selector.selectedKeys().iterator(); iter.hasNext(); ) {
+            final SelectionKey key = iter.next();
+            iter.remove();
+            if (!key.isValid()) {
+              continue;
+            }
+            if (key.isAcceptable()) {
+              acceptClients((ServerSocketChannel) key.channel());
+            } else if (key.isReadable()) {
+              final ClientSession session = (ClientSession) key.attachment();
+              // Session is resumed only with complete command: stalled client can't hold worker thread.
+              if (session.receive()) {
+                key.cancel();
+                resumed.add(session);
+              }
+            }
+          }
+          if (!resumed.isEmpty()) {
+            // Flush cancelled keys: channel can't be switched to blocking mode while it registered in selector.
+            selector.selectNow();
+            for (ClientSession session : resumed) {
+              resume(session);
+            }
+          }
+        } catch (ClosedSelectorException e) {
           break;
+        } catch (IOException e) {
+          if (stopped.get()) {
+            break;
+          }
+          log.error("Error accepting client connection", e);
         }
-        log.error("Error accepting client connection", e);
+      }
+    } finally {
+      log.info("Server Stopped");
+      closeParked();
+    }
+  }
+
+  private void acceptClients(@NotNull ServerSocketChannel listener) throws IOException {
+    while (true) {
+      final SocketChannel client = listener.accept();
+      if (client == null) {
+        return;
+      }
+      final ClientSession session;
+      try {
+        session = new ClientSession(lastSessionId.incrementAndGet(), client);
+      } catch (IOException e) {
+        client.close();
         continue;
       }
-      long sessionId = lastSessionId.incrementAndGet();
-      context.getThreadPoolExecutor().execute(() -> {
-        log.info("New connection from: {}", client.getRemoteSocketAddress());
-        try (Socket clientSocket = client) {
-          connections.put(sessionId, client);
-          serveClient(clientSocket);
-        } catch (EOFException | SocketException ignore) {
-          // client disconnect is not a error
-        } catch (SVNException | IOException e) {
-          log.info("Client error:", e);
+      log.info("New connection from: {}", session.address);
+      connections.put(session.sessionId, session);
+      // Already admitted sessions have priority over new connections.
+      if (!pending.isEmpty() || !execute(session)) {
+        log.warn("Server busy, connection from {} refused", session.address);
+        session.reject();
+      }
+    }
+  }
+
+  /**
+   * Close sessions with expired timeout. Blocked worker thread is released by channel closing.
+   */
+  private void closeExpired() {
+    final long now = System.currentTimeMillis();
+    for (ClientSession session : connections.values()) {
+      final long deadline = session.deadline;
+      if (deadline > 0 && deadline < now) {
+        log.info("Connection from {} closed by timeout", session.address);
+        session.close();
+      }
+    }
+  }
+
+  private void resume(@NotNull ClientSession session) {
+    // Waiting for free worker thread is not limited by session timeouts.
+    session.setTimeout(0);
+    try {
+      session.channel.configureBlocking(true);
+    } catch (IOException e) {
+      session.close();
+      return;
+    }
+    session.input.unread(session.incoming.take());
+    if (!pending.isEmpty() || !execute(session)) {
+      pending.add(session);
+    }
+  }
+
+  private void resumePending() {
+    while (!pending.isEmpty() && execute(pending.peek())) {
+      pending.poll();
+    }
+  }
+
+  private boolean execute(@NotNull ClientSession session) {
+    final Semaphore permits = sessionPermits;
+    if (permits == null) {
+      try {
+        sessionExecutor.execute(session);
+        return true;
+      } catch (RejectedExecutionException e) {
+        return false;
+      }
+    }
+    if (!permits.tryAcquire()) {
+      return false;
+    }
+    try {
+      sessionExecutor.execute(() -> {
+        try {
+          session.run();
         } finally {
-          connections.remove(sessionId);
-          log.info("Connection from {} closed", client.getRemoteSocketAddress());
+          permits.release();
         }
       });
+      return true;
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      return false;
     }
   }
 
-  private void serveClient(@NotNull Socket socket) throws IOException, SVNException {
-    socket.setTcpNoDelay(true);
-    final SvnServerWriter writer = new SvnServerWriter(new BufferedOutputStream(socket.getOutputStream()));
-    final SvnServerParser parser = new SvnServerParser(socket.getInputStream());
+  private void registerParked() {
+    while (true) {
+      final ClientSession session = parkQueue.poll();
+      if (session == null) {
+        return;
+      }
+      try {
+        session.channel.configureBlocking(false);
+        session.channel.register(selector, SelectionKey.OP_READ, session);
+      } catch (IOException e) {
+        session.close();
+      }
+    }
+  }
 
-    final ClientInfo clientInfo = exchangeCapabilities(parser, writer);
+  private void closeParked() {
+    try {
+      for (SelectionKey key : selector.keys()) {
+        if (key.attachment() instanceof ClientSession) {
+          ((ClientSession) key.attachment()).close();
+        }
+      }
+      selector.close();
+    } catch (ClosedSelectorException | IOException ignored) {
+    }
+    for (ClientSession session = parkQueue.poll(); session != null; session = parkQueue.poll()) {
+      session.close();
+    }
+    for (ClientSession session : pending) {
+      session.close();
+    }
+    pending.clear();
+  }
+
+  /**
+   * Client connection state.
+   * <p>
+   * Session is processed by worker thread until it has nothing to do without reading from network.
+   */
+  private final class ClientSession implements Runnable {
+    private final long sessionId;
+    @NotNull
+    private final SocketChannel channel;
+    @NotNull
+    private final SocketAddress address;
+    @NotNull
+    private final ChannelStreams.ChannelInputStream input;
+    /**
+     * Data of parked session. Accessed only from selector thread.
+     */
+    @NotNull
+    private final CommandBuffer incoming = new CommandBuffer();
+    @Nullable
+    private volatile SessionContext sessionContext;
+    /**
+     * Session timeout deadline (0 - unlimited).
+     */
+    private volatile long deadline;
+
+    private ClientSession(long sessionId, @NotNull SocketChannel channel) throws IOException {
+      this.sessionId = sessionId;
+      this.channel = channel;
+      this.address = channel.getRemoteAddress();
+      this.input = ChannelStreams.input(channel);
+    }
+
+    private void setTimeout(long timeout) {
+      deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+    }
+
+    @Override
+    public void run() {
+      boolean parked = false;
+      try {
+        SessionContext context = sessionContext;
+        // Resumed session has complete command, received by selector thread, not in parser buffer.
+        final boolean resumed = context != null;
+        if (context == null) {
+          // Header timeout starts when worker thread picks up session: time in executor queue is not client fault.
+          setTimeout(config.getHeaderTimeout());
+          context = createSession(this);
+          if (context == null) {
+            return;
+          }
+          sessionContext = context;
+        }
+        parked = serveClient(this, context, resumed) && park();
+      } catch (EOFException | SocketException | ClosedChannelException ignore) {
+        // client disconnect is not a error
+      } catch (SVNException | IOException e) {
+        log.info("Client error:", e);
+      } finally {
+        if (!parked) {
+          close();
+        }
+      }
+    }
+
+    /**
+     * Refuse connection. Called from selector thread, so error is sent by single non-blocking write: short message
+     * fits into empty socket buffer and can't stall accepting other connections.
+     */
+    private void reject() {
+      try {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final SvnServerWriter writer = new SvnServerWriter(buffer);
+        BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.CANCELLED, "Server busy, try again later"));
+        writer.flush();
+        channel.configureBlocking(false);
+        channel.write(ByteBuffer.wrap(buffer.toByteArray()));
+      } catch (IOException ignored) {
+      }
+      close();
+    }
+
+    /**
+     * Read incoming data of parked session. Called from selector thread.
+     *
+     * @return Returns true if session has complete command and should be resumed.
+     */
+    private boolean receive() {
+      try {
+        if (incoming.read(channel) < 0) {
+          close();
+          return false;
+        }
+        return incoming.isReady();
+      } catch (IOException e) {
+        close();
+        return false;
+      }
+    }
+
+    private boolean park() {
+      if (stopped.get()) {
+        return false;
+      }
+      setTimeout(config.getIdleTimeout());
+      parkQueue.add(this);
+      selector.wakeup();
+      // Server can be stopped after selector thread already closed parked sessions.
+      return !(stopped.get() && parkQueue.remove(this));
+    }
+
+    private void close() {
+      if (connections.remove(sessionId) != null) {
+        // Release parser and writer buffers: closed session can stay in selector or pending queue for a while.
+        sessionContext = null;
+        try {
+          channel.close();
+        } catch (IOException ignored) {
+        }
+        log.info("Connection from {} closed", address);
+      }
+    }
+  }
+
+  @Nullable
+  private SessionContext createSession(@NotNull ClientSession session) throws IOException, SVNException {
+    final SocketChannel channel = session.channel;
+    if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+    final SvnServerWriter writer = new SvnServerWriter(ChannelStreams.output(channel));
+    final SvnServerParser parser = new SvnServerParser(new FlushingInputStream(session.input, writer));
+
+    sendGreeting(writer, config.isCompressionEnabled());
+    final String tunnelToken = readTunnelHeader(parser);
+    final ClientInfo clientInfo = readClientInfo(parser);
+    // Authentication can wait for user input on client side: header timeout is too short for it.
+    session.setTimeout(config.getAuthTimeout());
     final RepositoryInfo repositoryInfo = repositoryMapping.getRepository(clientInfo.getUrl());
     if (repositoryInfo == null) {
       BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "Repository not found: " + clientInfo.getUrl()));
-      return;
+      writer.flush();
+      return null;
+    }
+    final User externalUser = tunnelToken == null ? null : authenticateTunnel(parser, writer, tunnelToken);
+    if (tunnelToken != null && externalUser == null) {
+      BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_NOT_AUTHORIZED, "Tunnel authentication failed"));
+      writer.flush();
+      return null;
     }
-    final SessionContext context = new SessionContext(parser, writer, this, repositoryInfo, clientInfo);
+    final SessionContext context = new SessionContext(parser, writer, this, repositoryInfo, clientInfo, externalUser);
     context.authenticate(hasAnonymousAuthenticator(repositoryInfo));
     final VcsRepository repository = context.getRepository();
-    repository.updateRevisions();
+    repository.updateRevisionsOnConnect();
     sendAnnounce(writer, repositoryInfo);
+    return context;
+  }
 
-    while (!isInterrupted()) {
-      try {
-        Step step = context.poll();
-        if (step != null) {
-          step.process(context);
-          continue;
-        }
-
-        final SvnServerToken token = parser.readToken();
-        if (token != ListBeginToken.instance) {
-          throw new IOException("Unexpected token: " + token);
-        }
-        final String cmd = parser.readText();
-        final BaseCmd<?> command = commands.get(cmd);
-        if (command != null) {
-          log.debug("Receive command: {}", cmd);
-          processCommand(context, command, parser);
-        } else {
-          log.warn("Unsupported command: {}", cmd);
-          BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_UNKNOWN_CMD, "Unsupported command: " + cmd));
-          parser.skipItems();
-        }
-      } catch (SVNException e) {
-        if (WARNING_CODES.contains(e.getErrorMessage().getErrorCode())) {
-          log.warn("Command execution error: {}", e.getMessage());
-        } else {
-          log.error("Command execution error", e);
+  /**
+   * Process client commands.
+   *
+   * @param hasInput Next command is already available for reading from socket.
+   * @return Returns true if session waits for next command from client.
+   */
+  private boolean serveClient(@NotNull ClientSession session, @NotNull SessionContext context, boolean hasInput) throws IOException {
+    final SvnServerParser parser = context.getParser();
+    final SvnServerWriter writer = context.getWriter();
+    final Semaphore requestLimit = getRequestLimit(context.getRepository());
+    boolean processing = false;
+    try {
+      while (!isInterrupted()) {
+        try {
+          Step step = context.poll();
+          if (step != null) {
+            step.process(context);
+            continue;
+          }
+          if (processing) {
+            requestLimit.release();
+            processing = false;
+          }
+          if (!hasInput && !parser.hasBufferedData() && session.input.available() == 0) {
+            writer.flush();
+            return true;
+          }
+          hasInput = false;
+
+          session.setTimeout(config.getCommandTimeout());
+          final SvnServerToken token = parser.readToken();
+          if (token != ListBeginToken.instance) {
+            throw new IOException("Unexpected token: " + token);
+          }
+          final String cmd = parser.readText();
+          final BaseCmd<?> command = commands.get(cmd);
+          if (command != null) {
+            if (requestLimit != null) {
+              if (!requestLimit.tryAcquire()) {
+                log.warn("Too many concurrent requests, command rejected: {}", cmd);
+                BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.CANCELLED, "Server busy: too many concurrent requests to repository, try again later"));
+                parser.skipItems();
+                continue;
+              }
+              processing = true;
+            }
+            log.debug("Receive command: {}", cmd);
+            processCommand(context, command, parser);
+          } else {
+            log.warn("Unsupported command: {}", cmd);
+            BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_UNKNOWN_CMD, "Unsupported command: " + cmd));
+            parser.skipItems();
+          }
+        } catch (SVNException e) {
+          if (WARNING_CODES.contains(e.getErrorMessage().getErrorCode())) {
+            log.warn("Command execution error: {}", e.getMessage());
+          } else {
+            log.error("Command execution error", e);
+          }
+          BaseCmd.sendError(writer, e.getErrorMessage());
         }
-        BaseCmd.sendError(writer, e.getErrorMessage());
+      }
+      return false;
+    } finally {
+      if (processing) {
+        requestLimit.release();
       }
     }
   }
 
+  @Nullable
+  private Semaphore getRequestLimit(@NotNull VcsRepository repository) {
+    final int limit = config.getRepositoryRequestLimit();
+    if (limit <= 0) {
+      return null;
+    }
+    return requestLimits.computeIfAbsent(repository, key -> new Semaphore(limit));
+  }
+
   private static <T> void processCommand(@NotNull SessionContext context, @NotNull BaseCmd<T> cmd, @NotNull SvnServerParser parser) throws IOException, SVNException {
     final T param = MessageParser.parse(cmd.getArguments(), parser);
     parser.readToken(ListEndToken.class);
     cmd.process(context, param);
   }
 
-  private ClientInfo exchangeCapabilities(SvnServerParser parser, SvnServerWriter writer) throws IOException, SVNException {
+  /**
+   * Read svn+ssh tunnel header.
+   * <p>
+   * Tunnel script (tools/git-as-svn-svnserve-tunnel) relays SSH session as is, but sends header
+   * {@code tunnel <token>} with KEY-AUTHENTICATOR token of SSH user right after connect, before client
+   * information. Client information always starts with list, so header can't be confused with it.
+   *
+   * @return Tunnel authentication token or null, if connection is not tunneled.
+   */
+  @Nullable
+  static String readTunnelHeader(@NotNull SvnServerParser parser) throws IOException {
+    if (!parser.isWordNext()) {
+      return null;
+    }
+    final String word = parser.readToken(WordToken.class).getText();
+    if (!word.equals("tunnel")) {
+      throw new IOException("Unexpected token: " + word);
+    }
+    return parser.readText();
+  }
+
+  /**
+   * Authenticate SSH user of tunneled connection by KEY-AUTHENTICATOR token.
+   */
+  @Nullable
+  private User authenticateTunnel(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer, @NotNull String token) throws IOException, SVNException {
+    for (Authenticator authenticator : context.sure(UserDB.class).authenticators()) {
+      if (authenticator.getMethodName().equals("KEY-AUTHENTICATOR")) {
+        return authenticator.authenticate(parser, writer, token);
+      }
+    }
+    log.warn("Tunnel connection refused: KEY-AUTHENTICATOR is not configured");
+    return null;
+  }
+
+  @NotNull
+  private ClientInfo readClientInfo(@NotNull SvnServerParser parser) throws IOException, SVNException {
+    // Читаем информацию о клиенте.
+    final ClientInfo clientInfo = MessageParser.parse(ClientInfo.class, parser);
+    if (clientInfo.getProtocolVersion() != 2) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.VERSION_MISMATCH, "Unsupported protocol version: " + clientInfo.getProtocolVersion() + " (expected: 2)"));
+    }
+    return clientInfo;
+  }
+
+  static void sendGreeting(@NotNull SvnServerWriter writer, boolean compressionEnabled) throws IOException {
     // Анонсируем поддерживаемые функции.
     writer
         .listBegin()
@@ -259,29 +722,34 @@ public final class SvnServer extends Thread {
         .word("inherited-props")    // Need for .gitattributes and .gitignore
         .word("log-revprops");      // svn log --with-all-revprops
 
-    if (config.isCompressionEnabled()) {
+    if (compressionEnabled) {
       writer.word("svndiff1");         // We support svndiff1 (compression)
+      writer.word("accepts-svndiff2"); // We support svndiff2 (LZ4 compression)
     }
     // End capabilities block.
     writer
         .listEnd()
         .listEnd()
         .listEnd();
-
-    // Читаем информацию о клиенте.
-    final ClientInfo clientInfo = MessageParser.parse(ClientInfo.class, parser);
-    if (clientInfo.getProtocolVersion() != 2) {
-      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.VERSION_MISMATCH, "Unsupported protocol version: " + clientInfo.getProtocolVersion() + " (expected: 2)"));
-    }
-    return clientInfo;
   }
 
   @NotNull
-  public User authenticate(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer, @NotNull RepositoryInfo repositoryInfo, boolean allowAnonymous) throws IOException, SVNException {
+  public User authenticate(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer, @NotNull RepositoryInfo repositoryInfo, boolean allowAnonymous, @Nullable User externalUser, boolean replica) throws IOException, SVNException {
     // Отправляем запрос на авторизацию.
-    final List<Authenticator> authenticators = new ArrayList<>(context.sure(UserDB.class).authenticators());
-    if (allowAnonymous) {
-      authenticators.add(0, AnonymousAuthenticator.get());
+    final List<Authenticator> authenticators = new ArrayList<>();
+    if (externalUser != null) {
+      // User is already authenticated by SSH.
+      authenticators.add(new ExternalAuthenticator(externalUser));
+    } else if (replica) {
+      // Session forwarded by replica node: user is authenticated by replica.
+      if (!config.getReplicaToken().isEmpty()) {
+        authenticators.add(new ReplicaAuthenticator(context.sure(UserDB.class), config.getReplicaToken()));
+      }
+    } else {
+      authenticators.addAll(context.sure(UserDB.class).authenticators());
+      if (allowAnonymous) {
+        authenticators.add(0, AnonymousAuthenticator.get());
+      }
     }
     writer
         .listBegin()
@@ -354,9 +822,42 @@ public final class SvnServer extends Thread {
         .listEnd();
   }
 
+  /**
+   * Create bounded executor for client sessions.
+   * <p>
+   * Shared context thread pool is also used by web server and background tasks, so connection limits use own pool.
+   *
+   * @param maxThreads Maximum worker thread count.
+   * @param queueSize  Maximum count of sessions waiting for free worker thread. If limits are exceeded session is rejected.
+   */
+  @NotNull
+  private static ExecutorService createSessionExecutor(int maxThreads, int queueSize, @NotNull ThreadFactory threadFactory) {
+    if (queueSize <= 0) {
+      return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    }
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Create executor with virtual thread per task.
+   *
+   * @return Executor or null if virtual threads is not supported by JVM (before Java 21).
+   */
+  @Nullable
+  static ExecutorService createVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      log.warn("Virtual threads is not supported by current JVM, fallback to thread pool");
+      return null;
+    }
+  }
+
   public void shutdown(long millis) throws Exception {
     startShutdown();
-    if (!context.getThreadPoolExecutor().awaitTermination(millis, TimeUnit.MILLISECONDS)) {
+    if (!sessionExecutor.awaitTermination(millis, TimeUnit.MILLISECONDS) || !context.getThreadPoolExecutor().awaitTermination(millis, TimeUnit.MILLISECONDS)) {
       forceShutdown();
     }
     join(millis);
@@ -368,18 +869,41 @@ public final class SvnServer extends Thread {
     if (stopped.compareAndSet(false, true)) {
       log.info("Shutdown server");
       serverSocket.close();
+      if (unixSocket != null) {
+        unixSocket.close();
+        UnixDomainSockets.delete(Paths.get(config.getUnixSocket()));
+      }
+      selector.wakeup();
+      if (reaper != null) {
+        reaper.shutdownNow();
+      }
+      if (deltaExecutor != null) {
+        deltaExecutor.shutdown();
+      }
+      sessionExecutor.shutdown();
       context.getThreadPoolExecutor().shutdown();
     }
   }
 
   private void forceShutdown() throws IOException, InterruptedException {
-    for (Socket socket : connections.values()) {
-      socket.close();
+    for (ClientSession session : connections.values()) {
+      session.close();
     }
+    sessionExecutor.awaitTermination(FORCE_SHUTDOWN, TimeUnit.MILLISECONDS);
     context.getThreadPoolExecutor().awaitTermination(FORCE_SHUTDOWN, TimeUnit.MILLISECONDS);
   }
 
   boolean isCompressionEnabled() {
     return config.isCompressionEnabled();
   }
+
+  @Nullable
+  ExecutorService getDeltaExecutor() {
+    return deltaExecutor;
+  }
+
+  @NotNull
+  Config getConfig() {
+    return config;
+  }
 }
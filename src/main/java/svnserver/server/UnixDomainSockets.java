@@ -0,0 +1,140 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Unix domain socket helper.
+ * <p>
+ * Unix domain sockets are supported by NIO since Java 16. Project is compiled for Java 8, so API is used through reflection.
+ *
+ * @author agent <agent@local>
+ */
+final class UnixDomainSockets {
+  // File type bits of unix:mode attribute.
+  private static final int S_IFMT = 0170000;
+  private static final int S_IFSOCK = 0140000;
+
+  private UnixDomainSockets() {
+  }
+
+  /**
+   * Create listening socket. Stale socket file is removed.
+   *
+   * @throws FileAlreadyExistsException If path is not a socket or socket is used by running process.
+   */
+  @NotNull
+  static ServerSocketChannel bind(@NotNull Path path) throws IOException {
+    if (isSocket(path)) {
+      if (isAlive(path)) {
+        throw new FileAlreadyExistsException(path.toString(), null, "Socket is used by another process");
+      }
+      Files.delete(path);
+    } else if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+      throw new FileAlreadyExistsException(path.toString(), null, "File exists and is not a socket");
+    }
+    final SocketAddress address = createAddress(path);
+    final ServerSocketChannel channel = (ServerSocketChannel) invoke(ServerSocketChannel.class, "open", unixFamily());
+    try {
+      channel.bind(address);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return channel;
+  }
+
+  /**
+   * Remove socket file. Other files are never removed.
+   */
+  static void delete(@NotNull Path path) throws IOException {
+    if (isSocket(path)) {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  static boolean isSocket(@NotNull Path path) throws IOException {
+    final BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+    if (!attributes.isOther()) {
+      return false;
+    }
+    try {
+      final int mode = (Integer) Files.getAttribute(path, "unix:mode", LinkOption.NOFOLLOW_LINKS);
+      return (mode & S_IFMT) == S_IFSOCK;
+    } catch (UnsupportedOperationException | IllegalArgumentException e) {
+      // No unix attributes (Windows): socket is the only special file here.
+      return true;
+    }
+  }
+
+  private static boolean isAlive(@NotNull Path path) {
+    try (SocketChannel ignored = connect(path)) {
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  @NotNull
+  static SocketChannel connect(@NotNull Path path) throws IOException {
+    final SocketAddress address = createAddress(path);
+    final SocketChannel channel = (SocketChannel) invoke(SocketChannel.class, "open", unixFamily());
+    try {
+      channel.connect(address);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return channel;
+  }
+
+  @NotNull
+  private static ProtocolFamily unixFamily() throws IOException {
+    try {
+      return StandardProtocolFamily.valueOf("UNIX");
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Unix domain sockets are not supported by current JVM (Java 16+ required)", e);
+    }
+  }
+
+  @NotNull
+  private static SocketAddress createAddress(@NotNull Path path) throws IOException {
+    try {
+      return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class).invoke(null, path);
+    } catch (ReflectiveOperationException e) {
+      throw new IOException("Unix domain sockets are not supported by current JVM (Java 16+ required)", e);
+    }
+  }
+
+  @NotNull
+  private static Object invoke(@NotNull Class<?> type, @NotNull String method, @NotNull ProtocolFamily family) throws IOException {
+    try {
+      return type.getMethod(method, ProtocolFamily.class).invoke(null, family);
+    } catch (ReflectiveOperationException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unix domain sockets are not supported by current JVM (Java 16+ required)", e);
+    }
+  }
+}
@@ -0,0 +1,224 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.HashHelper;
+import svnserver.StringHelper;
+import svnserver.context.Shared;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Checkout editor stream cache.
+ * <p>
+ * Editor drive of checkout (update with empty report) depends only on request parameters, so it can be written
+ * to spool file and replayed to later identical requests without walking the tree and computing file deltas.
+ * <p>
+ * Spool files are stored in cache directory and removed in least recently used order when total size exceeds limit.
+ *
+ * @author agent <agent@local>
+ */
+public final class CheckoutCache implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(CheckoutCache.class);
+  @NotNull
+  private static final String SPOOL_SUFFIX = ".editor";
+  @NotNull
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  @NotNull
+  private final File directory;
+  private final long maxSize;
+
+  public CheckoutCache(@NotNull File directory, long maxSize) throws IOException {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Can't create checkout cache directory: " + directory);
+    }
+    // Remove incomplete records of previous run.
+    for (File file : listFiles(TEMP_SUFFIX)) {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  /**
+   * Open recorded editor stream.
+   *
+   * @return Recorded stream or null, if stream is not recorded yet.
+   */
+  @Nullable
+  public InputStream open(@NotNull String key) {
+    final File file = getFile(key);
+    try {
+      final InputStream stream = new BufferedInputStream(new FileInputStream(file));
+      //noinspection ResultOfMethodCallIgnored
+      file.setLastModified(System.currentTimeMillis());
+      return stream;
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Start editor stream recording.
+   * <p>
+   * Record is visible for {@link #open} only after {@link Record#commit} call.
+   * Recording is best-effort: errors are logged and the record is dropped.
+   *
+   * @return Record or null, if record can't be created.
+   */
+  @Nullable
+  public Record create(@NotNull String key) {
+    try {
+      return new Record(getFile(key), File.createTempFile("checkout", TEMP_SUFFIX, directory));
+    } catch (IOException e) {
+      log.warn("Can't create checkout cache record in: " + directory, e);
+      return null;
+    }
+  }
+
+  @NotNull
+  private File getFile(@NotNull String key) {
+    final byte[] hash = HashHelper.sha256().digest(key.getBytes(StandardCharsets.UTF_8));
+    return new File(directory, StringHelper.toHex(hash) + SPOOL_SUFFIX);
+  }
+
+  @NotNull
+  private File[] listFiles(@NotNull String suffix) {
+    final File[] files = directory.listFiles((dir, name) -> name.endsWith(suffix));
+    return files == null ? new File[0] : files;
+  }
+
+  private synchronized void cleanup() {
+    final File[] files = listFiles(SPOOL_SUFFIX);
+    long totalSize = 0;
+    for (File file : files) {
+      totalSize += file.length();
+    }
+    if (totalSize <= maxSize) {
+      return;
+    }
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+    for (File file : files) {
+      if (totalSize <= maxSize) {
+        break;
+      }
+      final long size = file.length();
+      if (file.delete()) {
+        totalSize -= size;
+      }
+    }
+  }
+
+  /**
+   * Editor stream record in progress.
+   */
+  public final class Record implements AutoCloseable {
+    @NotNull
+    private final File file;
+    @NotNull
+    private final File tempFile;
+    @NotNull
+    private final OutputStream stream;
+    @NotNull
+    private final OutputStream capture = new OutputStream() {
+      @Override
+      public void write(int b) {
+        if (failed) {
+          return;
+        }
+        try {
+          stream.write(b);
+        } catch (IOException e) {
+          fail(e);
+        }
+      }
+
+      @Override
+      public void write(@NotNull byte[] data, int offset, int length) {
+        if (failed) {
+          return;
+        }
+        try {
+          stream.write(data, offset, length);
+        } catch (IOException e) {
+          fail(e);
+        }
+      }
+    };
+    private boolean committed;
+    private boolean failed;
+
+    private Record(@NotNull File file, @NotNull File tempFile) throws IOException {
+      this.file = file;
+      this.tempFile = tempFile;
+      this.stream = new BufferedOutputStream(new FileOutputStream(tempFile));
+    }
+
+    /**
+     * @return Record stream. Write errors are not thrown: record is dropped instead.
+     */
+    @NotNull
+    public OutputStream getStream() {
+      return capture;
+    }
+
+    /**
+     * Complete recording and publish record.
+     */
+    public void commit() {
+      if (failed) {
+        return;
+      }
+      try {
+        stream.close();
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+      } catch (IOException e) {
+        fail(e);
+        return;
+      }
+      cleanup();
+    }
+
+    private void fail(@NotNull IOException e) {
+      log.warn("Can't write checkout cache record: " + tempFile, e);
+      failed = true;
+    }
+
+    /**
+     * Discard record, if it is not committed.
+     */
+    @Override
+    public void close() {
+      if (committed) {
+        return;
+      }
+      try {
+        stream.close();
+      } catch (IOException ignored) {
+        // Record is discarded anyway.
+      }
+      try {
+        Files.deleteIfExists(tempFile.toPath());
+      } catch (IOException e) {
+        log.warn("Can't remove checkout cache temporary file: " + tempFile, e);
+      }
+    }
+  }
+}
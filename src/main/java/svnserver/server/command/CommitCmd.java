@@ -15,7 +15,6 @@ import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNURL;
-import org.tmatesoft.svn.core.internal.delta.SVNDeltaReader;
 import svnserver.StringHelper;
 import svnserver.parser.MessageParser;
 import svnserver.parser.SvnServerParser;
@@ -25,11 +24,14 @@ import svnserver.parser.token.ListEndToken;
 import svnserver.repository.*;
 import svnserver.repository.locks.LockDesc;
 import svnserver.repository.locks.LockManagerWrite;
+import svnserver.server.PrimaryConnection;
 import svnserver.server.SessionContext;
 import svnserver.server.step.CheckPermissionStep;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -194,19 +196,8 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     }
   }
 
-  public static class DeltaChunkParams {
-    @NotNull
-    private final String token;
-    @NotNull
-    private final byte[] chunk;
-
-    public DeltaChunkParams(@NotNull String token, @NotNull byte[] chunk) {
-      this.token = token;
-      this.chunk = chunk;
-    }
-  }
-
   private static final int MAX_PASS_COUNT = 10;
+  private static final int CHUNK_BUFFER_SIZE = 32 * 1024;
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(DeltaCmd.class);
 
@@ -218,6 +209,14 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull CommitParams args) throws IOException, SVNException {
+    if (PrimaryConnection.canForward(context)) {
+      forward(context, args);
+      return;
+    }
+    if (context.getRepository().isReadOnly()) {
+      // Client sends editor commands right after success response, so commit must be refused before it.
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNSUPPORTED_FEATURE, "Repository is read-only replica"));
+    }
     final SvnServerWriter writer = context.getWriter();
     writer
         .listBegin()
@@ -230,6 +229,33 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     pipeline.editorCommand(context);
   }
 
+  private void forward(@NotNull SessionContext context, @NotNull CommitParams args) throws IOException, SVNException {
+    try (PrimaryConnection primary = PrimaryConnection.open(context)) {
+      primary.getWriter()
+          .listBegin()
+          .word("commit")
+          .listBegin()
+          .string(args.message)
+          .listBegin();
+      for (LockInfo lock : args.locks) {
+        primary.getWriter()
+            .listBegin()
+            .string(lock.path)
+            .string(lock.lockToken)
+            .listEnd();
+      }
+      primary.getWriter()
+          .listEnd()
+          .bool(args.keepLocks)
+          .listEnd()
+          .listEnd();
+      if (primary.relayResponse(context.getWriter())) {
+        log.debug("Forward editor commands to primary node");
+        primary.relayEdit(context);
+      }
+    }
+  }
+
   @Override
   protected void permissionCheck(@NotNull SessionContext context, @NotNull CommitParams args) throws IOException, SVNException {
     context.checkWrite(context.getRepositoryPath(""));
@@ -239,7 +265,7 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     @NotNull
     private final VcsDeltaConsumer deltaConsumer;
     @NotNull
-    private final SVNDeltaReader reader = new SVNDeltaReader();
+    private final SvnDiff2.Reader reader = new SvnDiff2.Reader();
 
     public FileUpdater(@NotNull VcsDeltaConsumer deltaConsumer) {
       this.deltaConsumer = deltaConsumer;
@@ -298,11 +324,16 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     private final VcsWriter writer;
     private boolean keepLocks;
     private boolean aborted = false;
+    @NotNull
+    private final byte[] chunkBuffer = new byte[CHUNK_BUFFER_SIZE];
+    @NotNull
+    private final IngestQueue ingest;
 
     public EditorPipeline(@NotNull SessionContext context, @NotNull CommitParams params) throws IOException, SVNException {
       this.message = params.message;
       this.keepLocks = params.keepLocks;
       this.writer = context.getRepository().createWriter(context.getUser());
+      this.ingest = new IngestQueue(context.getRepository().getContext().getShared().getThreadPoolExecutor());
       final VcsFile entry = context.getRepository().getLatestRevision().getFile("");
       if (entry == null) {
         throw new IllegalStateException("Repository root entry not found.");
@@ -322,7 +353,6 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
       commands.put("open-file", new LambdaCmd<>(OpenParams.class, this::openFile));
       commands.put("close-dir", new LambdaCmd<>(TokenParams.class, this::closeDir));
       commands.put("close-file", new LambdaCmd<>(ChecksumParams.class, this::closeFile));
-      commands.put("textdelta-chunk", new LambdaCmd<>(DeltaChunkParams.class, this::deltaChunk));
       commands.put("textdelta-end", new LambdaCmd<>(TokenParams.class, this::deltaEnd));
       commands.put("apply-textdelta", new LambdaCmd<>(ChecksumParams.class, this::deltaApply));
 
@@ -347,8 +377,9 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
       changeProp(dir.props, args);
     }
 
-    private void changeFileProp(@NotNull SessionContext context, @NotNull ChangePropParams args) throws SVNException {
-      changeProp(getFile(args.token).deltaConsumer.getProperties(), args);
+    private void changeFileProp(@NotNull SessionContext context, @NotNull ChangePropParams args) throws SVNException, IOException {
+      final FileUpdater file = getFile(args.token);
+      ingest.submit(() -> changeProp(file.deltaConsumer.getProperties(), args));
     }
 
     private void changeProp(@NotNull Map<String, String> props, @NotNull ChangePropParams args) {
@@ -496,20 +527,48 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.ILLEGAL_TARGET, "Invalid file token: " + args.token));
       }
       if (args.checksum.length != 0) {
-        file.deltaConsumer.validateChecksum(args.checksum[0]);
+        final String checksum = args.checksum[0];
+        // Checksum mismatch is reported on next submit or on close-edit: client doesn't wait for editor commands result.
+        ingest.submit(() -> file.deltaConsumer.validateChecksum(checksum));
       }
     }
 
     private void deltaApply(@NotNull SessionContext context, @NotNull ChecksumParams args) throws SVNException, IOException {
-      getFile(args.token).deltaConsumer.applyTextDelta(null, args.checksum.length == 0 ? null : args.checksum[0]);
-    }
-
-    private void deltaChunk(@NotNull SessionContext context, @NotNull DeltaChunkParams args) throws SVNException, IOException {
-      getFile(args.token).reader.nextWindow(args.chunk, 0, args.chunk.length, "", getFile(args.token).deltaConsumer);
+      final FileUpdater file = getFile(args.token);
+      final String baseChecksum = args.checksum.length == 0 ? null : args.checksum[0];
+      ingest.submit(() -> file.deltaConsumer.applyTextDelta(null, baseChecksum));
+    }
+
+    /**
+     * textdelta-chunk command: ( file-token:string chunk:string )
+     * <p>
+     * Chunk data is transferred to delta reader by parts without loading whole chunk into memory.
+     * Delta is applied by ingest thread, so slow blob insertion doesn't stall network reading.
+     */
+    private void deltaChunk(@NotNull SessionContext context) throws SVNException, IOException {
+      final SvnServerParser parser = context.getParser();
+      parser.readToken(ListBeginToken.class);
+      final String token = parser.readText();
+      try (InputStream chunk = parser.readStringStream()) {
+        final FileUpdater file = getFile(token);
+        while (true) {
+          final int size = chunk.read(chunkBuffer);
+          if (size < 0) {
+            break;
+          }
+          final byte[] data = Arrays.copyOf(chunkBuffer, size);
+          ingest.submit(() -> file.reader.nextWindow(data, 0, data.length, "", file.deltaConsumer));
+        }
+      } finally {
+        // Command parameters end and command end.
+        parser.readToken(ListEndToken.class);
+        parser.readToken(ListEndToken.class);
+      }
     }
 
     private void deltaEnd(@NotNull SessionContext context, @NotNull TokenParams args) throws SVNException, IOException {
-      getFile(args.token).deltaConsumer.textDeltaEnd(null);
+      final FileUpdater file = getFile(args.token);
+      ingest.submit(() -> file.deltaConsumer.textDeltaEnd(null));
     }
 
     @NotNull
@@ -535,6 +594,7 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     }
 
     private void abortEdit(@NotNull SessionContext context, @NotNull NoParams args) throws IOException {
+      ingest.cancel();
       final SvnServerWriter writer = context.getWriter();
       writer
           .listBegin()
@@ -554,6 +614,7 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
       if (!files.isEmpty()) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.INCOMPLETE_DATA, "Found not closed file tokens: " + files.keySet()));
       }
+      ingest.await();
       final VcsRevision revision = context.getRepository().wrapLockWrite((lockManager) -> {
         final List<LockDesc> oldLocks = getLocks(lockManager, locks);
         for (int pass = 0; ; ++pass) {
@@ -613,6 +674,25 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
       BaseCmd command = exitCommands.get(cmd);
       if (command == null) {
         context.push(this::editorCommand);
+        if (cmd.equals("textdelta-chunk")) {
+          if (aborted) {
+            parser.skipItems();
+            return;
+          }
+          try {
+            deltaChunk(context);
+          } catch (SVNException e) {
+            aborted = true;
+            ingest.cancel();
+            throw e;
+          } catch (IOException | RuntimeException e) {
+            log.warn("Exception during in cmd " + cmd, e);
+            aborted = true;
+            ingest.cancel();
+            throw e;
+          }
+          return;
+        }
         command = commands.get(cmd);
       }
       if ((command != null) && (!aborted)) {
@@ -622,10 +702,12 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
           command.process(context, param);
         } catch (SVNException e) {
           aborted = true;
+          ingest.cancel();
           throw e;
         } catch (Throwable e) {
           log.warn("Exception during in cmd " + cmd, e);
           aborted = true;
+          ingest.cancel();
           throw e;
         }
       } else if (command != null) {
@@ -0,0 +1,134 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNProperty;
+import svnserver.repository.VcsFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Detection of already compressed file content.
+ * <p>
+ * Compression of such content (archives, images, etc.) burns CPU without reducing traffic.
+ *
+ * @author agent <agent@local>
+ */
+final class Compressibility {
+  // Files smaller than this are compressed without sampling.
+  private static final int MIN_SAMPLE_SIZE = 1024;
+  private static final int SAMPLE_SIZE = 4096;
+  // Shannon entropy (bits per byte) of already compressed data is close to 8.
+  private static final double MAX_ENTROPY = 7.5;
+
+  @NotNull
+  private static final Set<String> compressedExtensions = new HashSet<>(Arrays.asList(
+      // Archives
+      "zip", "jar", "war", "ear", "aar", "apk", "nupkg", "whl", "gz", "tgz", "bz2", "tbz2", "xz", "txz", "lz", "lz4", "lzma", "zst", "7z", "rar", "cab",
+      // Images
+      "png", "jpg", "jpeg", "gif", "webp", "jp2", "heic",
+      // Audio and video
+      "mp3", "ogg", "oga", "opus", "m4a", "aac", "flac", "mp4", "m4v", "mkv", "webm", "mov", "avi", "wmv",
+      // Office documents
+      "docx", "xlsx", "pptx", "odt", "ods", "odp"
+  ));
+  @NotNull
+  private static final Set<String> compressedMimeTypes = new HashSet<>(Arrays.asList(
+      "application/zip", "application/gzip", "application/x-gzip", "application/x-bzip2", "application/x-xz",
+      "application/x-7z-compressed", "application/x-rar-compressed", "application/java-archive", "application/zstd",
+      "image/png", "image/jpeg", "image/gif", "image/webp"
+  ));
+
+  private Compressibility() {
+  }
+
+  /**
+   * Check file content for compressibility.
+   *
+   * @param file   File.
+   * @param stream File content stream, wrapped by {@link #markable(InputStream)}: sample is read from stream head.
+   * @return False, if content is already compressed.
+   */
+  static boolean isCompressible(@NotNull VcsFile file, @NotNull InputStream stream) throws IOException, SVNException {
+    if (!stream.markSupported()) {
+      throw new IllegalArgumentException("Stream doesn't support mark/reset: " + stream.getClass().getName());
+    }
+    if (isCompressedName(file.getFileName()) || isCompressedMimeType(file.getProperties().get(SVNProperty.MIME_TYPE))) {
+      return false;
+    }
+    if (file.getSize() < MIN_SAMPLE_SIZE) {
+      return true;
+    }
+    final byte[] sample = new byte[SAMPLE_SIZE];
+    stream.mark(SAMPLE_SIZE);
+    int size = 0;
+    while (size < sample.length) {
+      final int read = stream.read(sample, size, sample.length - size);
+      if (read < 0) {
+        break;
+      }
+      size += read;
+    }
+    stream.reset();
+    return entropy(sample, size) <= MAX_ENTROPY;
+  }
+
+  /**
+   * Wrap stream for {@link #isCompressible(VcsFile, InputStream)} check.
+   *
+   * @param stream File content stream.
+   * @return Stream with mark/reset support.
+   */
+  @NotNull
+  static InputStream markable(@NotNull InputStream stream) {
+    return stream.markSupported() ? stream : new BufferedInputStream(stream, SAMPLE_SIZE);
+  }
+
+  private static boolean isCompressedName(@NotNull String fileName) {
+    final int dot = fileName.lastIndexOf('.');
+    return dot >= 0 && compressedExtensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+  }
+
+  private static boolean isCompressedMimeType(@Nullable String mimeType) {
+    if (mimeType == null) {
+      return false;
+    }
+    final String type = mimeType.toLowerCase(Locale.ENGLISH);
+    return compressedMimeTypes.contains(type) || type.startsWith("video/") || type.startsWith("audio/");
+  }
+
+  /**
+   * @return Shannon entropy of data in bits per byte.
+   */
+  static double entropy(@NotNull byte[] data, int length) {
+    if (length == 0) {
+      return 0;
+    }
+    final int[] counts = new int[256];
+    for (int i = 0; i < length; ++i) {
+      counts[data[i] & 0xFF]++;
+    }
+    double entropy = 0;
+    for (int count : counts) {
+      if (count > 0) {
+        final double p = (double) count / length;
+        entropy -= p * Math.log(p);
+      }
+    }
+    return entropy / Math.log(2);
+  }
+}
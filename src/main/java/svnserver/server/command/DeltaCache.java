@@ -0,0 +1,105 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.context.Shared;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encoded file delta cache.
+ * <p>
+ * Many clients usually update working copies between same revisions, so same file deltas are sent to every client.
+ * Cache key is built from source and target content hashes (object id with filter name) and compression,
+ * so cache is shared between sessions and repositories.
+ *
+ * @author agent <agent@local>
+ */
+public final class DeltaCache implements Shared {
+  // Approximate memory overhead of cache entry.
+  private static final int ENTRY_OVERHEAD = 256;
+  private static final int WINDOW_OVERHEAD = 32;
+
+  @NotNull
+  private final Cache<String, Entry> cache;
+  private final long maxEntrySize;
+
+  public DeltaCache(long maxSize) {
+    this.maxEntrySize = maxSize / 16;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSize)
+        .weigher((String key, Entry entry) -> entry.weight)
+        .build();
+  }
+
+  /**
+   * @return Maximum size of delta windows for caching.
+   */
+  public long getMaxEntrySize() {
+    return maxEntrySize;
+  }
+
+  @NotNull
+  public static String key(@Nullable String sourceHash, @NotNull String targetHash, @NotNull DeltaCompression compression) {
+    return (sourceHash == null ? "" : sourceHash) + '\n' + targetHash + '\n' + compression.name();
+  }
+
+  @Nullable
+  public Entry get(@NotNull String key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Put encoded delta to cache.
+   * <p>
+   * Delta larger than {@link #getMaxEntrySize()} is not cached.
+   */
+  public void put(@NotNull String key, @NotNull List<byte[]> windows, @NotNull String md5) {
+    long size = 0;
+    for (byte[] window : windows) {
+      size += window.length;
+    }
+    if (size > maxEntrySize) {
+      return;
+    }
+    cache.put(key, new Entry(windows, md5));
+  }
+
+  public static final class Entry {
+    @NotNull
+    private final List<byte[]> windows;
+    @NotNull
+    private final String md5;
+    private final int weight;
+
+    private Entry(@NotNull List<byte[]> windows, @NotNull String md5) {
+      this.windows = Collections.unmodifiableList(windows);
+      this.md5 = md5;
+      long size = ENTRY_OVERHEAD;
+      for (byte[] window : windows) {
+        size += window.length + WINDOW_OVERHEAD;
+      }
+      this.weight = (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @NotNull
+    public List<byte[]> getWindows() {
+      return windows;
+    }
+
+    @NotNull
+    public String getMd5() {
+      return md5;
+    }
+  }
+}
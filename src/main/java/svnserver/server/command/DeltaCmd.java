@@ -15,7 +15,6 @@ import org.tmatesoft.svn.core.*;
 import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
 import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
 import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
-import svnserver.StringHelper;
 import svnserver.parser.MessageParser;
 import svnserver.parser.SvnServerParser;
 import svnserver.parser.SvnServerWriter;
@@ -30,6 +29,10 @@ import svnserver.server.step.CheckPermissionStep;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Delta commands.
@@ -115,6 +118,10 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(DeltaCmd.class);
+  // Count of files with delta computed ahead of editor output.
+  private static final int PREPARE_DEPTH = 8;
+  // Maximum size of file with delta computed ahead (prepared delta is kept in memory).
+  private static final long PREPARE_MAX_SIZE = 512 * 1024;
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull DeltaParams args) throws IOException, SVNException {
@@ -163,19 +170,90 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     @NotNull
     private final DeltaParams params;
     @NotNull
-    private final Map<String, Set<String>> forcedPaths = new HashMap<>();
-    @NotNull
-    private final Set<String> deletedPaths = new HashSet<>();
-    @NotNull
-    private final Map<String, SetPathParams> paths = new HashMap<>();
+    private final ReportNode report = new ReportNode();
     @NotNull
     private final Deque<HeaderEntry> pathStack = new ArrayDeque<>();
+    @NotNull
+    private final Map<String, Future<PreparedDelta>> preparedDeltas = new HashMap<>();
 
     @FunctionalInterface
     private interface HeaderWriter {
       void write(@NotNull SvnServerWriter writer) throws IOException, SVNException;
     }
 
+    @FunctionalInterface
+    private interface WindowWriter {
+      void write(@NotNull byte[] window) throws IOException;
+    }
+
+    private static final class EntryUpdate {
+      @NotNull
+      private final String wcPath;
+      @Nullable
+      private final VcsFile oldFile;
+      @NotNull
+      private final VcsFile newFile;
+      @NotNull
+      private final Depth wcDepth;
+
+      private EntryUpdate(@NotNull String wcPath, @Nullable VcsFile oldFile, @NotNull VcsFile newFile, @NotNull Depth wcDepth) {
+        this.wcPath = wcPath;
+        this.oldFile = oldFile;
+        this.newFile = newFile;
+        this.wcDepth = wcDepth;
+      }
+    }
+
+    /**
+     * File delta computed ahead of editor output.
+     */
+    private static final class PreparedDelta {
+      @Nullable
+      private final VcsFile oldFile;
+      @NotNull
+      private final List<byte[]> windows;
+      @NotNull
+      private final String md5;
+
+      private PreparedDelta(@Nullable VcsFile oldFile, @NotNull List<byte[]> windows, @NotNull String md5) {
+        this.oldFile = oldFile;
+        this.windows = windows;
+        this.md5 = md5;
+      }
+    }
+
+    /**
+     * Client report state of working copy path.
+     * <p>
+     * Report is stored as path trie, so report state of directory children is available without
+     * scanning all reported paths. Node presence means that path should be updated (forced path).
+     */
+    private static final class ReportNode {
+      @Nullable
+      private Map<String, ReportNode> children;
+      @Nullable
+      private SetPathParams params;
+      private boolean deleted;
+
+      @Nullable
+      private ReportNode getChild(@NotNull String name) {
+        return children == null ? null : children.get(name);
+      }
+
+      @NotNull
+      private ReportNode getOrCreateChild(@NotNull String name) {
+        if (children == null) {
+          children = new HashMap<>(4);
+        }
+        return children.computeIfAbsent(name, s -> new ReportNode());
+      }
+
+      @NotNull
+      private Set<String> getChildNames() {
+        return children == null ? Collections.emptySet() : children.keySet();
+      }
+    }
+
     private static class HeaderEntry implements AutoCloseable {
 
       @NotNull
@@ -245,35 +323,55 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     }
 
     public void setPathReport(@NotNull String path, int rev, boolean startEmpty, @NotNull SVNDepth depth) throws SVNException {
-      final String wcPath = wcPath(path);
-      paths.put(wcPath, new SetPathParams(path, rev, startEmpty, new String[0], depth.getName()));
-      forcePath(wcPath);
+      getOrCreateNode(wcPath(path)).params = new SetPathParams(path, rev, startEmpty, new String[0], depth.getName());
     }
 
     private void setPathReport(@NotNull SessionContext context, @NotNull SetPathParams args) throws SVNException {
       context.push(this::reportCommand);
-      final String wcPath = wcPath(args.path);
-      paths.put(wcPath, args);
-      forcePath(wcPath);
+      getOrCreateNode(wcPath(args.path)).params = args;
     }
 
     private void deletePath(@NotNull SessionContext context, @NotNull DeleteParams args) throws SVNException {
       context.push(this::reportCommand);
-      final String wcPath = wcPath(args.path);
-      forcePath(wcPath);
-      deletedPaths.add(wcPath);
+      getOrCreateNode(wcPath(args.path)).deleted = true;
     }
 
-    private void forcePath(@NotNull String wcPath) {
-      String path = wcPath;
-      while (!path.isEmpty()) {
-        final String parent = StringHelper.parentDir(path);
-        final Set<String> items = forcedPaths.computeIfAbsent(parent, s -> new HashSet<>());
-        if (!items.add(path)) {
-          break;
+    @NotNull
+    private ReportNode getOrCreateNode(@NotNull String wcPath) {
+      ReportNode node = report;
+      int begin = 0;
+      while (begin < wcPath.length()) {
+        final int end = nameEnd(wcPath, begin);
+        if (end > begin) {
+          node = node.getOrCreateChild(wcPath.substring(begin, end));
+        }
+        begin = end + 1;
+      }
+      return node;
+    }
+
+    @Nullable
+    private ReportNode getNode(@NotNull String wcPath) {
+      ReportNode node = report;
+      int begin = 0;
+      while (node != null && begin < wcPath.length()) {
+        final int end = nameEnd(wcPath, begin);
+        if (end > begin) {
+          node = node.getChild(wcPath.substring(begin, end));
         }
-        path = parent;
+        begin = end + 1;
       }
+      return node;
+    }
+
+    private static int nameEnd(@NotNull String wcPath, int begin) {
+      final int end = wcPath.indexOf('/', begin);
+      return end < 0 ? wcPath.length() : end;
+    }
+
+    @Nullable
+    private SetPathParams getPathParams(@Nullable ReportNode node) {
+      return node == null ? null : node.params;
     }
 
     private void complete(@NotNull SessionContext context) throws IOException, SVNException {
@@ -281,7 +379,7 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     }
 
     protected void sendDelta(@NotNull SessionContext context, @NotNull String path, int rev) throws IOException, SVNException {
-      final SetPathParams rootParams = paths.get(wcPath(""));
+      final SetPathParams rootParams = getPathParams(getNode(wcPath("")));
       if (rootParams == null)
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.STREAM_MALFORMED_DATA));
 
@@ -314,7 +412,7 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       else
         newFile = context.getFile(rev, targetPath);
 
-      final VcsFile oldFile = getPrevFile(context, path, context.getFile(rootRev, fullPath));
+      final VcsFile oldFile = getPrevFile(context, path, getNode(path), context.getFile(rootRev, fullPath));
       updateEntry(context, path, oldFile, newFile, tokenId, path.isEmpty(), rootParams.depth, params.getDepth());
       writer
           .listBegin()
@@ -325,7 +423,7 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
     protected void sendResponse(@NotNull SessionContext context, @NotNull String path, int rev) throws IOException, SVNException {
       final SvnServerWriter writer = getWriter(context);
-      sendDelta(context, path, rev);
+      sendCachedDelta(context, path, rev);
       writer
           .listBegin()
           .word("close-edit")
@@ -387,6 +485,87 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       }
     }
 
+    /**
+     * Send editor drive. Checkout editor drive is replayed from checkout cache, if possible.
+     */
+    private void sendCachedDelta(@NotNull SessionContext context, @NotNull String path, int rev) throws IOException, SVNException {
+      final CheckoutCache cache = context.getRepository().getContext().getShared().get(CheckoutCache.class);
+      final String key = cache == null ? null : getCheckoutKey(context, path, rev);
+      if (cache == null || key == null) {
+        sendDelta(context, path, rev);
+        return;
+      }
+      final SvnServerWriter writer = context.getWriter();
+      try (InputStream cached = cache.open(key)) {
+        if (cached != null) {
+          log.debug("Send checkout editor stream from cache: {}", path);
+          writer.raw(cached);
+          return;
+        }
+      }
+      try (CheckoutCache.Record record = cache.create(key)) {
+        if (record == null) {
+          sendDelta(context, path, rev);
+          return;
+        }
+        writer.setCapture(record.getStream());
+        try {
+          sendDelta(context, path, rev);
+        } finally {
+          writer.setCapture(null);
+        }
+        record.commit();
+      }
+    }
+
+    /**
+     * Checkout cache key. Editor drive is cached only for checkout: single empty root report.
+     *
+     * @return Cache key or null, if editor drive can't be cached.
+     */
+    @Nullable
+    private String getCheckoutKey(@NotNull SessionContext context, @NotNull String path, int rev) throws IOException, SVNException {
+      final ReportNode rootNode = getNode(wcPath(""));
+      final SetPathParams rootParams = getPathParams(rootNode);
+      if (rootParams == null || !rootParams.startEmpty || rootNode.deleted || rootNode.children != null) {
+        return null;
+      }
+      // Spool files outlive access configuration, so stream is recorded and replayed only for user with read access
+      // to whole repository: access restrictions added after recording can't be bypassed by replay.
+      if (!canReadRepository(context)) {
+        return null;
+      }
+      final SVNURL targetPath = params.getTargetPath();
+      // Editor drive depends on user permissions, on delta formats supported by client and on selected compression.
+      // With adaptive compression the mode at drive start is used, so stream recorded on fast link is not replayed to slow one.
+      return String.join("\n",
+          context.getRepository().getUuid(),
+          params.getClass().getName(),
+          context.getRepositoryPath(path),
+          targetPath == null ? "" : targetPath.toString(),
+          String.valueOf(rev),
+          String.valueOf(rootParams.rev),
+          rootParams.depth.name(),
+          params.getDepth().name(),
+          params.getSendCopyFrom().name(),
+          String.valueOf(params.isIncludeInternalProps()),
+          String.valueOf(params.needDeltas()),
+          String.valueOf(context.isCompressionEnabled()),
+          String.valueOf(context.hasCapability("accepts-svndiff2")),
+          context.getDeltaCompression().name(),
+          context.getUser().getUserName()
+      );
+    }
+
+    private static boolean canReadRepository(@NotNull SessionContext context) throws IOException {
+      try {
+        context.checkRead("");
+        return true;
+      } catch (SVNException e) {
+        return false;
+      }
+    }
+
     private String createTokenId() {
       return "t" + String.valueOf(++lastTokenId);
     }
@@ -453,54 +632,165 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       final Depth.Action dirAction = wcDepth.determineAction(requestedDepth, true);
       final Depth.Action fileAction = wcDepth.determineAction(requestedDepth, false);
 
-      final Map<String, VcsFile> newEntries = new TreeMap<>();
-      for (VcsFile entry : newFile.getEntries()) {
+      final Iterable<? extends VcsFile> newFileEntries = newFile.getEntries();
+      final Map<String, VcsFile> newEntries = new HashMap<>();
+      for (VcsFile entry : newFileEntries) {
         newEntries.put(entry.getFileName(), entry);
       }
 
-      final Set<String> forced = new HashSet<>(forcedPaths.getOrDefault(wcPath, Collections.emptySet()));
+      // Children reported by client: this entries should be updated even if they are not changed.
+      final ReportNode dirNode = getNode(wcPath);
+      final Set<String> forced = dirNode == null ? new HashSet<>() : new HashSet<>(dirNode.getChildNames());
       final Map<String, VcsFile> oldEntries;
       if (oldFile != null) {
-        oldEntries = new TreeMap<>();
+        oldEntries = new HashMap<>();
         for (VcsFile oldEntry : oldFile.getEntries()) {
-          final String entryPath = joinPath(wcPath, oldEntry.getFileName());
-          if (newEntries.containsKey(oldEntry.getFileName())) {
-            oldEntries.put(oldEntry.getFileName(), oldEntry);
+          final String entryName = oldEntry.getFileName();
+          if (newEntries.containsKey(entryName)) {
+            oldEntries.put(entryName, oldEntry);
             continue;
           }
-          removeEntry(context, entryPath, oldEntry.getLastChange().getId(), tokenId);
-          forced.remove(entryPath);
+          removeEntry(context, joinPath(wcPath, entryName), oldEntry.getLastChange().getId(), tokenId);
+          forced.remove(entryName);
         }
       } else {
         oldEntries = Collections.emptyMap();
       }
 
-      for (String entryPath : forced) {
-        String entryName = StringHelper.getChildPath(wcPath, entryPath);
-        if ((entryName != null) && newEntries.containsKey(entryName)) {
+      for (String entryName : forced) {
+        if (newEntries.containsKey(entryName)) {
           continue;
         }
-        removeEntry(context, entryPath, newFile.getLastChange().getId(), tokenId);
+        removeEntry(context, joinPath(wcPath, entryName), newFile.getLastChange().getId(), tokenId);
       }
 
-      for (VcsFile newEntry : newFile.getEntries()) {
-        final String entryPath = joinPath(wcPath, newEntry.getFileName());
-        final VcsFile oldEntry = getPrevFile(context, entryPath, oldEntries.get(newEntry.getFileName()));
+      final List<EntryUpdate> updates = new ArrayList<>();
+      for (VcsFile newEntry : newFileEntries) {
+        final String entryName = newEntry.getFileName();
+        final String entryPath = joinPath(wcPath, entryName);
+        final ReportNode entryNode = dirNode == null ? null : dirNode.getChild(entryName);
+        final VcsFile oldEntry = getPrevFile(context, entryPath, entryNode, oldEntries.get(entryName));
 
         final Depth.Action action = newEntry.isDirectory() ? dirAction : fileAction;
 
-        if (!forced.remove(entryPath) && newEntry.equals(oldEntry) && action == Depth.Action.Normal && requestedDepth == wcDepth)
+        if (!forced.remove(entryName) && newEntry.equals(oldEntry) && action == Depth.Action.Normal && requestedDepth == wcDepth)
           // Same entry with same depth parameter.
           continue;
 
         if (action == Depth.Action.Skip)
           continue;
 
-        final Depth entryDepth = getWcDepth(entryPath, wcDepth);
-        updateEntry(context, entryPath, action == Depth.Action.Upgrade ? null : oldEntry, newEntry, tokenId, false, entryDepth, requestedDepth.deepen());
+        final Depth entryDepth = getWcDepth(entryNode, wcDepth);
+        updates.add(new EntryUpdate(entryPath, action == Depth.Action.Upgrade ? null : oldEntry, newEntry, entryDepth));
+      }
+
+      prefetch(context, updates);
+      int prepared = 0;
+      try {
+        for (int i = 0; i < updates.size(); ++i) {
+          // Compute file deltas ahead of editor output.
+          for (; prepared < updates.size() && prepared <= i + PREPARE_DEPTH; ++prepared) {
+            prepareDelta(context, updates.get(prepared));
+          }
+          final EntryUpdate update = updates.get(i);
+          updateEntry(context, update.wcPath, update.oldFile, update.newFile, tokenId, false, update.wcDepth, requestedDepth.deepen());
+        }
+      } finally {
+        for (int i = 0; i < prepared; ++i) {
+          final Future<PreparedDelta> delta = preparedDeltas.remove(updates.get(i).wcPath);
+          if (delta != null) {
+            delta.cancel(false);
+          }
+        }
+      }
+    }
+
+    /**
+     * Load contents of files, which will be sent to client, in storage order.
+     */
+    private void prefetch(@NotNull SessionContext context, @NotNull List<EntryUpdate> updates) throws IOException {
+      if (!params.needDeltas()) {
+        return;
+      }
+      final List<VcsFile> files = new ArrayList<>();
+      for (EntryUpdate update : updates) {
+        if (update.newFile.isDirectory()) {
+          continue;
+        }
+        files.add(update.newFile);
+        if (update.oldFile != null) {
+          files.add(update.oldFile);
+        }
+      }
+      context.getRepository().prefetch(files);
+    }
+
+    /**
+     * Start file delta computation in delta executor.
+     */
+    private void prepareDelta(@NotNull SessionContext context, @NotNull EntryUpdate update) throws IOException, SVNException {
+      final ExecutorService executor = context.getDeltaExecutor();
+      if (executor == null || !params.needDeltas() || update.newFile.isDirectory()) {
+        return;
+      }
+      final VcsFile oldFile = update.oldFile;
+      final VcsFile newFile = update.newFile;
+      final DeltaCompression compression = context.getDeltaCompression();
+      final DeltaCache cache = getDeltaCache(context);
+      try {
+        preparedDeltas.put(update.wcPath, executor.submit(() -> {
+          // Same checks as in updateFile, but file metadata is also loaded by delta executor.
+          try {
+            newFile.getMd5();
+            if (oldFile != null && newFile.getContentHash().equals(oldFile.getContentHash())) {
+              return null;
+            }
+            if (newFile.getSize() > PREPARE_MAX_SIZE) {
+              return null;
+            }
+          } catch (SvnForbiddenException ignored) {
+            // File will be sent as absent.
+            return null;
+          }
+          final List<byte[]> windows = new ArrayList<>();
+          final String md5 = sendDelta(cache, oldFile, newFile, compression, windows::add);
+          return new PreparedDelta(oldFile, windows, md5);
+        }));
+      } catch (RejectedExecutionException ignored) {
+        // Server shutdown.
       }
     }
 
+    @Nullable
+    private static DeltaCache getDeltaCache(@NotNull SessionContext context) {
+      return context.getRepository().getContext().getShared().get(DeltaCache.class);
+    }
+
+    /**
+     * Get file delta computed by delta executor.
+     *
+     * @return Prepared delta or null, if it is not computed for this file.
+     */
+    @Nullable
+    private PreparedDelta takePreparedDelta(@NotNull String wcPath, @Nullable VcsFile oldFile) throws IOException {
+      final Future<PreparedDelta> future = preparedDeltas.remove(wcPath);
+      if (future == null) {
+        return null;
+      }
+      final PreparedDelta delta;
+      try {
+        delta = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      } catch (ExecutionException e) {
+        // File is processed by session thread: forbidden file is sent as absent, other errors are reproduced.
+        return null;
+      }
+      // Delta source may be changed by copy-from.
+      return delta != null && Objects.equals(delta.oldFile, oldFile) ? delta : null;
+    }
+
     private void updateProps(@NotNull SessionContext context, @NotNull String type, @NotNull String tokenId, @Nullable VcsFile oldFile, @NotNull VcsFile newFile) throws IOException, SVNException {
       final Map<String, String> oldProps = oldFile != null ? oldFile.getProperties() : new HashMap<>();
       if (oldFile == null) {
@@ -543,43 +833,26 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
               .listEnd();
 
           if (params.needDeltas()) {
-            final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
-            try (InputStream source = openStream(oldFile);
-                 InputStream target = newFile.openStream()) {
-              final boolean compress = context.isCompressionEnabled();
-              final String validateMd5 = deltaGenerator.sendDelta(newFile.getFileName(), source, 0, target, new ISVNDeltaConsumer() {
-                private boolean header = true;
-
-                @Override
-                public void applyTextDelta(String path, String baseChecksum) throws SVNException {
-                }
-
-                @Override
-                public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
-                  try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-                    diffWindow.writeTo(stream, header, compress);
-                    header = false;
-                    writer
-                        .listBegin()
-                        .word("textdelta-chunk")
-                        .listBegin()
-                        .string(tokenId)
-                        .binary(stream.toByteArray())
-                        .listEnd()
-                        .listEnd();
-                    return null;
-                  } catch (IOException e) {
-                    throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR), e);
-                  }
-                }
-
-                @Override
-                public void textDeltaEnd(String path) throws SVNException {
-                }
-              }, true);
-              if (!validateMd5.equals(md5)) {
-                throw new IllegalStateException("MD5 checksum mismatch: some shit happends.");
+            final WindowWriter windowWriter = window -> writer
+                .listBegin()
+                .word("textdelta-chunk")
+                .listBegin()
+                .string(tokenId)
+                .binary(window)
+                .listEnd()
+                .listEnd();
+            final PreparedDelta prepared = takePreparedDelta(wcPath, oldFile);
+            final String validateMd5;
+            if (prepared != null) {
+              for (byte[] window : prepared.windows) {
+                windowWriter.write(window);
               }
+              validateMd5 = prepared.md5;
+            } else {
+              validateMd5 = sendDelta(getDeltaCache(context), oldFile, newFile, context.getDeltaCompression(), windowWriter);
+            }
+            if (!validateMd5.equals(md5)) {
+              throw new IllegalStateException("MD5 checksum mismatch: some shit happends.");
             }
           }
           writer
@@ -594,14 +867,90 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       }
     }
 
+    /**
+     * Send file delta from cache or generate it.
+     *
+     * @return MD5 of new file content.
+     */
+    @NotNull
+    private static String sendDelta(@Nullable DeltaCache cache, @Nullable VcsFile oldFile, @NotNull VcsFile newFile, @NotNull DeltaCompression compression, @NotNull WindowWriter windowWriter) throws IOException, SVNException {
+      if (cache == null) {
+        return generateDelta(oldFile, newFile, compression, windowWriter);
+      }
+      final String key = DeltaCache.key(oldFile == null ? null : oldFile.getContentHash(), newFile.getContentHash(), compression);
+      final DeltaCache.Entry cached = cache.get(key);
+      if (cached != null) {
+        for (byte[] window : cached.getWindows()) {
+          windowWriter.write(window);
+        }
+        return cached.getMd5();
+      }
+      final List<byte[]> windows = new ArrayList<>();
+      final long[] size = {0};
+      final String md5 = generateDelta(oldFile, newFile, compression, window -> {
+        windowWriter.write(window);
+        if (size[0] >= 0) {
+          size[0] += window.length;
+          if (size[0] <= cache.getMaxEntrySize()) {
+            windows.add(window);
+          } else {
+            // Too large for caching.
+            size[0] = -1;
+            windows.clear();
+          }
+        }
+      });
+      if (size[0] >= 0) {
+        cache.put(key, windows, md5);
+      }
+      return md5;
+    }
+
+    /**
+     * Generate file delta.
+     *
+     * @return MD5 of new file content.
+     */
+    @NotNull
+    private static String generateDelta(@Nullable VcsFile oldFile, @NotNull VcsFile newFile, @NotNull DeltaCompression compression, @NotNull WindowWriter windowWriter) throws IOException, SVNException {
+      final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
+      try (InputStream source = openStream(oldFile);
+           InputStream target = Compressibility.markable(newFile.openStream())) {
+        final DeltaCompression fileCompression = Compressibility.isCompressible(newFile, target) ? compression : DeltaCompression.None;
+        return deltaGenerator.sendDelta(newFile.getFileName(), source, 0, target, new ISVNDeltaConsumer() {
+          private boolean header = true;
+
+          @Override
+          public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+          }
+
+          @Override
+          public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+            try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+              fileCompression.writeWindow(stream, diffWindow, header);
+              header = false;
+              windowWriter.write(stream.toByteArray());
+              return null;
+            } catch (IOException e) {
+              throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR), e);
+            }
+          }
+
+          @Override
+          public void textDeltaEnd(String path) throws SVNException {
+          }
+        }, true);
+      }
+    }
+
     @NotNull
-    private InputStream openStream(@Nullable VcsFile file) throws IOException, SVNException {
+    private static InputStream openStream(@Nullable VcsFile file) throws IOException, SVNException {
       return file == null ? new ByteArrayInputStream(new byte[0]) : file.openStream();
     }
 
     @NotNull
-    private Depth getWcDepth(@NotNull String wcPath, @NotNull Depth parentWcDepth) {
-      final SetPathParams params = paths.get(wcPath);
+    private Depth getWcDepth(@Nullable ReportNode node, @NotNull Depth parentWcDepth) {
+      final SetPathParams params = getPathParams(node);
       if (params == null)
         return parentWcDepth.deepen();
 
@@ -609,16 +958,16 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     }
 
     private boolean getStartEmpty(@NotNull String wcPath) {
-      final SetPathParams params = paths.get(wcPath);
+      final SetPathParams params = getPathParams(getNode(wcPath));
       return params != null && params.startEmpty;
     }
 
     @Nullable
-    private VcsFile getPrevFile(@NotNull SessionContext context, @NotNull String wcPath, @Nullable VcsFile oldFile) throws IOException, SVNException {
-      if (deletedPaths.contains(wcPath))
+    private VcsFile getPrevFile(@NotNull SessionContext context, @NotNull String wcPath, @Nullable ReportNode node, @Nullable VcsFile oldFile) throws IOException, SVNException {
+      if (node != null && node.deleted)
         return null;
 
-      final SetPathParams pathParams = paths.get(wcPath);
+      final SetPathParams pathParams = getPathParams(node);
       if (pathParams == null)
         return oldFile;
 
@@ -662,7 +1011,8 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     }
 
     private void removeEntry(@NotNull SessionContext context, @NotNull String wcPath, int rev, @NotNull String parentTokenId) throws IOException, SVNException {
-      if (deletedPaths.contains(wcPath)) {
+      final ReportNode node = getNode(wcPath);
+      if (node != null && node.deleted) {
         return;
       }
       getWriter(context)
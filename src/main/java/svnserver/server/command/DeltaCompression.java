@@ -0,0 +1,58 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Delta window compression for sending to client.
+ *
+ * @author agent <agent@local>
+ */
+public enum DeltaCompression {
+  /**
+   * svndiff0: without compression.
+   */
+  None {
+    @Override
+    public void writeWindow(@NotNull OutputStream stream, @NotNull SVNDiffWindow window, boolean header) throws IOException {
+      window.writeTo(stream, header, false);
+    }
+  },
+  /**
+   * svndiff1: zlib compression.
+   */
+  Zlib {
+    @Override
+    public void writeWindow(@NotNull OutputStream stream, @NotNull SVNDiffWindow window, boolean header) throws IOException {
+      window.writeTo(stream, header, true);
+    }
+  },
+  /**
+   * svndiff2: LZ4 compression.
+   */
+  Lz4 {
+    @Override
+    public void writeWindow(@NotNull OutputStream stream, @NotNull SVNDiffWindow window, boolean header) throws IOException {
+      SvnDiff2.writeWindow(stream, window, header);
+    }
+  };
+
+  /**
+   * Write delta window.
+   *
+   * @param stream Output stream.
+   * @param window Delta window.
+   * @param header Write svndiff header (only for first window of file).
+   */
+  public abstract void writeWindow(@NotNull OutputStream stream, @NotNull SVNDiffWindow window, boolean header) throws IOException;
+}
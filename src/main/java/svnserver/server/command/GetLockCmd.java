@@ -12,6 +12,7 @@ import org.jetbrains.annotations.NotNull;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.locks.LockDesc;
+import svnserver.server.PrimaryConnection;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -44,6 +45,10 @@ public final class GetLockCmd extends BaseCmd<GetLockCmd.Params> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    if (PrimaryConnection.canForward(context)) {
+      forward(context, args);
+      return;
+    }
     final SvnServerWriter writer = context.getWriter();
     final String path = context.getRepositoryPath(args.path);
 
@@ -58,4 +63,17 @@ public final class GetLockCmd extends BaseCmd<GetLockCmd.Params> {
         .listEnd()
         .listEnd();
   }
+
+  private void forward(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    try (PrimaryConnection primary = PrimaryConnection.open(context)) {
+      primary.getWriter()
+          .listBegin()
+          .word("get-lock")
+          .listBegin()
+          .string(args.path)
+          .listEnd()
+          .listEnd();
+      primary.relayResponse(context.getWriter());
+    }
+  }
 }
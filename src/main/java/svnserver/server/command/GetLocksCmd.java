@@ -12,6 +12,7 @@ import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.Depth;
 import svnserver.repository.locks.LockDesc;
+import svnserver.server.PrimaryConnection;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -32,10 +33,13 @@ public final class GetLocksCmd extends BaseCmd<GetLocksCmd.Params> {
     @NotNull
     private final String path;
     @NotNull
+    private final String[] depthWord;
+    @NotNull
     private final Depth depth;
 
     public Params(@NotNull String path, @NotNull String[] depth) {
       this.path = path;
+      this.depthWord = depth;
       this.depth = depth.length == 0 ? Depth.Infinity : Depth.parse(depth[0]);
     }
   }
@@ -48,6 +52,10 @@ public final class GetLocksCmd extends BaseCmd<GetLocksCmd.Params> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    if (PrimaryConnection.canForward(context)) {
+      forward(context, args);
+      return;
+    }
     final String path = context.getRepositoryPath(args.path);
     final SvnServerWriter writer = context.getWriter();
     final Iterator<LockDesc> locks = context.getRepository().wrapLockRead((lockManager) -> lockManager.getLocks(context.getRepositoryPath(path), args.depth));
@@ -65,4 +73,24 @@ public final class GetLocksCmd extends BaseCmd<GetLocksCmd.Params> {
         .listEnd()
         .listEnd();
   }
+
+  private void forward(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    try (PrimaryConnection primary = PrimaryConnection.open(context)) {
+      final SvnServerWriter writer = primary.getWriter();
+      writer
+          .listBegin()
+          .word("get-locks")
+          .listBegin()
+          .string(args.path)
+          .listBegin();
+      for (String depth : args.depthWord) {
+        writer.word(depth);
+      }
+      writer
+          .listEnd()
+          .listEnd()
+          .listEnd();
+      primary.relayResponse(context.getWriter());
+    }
+  }
 }
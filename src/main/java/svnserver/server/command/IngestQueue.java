@@ -0,0 +1,156 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commit content ingestion queue.
+ * <p>
+ * Session thread reads commands from socket and puts file content processing (delta applying,
+ * hashing and blob insertion) to this queue. Tasks are executed in order by single worker at a time,
+ * so network reading doesn't stall on slow blob insertion. Queue size is bounded to limit memory usage.
+ * <p>
+ * Worker is started in shared thread pool on demand and returns thread to pool, when queue is empty.
+ *
+ * @author agent <agent@local>
+ */
+final class IngestQueue {
+  private static final int QUEUE_SIZE = 64;
+  private static final long POLL_TIMEOUT = 100;
+
+  @FunctionalInterface
+  interface Task {
+    void run() throws IOException, SVNException;
+  }
+
+  @NotNull
+  private final BlockingQueue<Task> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+  @NotNull
+  private final Executor executor;
+  @Nullable
+  private volatile Throwable error;
+  private boolean running = false;
+
+  IngestQueue(@NotNull Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Add task to queue. Blocks while queue is full.
+   *
+   * @throws SVNException Rethrow error of previous task.
+   */
+  void submit(@NotNull Task task) throws IOException, SVNException {
+    checkError();
+    try {
+      while (!queue.offer(task, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        checkError();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    synchronized (this) {
+      if (!running) {
+        running = true;
+        try {
+          executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+          running = false;
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Wait for all submitted tasks completion.
+   *
+   * @throws SVNException Rethrow task error.
+   */
+  void await() throws IOException, SVNException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    submit(latch::countDown);
+    try {
+      while (!latch.await(POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        checkError();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    checkError();
+  }
+
+  /**
+   * Skip all not executed tasks.
+   * <p>
+   * Next {@link #submit} and {@link #await} calls throws cancellation error.
+   */
+  void cancel() {
+    if (error == null) {
+      error = new SVNException(SVNErrorMessage.create(SVNErrorCode.CANCELLED, "Content ingestion cancelled"));
+    }
+  }
+
+  private void checkError() throws IOException, SVNException {
+    final Throwable e = error;
+    if (e == null) {
+      return;
+    }
+    if (e instanceof SVNException) {
+      throw (SVNException) e;
+    }
+    if (e instanceof IOException) {
+      throw (IOException) e;
+    }
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+    throw new IllegalStateException(e);
+  }
+
+  private void run() {
+    while (true) {
+      final Task task;
+      synchronized (this) {
+        task = queue.poll();
+        if (task == null) {
+          running = false;
+          return;
+        }
+      }
+      if (error != null) {
+        // Drain queue after error: submitter should not be blocked.
+        continue;
+      }
+      try {
+        task.run();
+      } catch (Throwable e) {
+        error = e;
+      }
+    }
+  }
+}
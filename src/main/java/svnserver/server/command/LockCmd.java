@@ -13,6 +13,7 @@ import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.locks.LockDesc;
 import svnserver.repository.locks.LockTarget;
+import svnserver.server.PrimaryConnection;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -54,6 +55,10 @@ public final class LockCmd extends BaseCmd<LockCmd.Params> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    if (PrimaryConnection.canForward(context)) {
+      forward(context, args);
+      return;
+    }
     final int rev = getRevisionOrLatest(args.rev, context);
     final String path = context.getRepositoryPath(args.path);
     final LockTarget lockTarget = new LockTarget(path, rev);
@@ -73,6 +78,32 @@ public final class LockCmd extends BaseCmd<LockCmd.Params> {
         .listEnd();
   }
 
+  private void forward(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    try (PrimaryConnection primary = PrimaryConnection.open(context)) {
+      primary.getWriter()
+          .listBegin()
+          .word("lock")
+          .listBegin()
+          .string(args.path)
+          .listBegin();
+      for (String comment : args.comment) {
+        primary.getWriter().string(comment);
+      }
+      primary.getWriter()
+          .listEnd()
+          .bool(args.stealLock)
+          .listBegin();
+      for (int rev : args.rev) {
+        primary.getWriter().number(rev);
+      }
+      primary.getWriter()
+          .listEnd()
+          .listEnd()
+          .listEnd();
+      primary.relayResponse(context.getWriter());
+    }
+  }
+
   @Override
   protected void permissionCheck(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
     context.checkWrite(context.getRepositoryPath(args.path));
@@ -12,6 +12,7 @@ import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.locks.LockDesc;
 import svnserver.repository.locks.LockTarget;
+import svnserver.server.PrimaryConnection;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -76,6 +77,10 @@ public final class LockManyCmd extends BaseCmd<LockManyCmd.Params> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    if (PrimaryConnection.canForward(context)) {
+      forward(context, args);
+      return;
+    }
     final SvnServerWriter writer = context.getWriter();
     final int latestRev = context.getRepository().getLatestRevision().getId();
     final String comment = args.comment.length == 0 ? null : args.comment[0];
@@ -107,6 +112,41 @@ public final class LockManyCmd extends BaseCmd<LockManyCmd.Params> {
         .listEnd();
   }
 
+  private void forward(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    try (PrimaryConnection primary = PrimaryConnection.open(context)) {
+      final SvnServerWriter writer = primary.getWriter();
+      writer
+          .listBegin()
+          .word("lock-many")
+          .listBegin()
+          .listBegin();
+      for (String comment : args.comment) {
+        writer.string(comment);
+      }
+      writer
+          .listEnd()
+          .bool(args.stealLock)
+          .listBegin();
+      for (PathRev pathRev : args.paths) {
+        writer
+            .listBegin()
+            .string(pathRev.path)
+            .listBegin();
+        for (int rev : pathRev.rev) {
+          writer.number(rev);
+        }
+        writer
+            .listEnd()
+            .listEnd();
+      }
+      writer
+          .listEnd()
+          .listEnd()
+          .listEnd();
+      primary.relayResponseList(context.getWriter());
+    }
+  }
+
   @Override
   protected void permissionCheck(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
     for (PathRev pathRev : args.paths) {
@@ -0,0 +1,279 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaReader;
+import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * svndiff2 format support (svndiff with LZ4 compressed sections).
+ * <p>
+ * SVNKit supports only svndiff0 and svndiff1, so received svndiff2 windows are converted to svndiff0 windows.
+ *
+ * @author agent <agent@local>
+ */
+final class SvnDiff2 {
+  @NotNull
+  private static final byte[] HEADER = {'S', 'V', 'N', 2};
+  @NotNull
+  private static final byte[] HEADER_SVNDIFF0 = {'S', 'V', 'N', 0};
+  private static final int VERSION = 2;
+  private static final int MAX_SECTION_SIZE = 16 * 1024 * 1024;
+
+  @NotNull
+  private static final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+  @NotNull
+  private static final LZ4SafeDecompressor decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+
+  private SvnDiff2() {
+  }
+
+  /**
+   * Write delta window in svndiff2 format.
+   *
+   * @param stream Output stream.
+   * @param window Delta window.
+   * @param header Write svndiff header (only for first window).
+   */
+  static void writeWindow(@NotNull OutputStream stream, @NotNull SVNDiffWindow window, boolean header) throws IOException {
+    final int instructionsLength = window.getInstructionsLength();
+    final int newDataLength = window.getNewDataLength();
+    // Window keeps instructions and new data sequentially, so both sections are taken as is.
+    final ByteBuffer data = ByteBuffer.allocate(instructionsLength + newDataLength);
+    if (data.capacity() > 0) {
+      window.clone(data);
+    }
+    final byte[] instructions = compress(data.array(), 0, instructionsLength);
+    final byte[] newData = compress(data.array(), instructionsLength, newDataLength);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(instructions.length + newData.length + 32);
+    if (header) {
+      out.write(HEADER, 0, HEADER.length);
+    }
+    writeInt(out, window.getSourceViewOffset());
+    writeInt(out, window.getSourceViewLength());
+    writeInt(out, window.getTargetViewLength());
+    writeInt(out, instructions.length);
+    writeInt(out, newData.length);
+    out.write(instructions, 0, instructions.length);
+    out.write(newData, 0, newData.length);
+    out.writeTo(stream);
+  }
+
+  /**
+   * Section format: original length, then LZ4 block (or original data, if it is not smaller).
+   */
+  @NotNull
+  private static byte[] compress(@NotNull byte[] data, int offset, int length) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(length + 8);
+    writeInt(out, length);
+    if (length > 0) {
+      final byte[] compressed = new byte[compressor.maxCompressedLength(length)];
+      final int compressedLength = compressor.compress(data, offset, length, compressed, 0, compressed.length);
+      if (compressedLength < length) {
+        out.write(compressed, 0, compressedLength);
+      } else {
+        out.write(data, offset, length);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  @NotNull
+  private static byte[] decompress(@NotNull byte[] data, int offset, int length) throws SVNException {
+    if (length == 0) {
+      return new byte[0];
+    }
+    final int end = offset + length;
+    int position = offset;
+    long originalLength = 0;
+    while (true) {
+      if (position >= end) {
+        throw corruptWindow("Invalid section length");
+      }
+      final int b = data[position++] & 0xFF;
+      originalLength = (originalLength << 7) | (b & 0x7F);
+      if (originalLength > MAX_SECTION_SIZE) {
+        throw corruptWindow("Section is too large");
+      }
+      if ((b & 0x80) == 0) {
+        break;
+      }
+    }
+    if (end - position == originalLength) {
+      return Arrays.copyOfRange(data, position, end);
+    }
+    final byte[] result = new byte[(int) originalLength];
+    try {
+      if (decompressor.decompress(data, position, end - position, result, 0, result.length) != result.length) {
+        throw corruptWindow("Decompression size mismatch");
+      }
+    } catch (LZ4Exception e) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.SVNDIFF_CORRUPT_WINDOW, "LZ4 decompression failed"), e);
+    }
+    return result;
+  }
+
+  private static void writeInt(@NotNull ByteArrayOutputStream stream, long value) {
+    int shift = 0;
+    while ((value >>> (shift + 7)) != 0) {
+      shift += 7;
+    }
+    for (; shift > 0; shift -= 7) {
+      stream.write((int) ((value >>> shift) & 0x7F) | 0x80);
+    }
+    stream.write((int) (value & 0x7F));
+  }
+
+  @NotNull
+  private static SVNException corruptWindow(@NotNull String message) {
+    return new SVNException(SVNErrorMessage.create(SVNErrorCode.SVNDIFF_CORRUPT_WINDOW, message));
+  }
+
+  /**
+   * Delta window header.
+   */
+  private static final class Window {
+    private final long sourceOffset;
+    private final long sourceLength;
+    private final long targetLength;
+    private final int instructionsLength;
+    private final int newDataLength;
+    private final int headerSize;
+
+    private Window(long sourceOffset, long sourceLength, long targetLength, int instructionsLength, int newDataLength, int headerSize) {
+      this.sourceOffset = sourceOffset;
+      this.sourceLength = sourceLength;
+      this.targetLength = targetLength;
+      this.instructionsLength = instructionsLength;
+      this.newDataLength = newDataLength;
+      this.headerSize = headerSize;
+    }
+
+    private int getSize() {
+      return headerSize + instructionsLength + newDataLength;
+    }
+
+    /**
+     * Parse window header.
+     *
+     * @return Window header or null, if header data is incomplete.
+     */
+    @Nullable
+    private static Window parse(@NotNull byte[] data, int offset, int limit) throws SVNException {
+      final long[] values = new long[5];
+      int position = offset;
+      for (int i = 0; i < values.length; ++i) {
+        long value = 0;
+        while (true) {
+          if (position >= limit) {
+            return null;
+          }
+          final int b = data[position++] & 0xFF;
+          value = (value << 7) | (b & 0x7F);
+          if (value < 0 || position - offset > 50) {
+            throw corruptWindow("Invalid window header");
+          }
+          if ((b & 0x80) == 0) {
+            break;
+          }
+        }
+        values[i] = value;
+      }
+      if (values[3] > MAX_SECTION_SIZE || values[4] > MAX_SECTION_SIZE) {
+        throw corruptWindow("Window section is too large");
+      }
+      return new Window(values[0], values[1], values[2], (int) values[3], (int) values[4], position - offset);
+    }
+  }
+
+  /**
+   * Delta reader with svndiff0, svndiff1 and svndiff2 support.
+   */
+  static final class Reader {
+    @NotNull
+    private final SVNDeltaReader reader = new SVNDeltaReader();
+    @NotNull
+    private byte[] buffer = new byte[0];
+    private int size = 0;
+    private boolean headerReceived = false;
+    private boolean svndiff2 = false;
+
+    void nextWindow(@NotNull byte[] data, int offset, int length, @NotNull String path, @NotNull ISVNDeltaConsumer consumer) throws SVNException {
+      if (headerReceived && !svndiff2) {
+        reader.nextWindow(data, offset, length, path, consumer);
+        return;
+      }
+      append(data, offset, length);
+      if (!headerReceived) {
+        if (size < HEADER.length) {
+          return;
+        }
+        if (buffer[0] != HEADER[0] || buffer[1] != HEADER[1] || buffer[2] != HEADER[2] || buffer[3] != VERSION) {
+          // Other formats are processed by SVNKit itself.
+          headerReceived = true;
+          reader.nextWindow(buffer, 0, size, path, consumer);
+          buffer = new byte[0];
+          size = 0;
+          return;
+        }
+        headerReceived = true;
+        svndiff2 = true;
+        reader.nextWindow(HEADER_SVNDIFF0, 0, HEADER_SVNDIFF0.length, path, consumer);
+        System.arraycopy(buffer, HEADER.length, buffer, 0, size - HEADER.length);
+        size -= HEADER.length;
+      }
+      int position = 0;
+      while (true) {
+        final Window window = Window.parse(buffer, position, size);
+        if (window == null || position + window.getSize() > size) {
+          break;
+        }
+        final int instructionsOffset = position + window.headerSize;
+        final byte[] instructions = decompress(buffer, instructionsOffset, window.instructionsLength);
+        final byte[] newData = decompress(buffer, instructionsOffset + window.instructionsLength, window.newDataLength);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(instructions.length + newData.length + 16);
+        writeInt(out, window.sourceOffset);
+        writeInt(out, window.sourceLength);
+        writeInt(out, window.targetLength);
+        writeInt(out, instructions.length);
+        writeInt(out, newData.length);
+        out.write(instructions, 0, instructions.length);
+        out.write(newData, 0, newData.length);
+        final byte[] svndiff0 = out.toByteArray();
+        reader.nextWindow(svndiff0, 0, svndiff0.length, path, consumer);
+        position += window.getSize();
+      }
+      System.arraycopy(buffer, position, buffer, 0, size - position);
+      size -= position;
+    }
+
+    private void append(@NotNull byte[] data, int offset, int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length * 2));
+      }
+      System.arraycopy(data, offset, buffer, size, length);
+      size += length;
+    }
+  }
+}
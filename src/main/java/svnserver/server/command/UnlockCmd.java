@@ -11,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.locks.UnlockTarget;
+import svnserver.server.PrimaryConnection;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -48,6 +49,10 @@ public final class UnlockCmd extends BaseCmd<UnlockCmd.Params> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    if (PrimaryConnection.canForward(context)) {
+      forward(context, args);
+      return;
+    }
     final String path = context.getRepositoryPath(args.path);
     final String lockToken = args.lockToken.length == 0 ? null : args.lockToken[0];
     context.getRepository().wrapLockWrite((lockManager) -> {
@@ -63,6 +68,26 @@ public final class UnlockCmd extends BaseCmd<UnlockCmd.Params> {
         .listEnd();
   }
 
+  private void forward(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    try (PrimaryConnection primary = PrimaryConnection.open(context)) {
+      primary.getWriter()
+          .listBegin()
+          .word("unlock")
+          .listBegin()
+          .string(args.path)
+          .listBegin();
+      for (String lockToken : args.lockToken) {
+        primary.getWriter().string(lockToken);
+      }
+      primary.getWriter()
+          .listEnd()
+          .bool(args.breakLock)
+          .listEnd()
+          .listEnd();
+      primary.relayResponse(context.getWriter());
+    }
+  }
+
   @Override
   protected void permissionCheck(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
     context.checkWrite(context.getRepositoryPath(args.path));
@@ -11,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.locks.UnlockTarget;
+import svnserver.server.PrimaryConnection;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -59,6 +60,10 @@ public final class UnlockManyCmd extends BaseCmd<UnlockManyCmd.Params> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    if (PrimaryConnection.canForward(context)) {
+      forward(context, args);
+      return;
+    }
     final SvnServerWriter writer = context.getWriter();
 
     final UnlockTarget[] targets = new UnlockTarget[args.paths.length];
@@ -93,6 +98,35 @@ public final class UnlockManyCmd extends BaseCmd<UnlockManyCmd.Params> {
         .listEnd();
   }
 
+  private void forward(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    try (PrimaryConnection primary = PrimaryConnection.open(context)) {
+      final SvnServerWriter writer = primary.getWriter();
+      writer
+          .listBegin()
+          .word("unlock-many")
+          .listBegin()
+          .bool(args.breakLock)
+          .listBegin();
+      for (PathToken pathToken : args.paths) {
+        writer
+            .listBegin()
+            .string(pathToken.path)
+            .listBegin();
+        for (String lockToken : pathToken.lockToken) {
+          writer.string(lockToken);
+        }
+        writer
+            .listEnd()
+            .listEnd();
+      }
+      writer
+          .listEnd()
+          .listEnd()
+          .listEnd();
+      primary.relayResponseList(context.getWriter());
+    }
+  }
+
   @Override
   protected void permissionCheck(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
     for (PathToken pathRev : args.paths) {
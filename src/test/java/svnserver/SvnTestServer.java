@@ -47,6 +47,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -55,6 +56,8 @@ import java.util.function.Function;
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class SvnTestServer implements SvnTester {
+  @NotNull
+  public static final String USER_NAME = "tester";
   @NotNull
   public static final String USER_NAME_NO_MAIL = "nomail";
   @NotNull
@@ -62,8 +65,6 @@ public final class SvnTestServer implements SvnTester {
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(SvnTestServer.class);
   @NotNull
-  private static final String USER_NAME = "tester";
-  @NotNull
   private static final String REAL_NAME = "Test User";
   @NotNull
   private static final String EMAIL = "foo@bar.org";
@@ -94,6 +95,7 @@ public final class SvnTestServer implements SvnTester {
                         @Nullable UserDBConfig userDBConfig,
                         @Nullable Function<File, RepositoryMappingConfig> mappingConfigCreator,
                         boolean anonymousRead,
+                        @NotNull Consumer<Config> configurator,
                         @NotNull SharedConfig... shared) throws Exception {
     SVNFileUtil.setSleepForTimestamp(false);
     this.repository = repository;
@@ -134,6 +136,7 @@ public final class SvnTestServer implements SvnTester {
 
     Collections.addAll(config.getShared(), shared);
     config.getShared().add(context -> context.add(LfsStorageFactory.class, new LfsMemoryStorage.Factory()));
+    configurator.accept(config);
 
     server = new SvnServer(tempDirectory, config);
     server.start();
@@ -197,12 +200,19 @@ public final class SvnTestServer implements SvnTester {
 
   @NotNull
   public static SvnTestServer createEmpty(@Nullable UserDBConfig userDBConfig, @Nullable Function<File, RepositoryMappingConfig> mappingConfigCreator, boolean anonymousRead, @NotNull SharedConfig... shared) throws Exception {
-    return new SvnTestServer(TestHelper.emptyRepository(), "master", "", false, userDBConfig, mappingConfigCreator, anonymousRead, shared);
+    return new SvnTestServer(TestHelper.emptyRepository(), "master", "", false, userDBConfig, mappingConfigCreator, anonymousRead, config -> {
+    }, shared);
+  }
+
+  @NotNull
+  public static SvnTestServer createEmpty(@Nullable UserDBConfig userDBConfig, @Nullable Function<File, RepositoryMappingConfig> mappingConfigCreator, boolean anonymousRead, @NotNull Consumer<Config> configurator) throws Exception {
+    return new SvnTestServer(TestHelper.emptyRepository(), "master", "", false, userDBConfig, mappingConfigCreator, anonymousRead, configurator);
   }
 
   @NotNull
   public static SvnTestServer createMasterRepository() throws Exception {
-    return new SvnTestServer(new FileRepository(TestHelper.findGitPath()), null, "master", true, null, null, true);
+    return new SvnTestServer(new FileRepository(TestHelper.findGitPath()), null, "master", true, null, null, true, config -> {
+    });
   }
 
   @NotNull
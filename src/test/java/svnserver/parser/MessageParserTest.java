@@ -0,0 +1,131 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.testng.internal.junit.ArrayAsserts;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for command arguments parsing.
+ *
+ * @author agent <agent@local>
+ */
+public class MessageParserTest {
+  public static final class Params {
+    @NotNull
+    private final String path;
+    private final int rev;
+    private final boolean flag;
+    @NotNull
+    private final int[] revs;
+
+    public Params(@NotNull String path, int rev, boolean flag, @NotNull int[] revs) {
+      this.path = path;
+      this.rev = rev;
+      this.flag = flag;
+      this.revs = revs;
+    }
+  }
+
+  public static final class Entry {
+    @NotNull
+    private final String name;
+    @NotNull
+    private final int[] rev;
+
+    public Entry(@NotNull String name, @NotNull int[] rev) {
+      this.name = name;
+      this.rev = rev;
+    }
+  }
+
+  public static final class Entries {
+    @NotNull
+    private final Entry[] entries;
+
+    public Entries(@NotNull Entry[] entries) {
+      this.entries = entries;
+    }
+  }
+
+  @Test
+  public void testObject() throws IOException {
+    final Params params = MessageParser.parse(Params.class, parser("( 3:abc 42 true ( 1 2 3 ) ) "));
+    Assert.assertEquals(params.path, "abc");
+    Assert.assertEquals(params.rev, 42);
+    Assert.assertTrue(params.flag);
+    ArrayAsserts.assertArrayEquals(new int[]{1, 2, 3}, params.revs);
+  }
+
+  @Test
+  public void testMissingOptional() throws IOException {
+    final SvnServerParser parser = parser("( 3:abc ) next ");
+    final Params params = MessageParser.parse(Params.class, parser);
+    Assert.assertEquals(params.path, "abc");
+    Assert.assertEquals(params.rev, 0);
+    Assert.assertFalse(params.flag);
+    ArrayAsserts.assertArrayEquals(new int[0], params.revs);
+    Assert.assertEquals(parser.readText(), "next");
+  }
+
+  @Test
+  public void testUnknownSkipped() throws IOException {
+    // Newer clients can send additional parameters.
+    final SvnServerParser parser = parser("( 3:abc 1 false ( ) extra ( 1:x ( ) ) ) next ");
+    final Params params = MessageParser.parse(Params.class, parser);
+    Assert.assertEquals(params.path, "abc");
+    Assert.assertEquals(params.rev, 1);
+    Assert.assertEquals(parser.readText(), "next");
+  }
+
+  @Test
+  public void testObjectArray() throws IOException {
+    final Entries entries = MessageParser.parse(Entries.class, parser("( ( ( 1:a ( 1 ) ) ( 1:b ( ) ) ) ) "));
+    Assert.assertEquals(entries.entries.length, 2);
+    Assert.assertEquals(entries.entries[0].name, "a");
+    ArrayAsserts.assertArrayEquals(new int[]{1}, entries.entries[0].rev);
+    Assert.assertEquals(entries.entries[1].name, "b");
+    ArrayAsserts.assertArrayEquals(new int[0], entries.entries[1].rev);
+  }
+
+  @Test
+  public void testParserReuse() throws IOException {
+    // Parser is created once per type and must not keep state between messages.
+    final SvnServerParser parser = parser("( 1:a 1 true ( 5 ) ) ( 1:b ) ( 1:c 3 ) ");
+    final Params first = MessageParser.parse(Params.class, parser);
+    final Params second = MessageParser.parse(Params.class, parser);
+    final Params third = MessageParser.parse(Params.class, parser);
+    Assert.assertEquals(first.path, "a");
+    ArrayAsserts.assertArrayEquals(new int[]{5}, first.revs);
+    Assert.assertEquals(second.path, "b");
+    Assert.assertFalse(second.flag);
+    ArrayAsserts.assertArrayEquals(new int[0], second.revs);
+    Assert.assertEquals(third.path, "c");
+    Assert.assertEquals(third.rev, 3);
+  }
+
+  @Test
+  public void testNullParser() throws IOException {
+    // Absent optional tuple is parsed as default values.
+    final Params params = MessageParser.parse(Params.class, null);
+    Assert.assertEquals(params.path, "");
+    Assert.assertEquals(params.rev, 0);
+    ArrayAsserts.assertArrayEquals(new int[0], params.revs);
+  }
+
+  @NotNull
+  private static SvnServerParser parser(@NotNull String data) {
+    return new SvnServerParser(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -69,6 +69,69 @@ public class SvnServerParserTest {
     }
   }
 
+  @Test
+  public void testReuseTokens() throws IOException {
+    try (InputStream stream = new ByteArrayInputStream("( success 42 ) ( success 42 ) 100500 0: ".getBytes(StandardCharsets.UTF_8))) {
+      final SvnServerParser parser = new SvnServerParser(stream, 10);
+      Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+      final SvnServerToken word = parser.readToken();
+      final SvnServerToken number = parser.readToken();
+      Assert.assertEquals(parser.readToken(), ListEndToken.instance);
+      Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+      Assert.assertSame(parser.readToken(), word);
+      Assert.assertSame(parser.readToken(), number);
+      Assert.assertEquals(parser.readToken(), ListEndToken.instance);
+      Assert.assertEquals(parser.readNumber(), 100500);
+      Assert.assertEquals(parser.readToken(), new StringToken(""));
+    }
+  }
+
+  @Test
+  public void testStringStream() throws IOException {
+    try (InputStream stream = new ByteArrayInputStream("( 26:abcdefghijklmnopqrstuvwxyz 5:hello ) ".getBytes(StandardCharsets.UTF_8))) {
+      final SvnServerParser parser = new SvnServerParser(stream, 10);
+      Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+      final ByteArrayOutputStream data = new ByteArrayOutputStream();
+      try (InputStream string = parser.readStringStream()) {
+        final byte[] buffer = new byte[7];
+        while (true) {
+          final int size = string.read(buffer);
+          if (size < 0) break;
+          data.write(buffer, 0, size);
+        }
+      }
+      Assert.assertEquals(new String(data.toByteArray(), StandardCharsets.UTF_8), "abcdefghijklmnopqrstuvwxyz");
+      // Unread data is skipped on close.
+      try (InputStream string = parser.readStringStream()) {
+        Assert.assertEquals(string.read(), 'h');
+      }
+      Assert.assertEquals(parser.readToken(), ListEndToken.instance);
+    }
+  }
+
+  @Test
+  public void testStringStreamTooLong() throws IOException {
+    try (InputStream stream = new ByteArrayInputStream("( 10485760:abc ) ".getBytes(StandardCharsets.UTF_8))) {
+      final SvnServerParser parser = new SvnServerParser(stream);
+      Assert.assertEquals(parser.readToken(), ListBeginToken.instance);
+      Assert.expectThrows(IOException.class, parser::readStringStream);
+    }
+  }
+
+  @Test
+  public void testStringLengthOverflow() throws IOException {
+    // 4294967299 overflows int as 3.
+    try (InputStream stream = new ByteArrayInputStream("4294967299:abc ".getBytes(StandardCharsets.UTF_8))) {
+      Assert.expectThrows(IOException.class, new SvnServerParser(stream)::readStringStream);
+    }
+    try (InputStream stream = new ByteArrayInputStream("4294967299:abc ".getBytes(StandardCharsets.UTF_8))) {
+      Assert.expectThrows(IOException.class, new SvnServerParser(stream)::readToken);
+    }
+    try (InputStream stream = new ByteArrayInputStream("2147483647 ".getBytes(StandardCharsets.UTF_8))) {
+      Assert.assertEquals(new SvnServerParser(stream).readNumber(), Integer.MAX_VALUE);
+    }
+  }
+
   @Test
   public void test2dString() throws IOException {
     try (InputStream stream = new ByteArrayInputStream("( ( 1:a ) ( 1:b ) )".getBytes(StandardCharsets.UTF_8))) {
@@ -133,6 +196,7 @@ public class SvnServerParserTest {
       writer.write(new StringToken(data));
       writer.write(new StringToken(data));
       writer.write(new WordToken("end"));
+      writer.flush();
       streamData = outputStream.toByteArray();
     }
     try (ByteArrayInputStream inputStream = new ByteArrayInputStream(streamData)) {
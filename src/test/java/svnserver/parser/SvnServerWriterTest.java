@@ -0,0 +1,123 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.parser.token.NumberToken;
+import svnserver.parser.token.WordToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for SvnServerWriter output buffering.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnServerWriterTest {
+  @Test
+  public void testBufferedUntilFlush() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(stream);
+    writer.listBegin().word("success").listBegin().number(42).listEnd().listEnd();
+    writer.listBegin().word("failure").listEnd();
+    Assert.assertEquals(stream.size(), 0);
+
+    writer.flush();
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), "( success ( 42 ) ) \n( failure ) \n");
+  }
+
+  @Test
+  public void testBufferOverflow() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(stream, 10);
+    writer.word("abc");
+    Assert.assertEquals(stream.size(), 0);
+    writer.word("success");
+    // Buffer is sent only when it can't hold new data.
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), "abc ");
+
+    writer.flush();
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), "abc success ");
+  }
+
+  @Test
+  public void testLargeData() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(stream, 16);
+    final byte[] data = new byte[100];
+    for (int i = 0; i < data.length; ++i) {
+      data[i] = (byte) ('a' + i % 26);
+    }
+    writer.word("x").binary(data);
+    // Pending data and large block are written in order without waiting for flush.
+    final String expected = "x 100:" + new String(data, StandardCharsets.US_ASCII);
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.US_ASCII), expected);
+
+    writer.flush();
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.US_ASCII), expected + " ");
+  }
+
+  @Test
+  public void testFlushBeforeRead() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final SvnServerWriter writer = new SvnServerWriter(stream);
+    final InputStream input = new FlushingInputStream(new ByteArrayInputStream("( done ) ".getBytes(StandardCharsets.UTF_8)), writer);
+    final SvnServerParser parser = new SvnServerParser(input);
+
+    writer.listBegin().word("success").listEnd();
+    Assert.assertEquals(stream.size(), 0);
+
+    // Response must be sent before server waits for client data.
+    parser.readToken();
+    Assert.assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), "( success ) \n");
+  }
+
+  @Test
+  public void testPreEncodedWords() throws IOException {
+    // Pre-encoded and regular words must be written same as by token.
+    for (String word : new String[]{"success", "failure", "open-file", "close-file", "add-dir", "textdelta-chunk", "svndiff1", "custom-word", "x"}) {
+      final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      WordToken.write(expected, word);
+      Assert.assertEquals(write(writer -> writer.word(word)), new String(expected.toByteArray(), StandardCharsets.US_ASCII));
+    }
+    Assert.assertEquals(write(writer -> writer.bool(true).bool(false)), "true false ");
+    Assert.assertEquals(write(writer -> writer.word('x')), "x ");
+  }
+
+  @Test
+  public void testNumbers() throws IOException {
+    for (long number : new long[]{0, 1, 9, 10, 42, -1, -10, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE}) {
+      final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      NumberToken.write(expected, number);
+      Assert.assertEquals(write(writer -> writer.number(number)), new String(expected.toByteArray(), StandardCharsets.US_ASCII));
+    }
+    // String length prefix uses same encoding.
+    Assert.assertEquals(write(writer -> writer.string("").string("abc")), "0: 3:abc ");
+  }
+
+  @FunctionalInterface
+  private interface WriterAction {
+    void write(@NotNull SvnServerWriter writer) throws IOException;
+  }
+
+  @NotNull
+  private static String write(@NotNull WriterAction action) throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    // Small buffer checks encoded data split between buffer flushes.
+    final SvnServerWriter writer = new SvnServerWriter(stream, 3);
+    action.write(writer);
+    writer.flush();
+    return new String(stream.toByteArray(), StandardCharsets.US_ASCII);
+  }
+}
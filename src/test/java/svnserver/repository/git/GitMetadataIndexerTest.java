@@ -0,0 +1,100 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.HashHelper;
+import svnserver.StringHelper;
+import svnserver.SvnTestServer;
+import svnserver.config.AclConfig;
+import svnserver.context.LocalContext;
+import svnserver.repository.VcsAccess;
+import svnserver.repository.git.filter.GitFilter;
+import svnserver.repository.git.filter.GitFilterHelper;
+import svnserver.repository.git.push.GitPushEmbedded;
+import svnserver.repository.locks.PersistentLockFactory;
+import svnserver.repository.mapping.RepositoryListMapping;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test for background file metadata computation.
+ *
+ * @author agent <agent@local>
+ */
+public class GitMetadataIndexerTest {
+  private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+  /**
+   * MD5 of file from new revision should be cached without client request.
+   */
+  @Test
+  public void md5CachedAfterIndexing() throws Exception {
+    final AtomicReference<Repository> git = new AtomicReference<>();
+    final AtomicReference<GitRepository> repository = new AtomicReference<>();
+    try (SvnTestServer server = SvnTestServer.createEmpty(null, dir -> (context, canUseParallelIndexing) -> {
+      final LocalContext local = new LocalContext(context, "test");
+      local.add(VcsAccess.class, new AclConfig(true).create(local));
+      git.set(GitCreateMode.EXAMPLE.createRepository(new File(dir, "test"), "master"));
+      repository.set(new GitRepository(local, git.get(), new GitPushEmbedded(local, "", "", ""), "master", true, new PersistentLockFactory(local)));
+      return new RepositoryListMapping(Collections.singletonMap("test", repository.get()));
+    }, true)) {
+      final byte[] content = "Metadata of this file is computed in background\n".getBytes(StandardCharsets.UTF_8);
+      commit(git.get(), "metadata.txt", content);
+      repository.get().updateRevisions();
+
+      final GitFile file = repository.get().getLatestRevision().getFile("/metadata.txt");
+      Assert.assertNotNull(file);
+      final GitFilter filter = file.getFilter();
+      Assert.assertNotNull(filter);
+      Assert.assertTrue(filter.isMetadataCached());
+      final GitObject<ObjectId> objectId = file.getObjectId();
+      Assert.assertNotNull(objectId);
+
+      // File metadata is not requested: cache is filled by background indexer only.
+      final Map<String, String> cacheMd5 = GitFilterHelper.getCacheMd5(filter, server.getContext().getCacheDB());
+      final long deadline = System.currentTimeMillis() + TIMEOUT;
+      while (!cacheMd5.containsKey(objectId.getObject().name())) {
+        Assert.assertTrue(System.currentTimeMillis() < deadline, "File metadata is not computed in time");
+        Thread.sleep(50);
+      }
+      Assert.assertEquals(cacheMd5.get(objectId.getObject().name()), StringHelper.toHex(HashHelper.md5().digest(content)));
+    }
+  }
+
+  private static void commit(@NotNull Repository repository, @NotNull String fileName, @NotNull byte[] content) throws Exception {
+    final ObjectId head = repository.resolve(Constants.R_HEADS + "master");
+    final ObjectId commitId;
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      final TreeFormatter tree = new TreeFormatter();
+      tree.append(fileName, FileMode.REGULAR_FILE, inserter.insert(Constants.OBJ_BLOB, content));
+
+      final CommitBuilder commit = new CommitBuilder();
+      final PersonIdent ident = new PersonIdent("Test User", "foo@bar.org");
+      commit.setAuthor(ident);
+      commit.setCommitter(ident);
+      commit.setMessage("Add " + fileName);
+      commit.setParentId(head);
+      commit.setTreeId(inserter.insert(tree));
+      commitId = inserter.insert(commit);
+      inserter.flush();
+    }
+    final RefUpdate refUpdate = repository.updateRef(Constants.R_HEADS + "master");
+    refUpdate.setExpectedOldObjectId(head);
+    refUpdate.setNewObjectId(commitId);
+    Assert.assertEquals(refUpdate.update(), RefUpdate.Result.FAST_FORWARD);
+  }
+}
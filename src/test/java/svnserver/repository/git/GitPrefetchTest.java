@@ -0,0 +1,100 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.internal.storage.file.GC;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.internal.storage.file.PackFile;
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Blob prefetch in pack order tests.
+ *
+ * @author agent <agent@local>
+ */
+public class GitPrefetchTest {
+  @Test
+  public void packOrder() throws Exception {
+    final File tempDir = TestHelper.createTempDir("git-as-svn");
+    try (Repository repository = GitCreateMode.EMPTY.createRepository(new File(tempDir, "repo.git"), "master")) {
+      final List<ObjectId> packed = new ArrayList<>();
+      try (ObjectInserter inserter = repository.newObjectInserter()) {
+        final TreeFormatter tree = new TreeFormatter();
+        for (int i = 0; i < 20; ++i) {
+          final String name = String.format("file%02d.txt", i);
+          final ObjectId blob = inserter.insert(Constants.OBJ_BLOB, ("Content of " + name + "\n").getBytes(StandardCharsets.UTF_8));
+          tree.append(name, FileMode.REGULAR_FILE, blob);
+          packed.add(blob);
+        }
+        final CommitBuilder commit = new CommitBuilder();
+        final PersonIdent ident = new PersonIdent("test", "test@example.com");
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage("Initial commit");
+        commit.setTreeId(inserter.insert(tree));
+        final ObjectId commitId = inserter.insert(commit);
+        inserter.flush();
+
+        final RefUpdate refUpdate = repository.updateRef(Constants.R_HEADS + "master");
+        refUpdate.setNewObjectId(commitId);
+        Assert.assertEquals(refUpdate.update(), RefUpdate.Result.NEW);
+      }
+      new GC((FileRepository) repository).gc();
+
+      final ObjectId loose;
+      try (ObjectInserter inserter = repository.newObjectInserter()) {
+        loose = inserter.insert(Constants.OBJ_BLOB, "Loose object\n".getBytes(StandardCharsets.UTF_8));
+        inserter.flush();
+      }
+
+      // Path order differs from pack order.
+      final List<ObjectId> objects = new ArrayList<>();
+      objects.add(loose);
+      objects.addAll(packed);
+      objects.add(packed.get(0));
+      Collections.shuffle(objects, new Random(0));
+
+      final List<ObjectId> sorted = GitPrefetch.sortByPackOrder(repository, objects);
+      Assert.assertEquals(new HashSet<>(sorted), new HashSet<>(objects));
+      Assert.assertEquals(sorted.size(), packed.size() + 1);
+      Assert.assertEquals(sorted.get(sorted.size() - 1), loose);
+
+      long prevOffset = -1;
+      for (ObjectId objectId : sorted.subList(0, packed.size())) {
+        final long offset = getOffset(repository, objectId);
+        Assert.assertTrue(offset > prevOffset, "Object " + objectId.name() + " is out of pack order");
+        prevOffset = offset;
+      }
+
+      GitPrefetch.prefetch(repository, objects);
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  private static long getOffset(@NotNull Repository repository, @NotNull ObjectId objectId) throws IOException {
+    for (PackFile pack : ((ObjectDirectory) repository.getObjectDatabase()).getPacks()) {
+      final long offset = pack.getIndex().findOffset(objectId);
+      if (offset >= 0) {
+        return offset;
+      }
+    }
+    Assert.fail("Object " + objectId.name() + " not found in pack files");
+    return -1;
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestServer;
+import svnserver.config.AclConfig;
+import svnserver.context.LocalContext;
+import svnserver.repository.VcsAccess;
+import svnserver.repository.VcsRepository;
+import svnserver.repository.git.push.GitPushEmbedded;
+import svnserver.repository.locks.PersistentLockFactory;
+import svnserver.repository.mapping.RepositoryListMapping;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for background revision update by reference changes.
+ *
+ * @author agent <agent@local>
+ */
+public class GitRefWatcherTest {
+  private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+  /**
+   * Commit pushed directly into Git repository should be visible without revision update on client connect.
+   */
+  @Test
+  public void updateOnRefChange() throws Exception {
+    final Map<String, Repository> gitRepositories = new HashMap<>();
+    try (SvnTestServer server = SvnTestServer.createEmpty(null, dir -> (context, canUseParallelIndexing) -> {
+      final Map<String, VcsRepository> repositories = new HashMap<>();
+      for (String name : new String[]{"first", "second"}) {
+        final LocalContext local = new LocalContext(context, name);
+        local.add(VcsAccess.class, new AclConfig(true).create(local));
+        final Repository git = GitCreateMode.EXAMPLE.createRepository(new File(dir, name), "master");
+        final GitRepository repository = new GitRepository(local, git, new GitPushEmbedded(local, "", "", ""), "master", true, new PersistentLockFactory(local));
+        // Polling interval is large enough to check filesystem events.
+        local.add(GitRefWatcher.class, new GitRefWatcher(repository, TimeUnit.HOURS.toMillis(1)));
+        repositories.put(name, repository);
+        gitRepositories.put(name, git);
+      }
+      return new RepositoryListMapping(repositories);
+    }, true)) {
+      final SVNRepository first = SvnTestServer.openSvnRepository(server.getUrl().appendPath("first", false), SvnTestServer.USER_NAME_NO_MAIL, SvnTestServer.PASSWORD);
+      final SVNRepository second = SvnTestServer.openSvnRepository(server.getUrl().appendPath("second", false), SvnTestServer.USER_NAME_NO_MAIL, SvnTestServer.PASSWORD);
+      final long firstRevision = first.getLatestRevision();
+      final long secondRevision = second.getLatestRevision();
+
+      commit(gitRepositories.get("first"), "first.txt");
+      waitRevision(first, firstRevision + 1);
+      Assert.assertEquals(second.getLatestRevision(), secondRevision);
+
+      commit(gitRepositories.get("second"), "second.txt");
+      waitRevision(second, secondRevision + 1);
+      Assert.assertEquals(first.getLatestRevision(), firstRevision + 1);
+    }
+  }
+
+  private static void waitRevision(@NotNull SVNRepository repository, long revision) throws SVNException, InterruptedException {
+    final long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (repository.getLatestRevision() < revision) {
+      Assert.assertTrue(System.currentTimeMillis() < deadline, "Revision " + revision + " is not loaded in time");
+      Thread.sleep(50);
+    }
+    Assert.assertEquals(repository.getLatestRevision(), revision);
+  }
+
+  private static void commit(@NotNull Repository repository, @NotNull String fileName) throws Exception {
+    final ObjectId head = repository.resolve(Constants.R_HEADS + "master");
+    final ObjectId commitId;
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      final TreeFormatter tree = new TreeFormatter();
+      tree.append(fileName, FileMode.REGULAR_FILE, inserter.insert(Constants.OBJ_BLOB, fileName.getBytes(StandardCharsets.UTF_8)));
+
+      final CommitBuilder commit = new CommitBuilder();
+      final PersonIdent ident = new PersonIdent("Test User", "foo@bar.org");
+      commit.setAuthor(ident);
+      commit.setCommitter(ident);
+      commit.setMessage("Add " + fileName);
+      commit.setParentId(head);
+      commit.setTreeId(inserter.insert(tree));
+      commitId = inserter.insert(commit);
+      inserter.flush();
+    }
+    final RefUpdate refUpdate = repository.updateRef(Constants.R_HEADS + "master");
+    refUpdate.setExpectedOldObjectId(head);
+    refUpdate.setNewObjectId(commitId);
+    Assert.assertEquals(refUpdate.update(), RefUpdate.Result.FAST_FORWARD);
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.mapping;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Consistent hash ring test.
+ *
+ * @author agent <agent@local>
+ */
+public class ConsistentHashTest {
+  private static final int KEYS = 1000;
+
+  @Test
+  public void testEmpty() {
+    Assert.assertNull(new ConsistentHash<String>(Collections.emptyList(), 128).get("foo"));
+  }
+
+  @Test
+  public void testDistribution() {
+    final ConsistentHash<String> hash = new ConsistentHash<>(Arrays.asList("node1", "node2", "node3"), 128);
+    final Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < KEYS; ++i) {
+      counts.merge(hash.get("repo" + i), 1, Integer::sum);
+    }
+    Assert.assertEquals(counts.size(), 3);
+    for (int count : counts.values()) {
+      Assert.assertTrue(count > KEYS / 6, counts.toString());
+    }
+  }
+
+  @Test
+  public void testNodeAdd() {
+    final ConsistentHash<String> before = new ConsistentHash<>(Arrays.asList("node1", "node2", "node3"), 128);
+    final ConsistentHash<String> after = new ConsistentHash<>(Arrays.asList("node1", "node2", "node3", "node4"), 128);
+    for (int i = 0; i < KEYS; ++i) {
+      final String key = "repo" + i;
+      final String node = after.get(key);
+      if (!"node4".equals(node)) {
+        Assert.assertEquals(node, before.get(key), key);
+      }
+    }
+  }
+
+  @Test
+  public void testProjectName() {
+    Assert.assertEquals(RepositoryPlacement.getProjectName("/group/project/trunk"), "group/project");
+    Assert.assertEquals(RepositoryPlacement.getProjectName("group/project"), "group/project");
+    Assert.assertNull(RepositoryPlacement.getProjectName("/group"));
+  }
+
+  @Test
+  public void testProjectNames() {
+    Assert.assertEquals(RepositoryPlacement.getProjectNames("/group/subgroup/project/trunk"), Arrays.asList("group/subgroup/project/trunk", "group/subgroup/project", "group/subgroup"));
+    Assert.assertEquals(RepositoryPlacement.getProjectNames("group/project"), Collections.singletonList("group/project"));
+    Assert.assertEquals(RepositoryPlacement.getProjectNames("/group"), Collections.emptyList());
+  }
+}
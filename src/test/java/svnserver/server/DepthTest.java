@@ -107,6 +107,59 @@ public final class DepthTest {
     }
   }
 
+  /**
+   * Deleted and reported paths with same parent directory.
+   */
+  @Test(dataProvider = "all", dataProviderClass = SvnTesterDataProvider.class)
+  public void deletedAndReportedSibling(@NotNull SvnTesterFactory factory) throws Exception {
+    try (SvnTester server = create(factory)) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      check(server, "", SVNDepth.INFINITY, reporter -> {
+        reporter.setPath("", null, revision, SVNDepth.INFINITY, false);
+        reporter.deletePath("a/b/e");
+        reporter.setPath("a/b/c", null, revision, SVNDepth.INFINITY, true);
+        reporter.finishReport();
+      }, " - open-root: r0\n" +
+          "/ - change-dir-prop: svn:entry:committed-date\n" +
+          "/ - change-dir-prop: svn:entry:committed-rev\n" +
+          "/ - change-dir-prop: svn:entry:last-author\n" +
+          "/ - change-dir-prop: svn:entry:uuid\n" +
+          "a - change-dir-prop: svn:entry:committed-date\n" +
+          "a - change-dir-prop: svn:entry:committed-rev\n" +
+          "a - change-dir-prop: svn:entry:last-author\n" +
+          "a - change-dir-prop: svn:entry:uuid\n" +
+          "a - open-dir: r0\n" +
+          "a/b - change-dir-prop: svn:entry:committed-date\n" +
+          "a/b - change-dir-prop: svn:entry:committed-rev\n" +
+          "a/b - change-dir-prop: svn:entry:last-author\n" +
+          "a/b - change-dir-prop: svn:entry:uuid\n" +
+          "a/b - open-dir: r0\n" +
+          "a/b/c - change-dir-prop: svn:entry:committed-date\n" +
+          "a/b/c - change-dir-prop: svn:entry:committed-rev\n" +
+          "a/b/c - change-dir-prop: svn:entry:last-author\n" +
+          "a/b/c - change-dir-prop: svn:entry:uuid\n" +
+          "a/b/c - open-dir: r0\n" +
+          "a/b/c/d - add-file\n" +
+          "a/b/c/d - apply-text-delta: null\n" +
+          "a/b/c/d - change-file-prop: svn:entry:committed-date\n" +
+          "a/b/c/d - change-file-prop: svn:entry:committed-rev\n" +
+          "a/b/c/d - change-file-prop: svn:entry:last-author\n" +
+          "a/b/c/d - change-file-prop: svn:entry:uuid\n" +
+          "a/b/c/d - close-file: e08b5cff98d6e3f8a892fc999622d441\n" +
+          "a/b/c/d - delta-chunk\n" +
+          "a/b/c/d - delta-end\n" +
+          "a/b/e - add-file\n" +
+          "a/b/e - apply-text-delta: null\n" +
+          "a/b/e - change-file-prop: svn:entry:committed-date\n" +
+          "a/b/e - change-file-prop: svn:entry:committed-rev\n" +
+          "a/b/e - change-file-prop: svn:entry:last-author\n" +
+          "a/b/e - change-file-prop: svn:entry:uuid\n" +
+          "a/b/e - close-file: babc2f91dac8ef35815e635d89196696\n" +
+          "a/b/e - delta-chunk\n" +
+          "a/b/e - delta-end\n");
+    }
+  }
+
   @Test(dataProvider = "all", dataProviderClass = SvnTesterDataProvider.class)
   public void empty(@NotNull SvnTesterFactory factory) throws Exception {
     try (SvnTester server = create(factory)) {
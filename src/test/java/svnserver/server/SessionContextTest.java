@@ -0,0 +1,60 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.config.Config;
+import svnserver.server.command.DeltaCompression;
+
+/**
+ * Tests for delta compression selection.
+ *
+ * @author agent <agent@local>
+ */
+public class SessionContextTest {
+  private static final long MB = 1024 * 1024;
+
+  @Test
+  public void staticCompression() {
+    final Config config = new Config();
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, -1), DeltaCompression.Zlib);
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, false, true, -1), DeltaCompression.None);
+
+    config.setLz4Compression(true);
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, -1), DeltaCompression.Lz4);
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, false, -1), DeltaCompression.Zlib);
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, false, false, -1), DeltaCompression.None);
+    // Throughput is ignored without adaptive compression.
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, 1024 * MB), DeltaCompression.Lz4);
+  }
+
+  @Test
+  public void adaptiveCompression() {
+    final Config config = new Config();
+    config.setAdaptiveCompression(true);
+    // Unknown throughput.
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, -1), DeltaCompression.Zlib);
+    // Slow link.
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, 10 * MB), DeltaCompression.Zlib);
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, false, true, 10 * MB), DeltaCompression.None);
+    // Fast link.
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, 100 * MB), DeltaCompression.Lz4);
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, false, 100 * MB), DeltaCompression.None);
+    // Very fast link.
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, 1024 * MB), DeltaCompression.None);
+  }
+
+  @Test
+  public void adaptiveOverridesLz4() {
+    final Config config = new Config();
+    config.setLz4Compression(true);
+    config.setAdaptiveCompression(true);
+    Assert.assertEquals(SessionContext.getDeltaCompression(config, true, true, 10 * MB), DeltaCompression.Zlib);
+  }
+}
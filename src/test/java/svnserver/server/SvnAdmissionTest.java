@@ -0,0 +1,153 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNURL;
+import svnserver.SvnTestServer;
+import svnserver.config.Config;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+
+import java.net.Socket;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Admission control: session thread pool limits and repository request limit.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnAdmissionTest {
+  @NotNull
+  private static SvnTestServer createServer(@NotNull Consumer<Config> configurator) throws Exception {
+    return SvnTestServer.createEmpty(null, null, true, configurator);
+  }
+
+  /**
+   * Connect without reading greeting: session can be queued or rejected.
+   */
+  @NotNull
+  private static Socket connect(@NotNull SVNURL url) throws Exception {
+    final Socket socket = new Socket(url.getHost(), url.getPort());
+    socket.setSoTimeout(SvnTestSession.TIMEOUT);
+    return socket;
+  }
+
+  @NotNull
+  private static List<SvnServerToken> readItem(@NotNull Socket socket) throws Exception {
+    return new SvnServerParser(socket.getInputStream()).readItem();
+  }
+
+  /**
+   * Long command: worker thread starts command processing, but waits for rest of path.
+   */
+  @NotNull
+  private static String longPath() {
+    final StringBuilder path = new StringBuilder();
+    while (path.length() <= CommandBuffer.MAX_SIZE) {
+      path.append("long-path-");
+    }
+    return path.toString();
+  }
+
+  /**
+   * Connection is refused, when all worker threads are busy and queue is full.
+   */
+  @Test
+  public void queueFull() throws Exception {
+    try (SvnTestServer server = createServer(config -> {
+      config.setMaxThreads(1);
+      config.setThreadQueueSize(1);
+    });
+         // Session without client information holds single worker thread.
+         SvnTestSession active = new SvnTestSession(server.getUrl());
+         Socket queued = connect(server.getUrl())) {
+      try (Socket rejected = connect(server.getUrl())) {
+        final List<SvnServerToken> error = readItem(rejected);
+        Assert.assertTrue(error.toString().contains("Server busy"), error.toString());
+        Assert.assertEquals(rejected.getInputStream().read(), -1);
+      }
+      active.close();
+      // Queued session is served after worker thread is released.
+      SvnTestSession.checkSuccess(readItem(queued));
+    }
+  }
+
+  /**
+   * Command is rejected, when repository request limit is reached. Session itself is kept.
+   */
+  @Test
+  public void repositoryRequestLimit() throws Exception {
+    try (SvnTestServer server = createServer(config -> {
+      config.setMaxThreads(2);
+      config.setThreadQueueSize(0);
+      config.setRepositoryRequestLimit(1);
+    });
+         SvnTestSession slow = new SvnTestSession(server.getUrl()).open();
+         SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = session.getLatestRevision();
+      final String path = longPath();
+      slow.sendRaw("( check-path ( " + (path.length() * 2) + ":" + path);
+      // Wait while worker thread starts command.
+      Thread.sleep(200);
+
+      session.sendRaw("( get-latest-rev ( ) ) ");
+      final String error = session.readError();
+      Assert.assertTrue(error.contains("too many concurrent requests"), error);
+
+      slow.sendRaw(path + " ( ) ) ) ");
+      SvnTestSession.checkSuccess(slow.getParser().readItem());
+      final List<?> kind = slow.getParser().readItem();
+      Assert.assertTrue(kind.toString().contains("none"), kind.toString());
+
+      Assert.assertEquals(session.getLatestRevision(), revision);
+    }
+  }
+
+  /**
+   * Request permit is released, when command fails.
+   */
+  @Test
+  public void repositoryRequestLimitFailedCommand() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setRepositoryRequestLimit(1));
+         SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = session.getLatestRevision();
+      for (int i = 0; i < 3; ++i) {
+        session.sendRaw("( check-path ( 0: ( 100 ) ) ) ");
+        // Authentication request.
+        SvnTestSession.checkSuccess(session.getParser().readItem());
+        final String error = session.readError();
+        Assert.assertTrue(error.contains("No such revision"), error);
+      }
+      Assert.assertEquals(session.getLatestRevision(), revision);
+    }
+  }
+
+  /**
+   * Request permit is released, when client disconnects during command.
+   */
+  @Test
+  public void repositoryRequestLimitDisconnect() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setRepositoryRequestLimit(1))) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      try (SvnTestSession slow = new SvnTestSession(server.getUrl()).open()) {
+        final String path = longPath();
+        slow.sendRaw("( check-path ( " + (path.length() * 2) + ":" + path);
+        Thread.sleep(200);
+      }
+      // Wait while worker thread notices disconnect.
+      Thread.sleep(200);
+      try (SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+        Assert.assertEquals(session.getLatestRevision(), revision);
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.eclipse.jgit.lib.Repository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.*;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestServer;
+import svnserver.TestHelper;
+import svnserver.auth.User;
+import svnserver.context.LocalContext;
+import svnserver.replay.ReportSVNEditor;
+import svnserver.repository.VcsAccess;
+import svnserver.repository.git.GitRepository;
+import svnserver.repository.git.push.GitPushEmbedded;
+import svnserver.repository.locks.PersistentLockFactory;
+import svnserver.repository.mapping.RepositoryListMapping;
+
+import java.io.File;
+import java.util.Collections;
+
+import static svnserver.SvnTestHelper.sendDeltaAndClose;
+
+/**
+ * Checkout editor stream cache must not bypass access control.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnCheckoutCacheTest {
+  @Test
+  public void accessChangedBetweenCheckouts() throws Exception {
+    final File cacheDir = TestHelper.createTempDir("git-as-svn-checkout");
+    final Repository git = TestHelper.emptyRepository();
+    final PathAccess access = new PathAccess();
+    try (SvnTestServer server = SvnTestServer.createEmpty(null, dir -> (context, canUseParallelIndexing) -> {
+      final LocalContext local = new LocalContext(context, "test");
+      local.add(VcsAccess.class, access);
+      return new RepositoryListMapping(Collections.singletonMap("", new GitRepository(
+          local,
+          git,
+          new GitPushEmbedded(local, "", "", ""),
+          "master",
+          true,
+          new PersistentLockFactory(local)
+      )));
+    }, false, config -> config.setCheckoutCachePath(cacheDir.getAbsolutePath()))) {
+      final SVNRepository repo = server.openSvnRepository();
+      final ISVNEditor editor = repo.getCommitEditor("Initial state", null, false, null);
+      editor.openRoot(-1);
+      editor.addDir("/a", null, -1);
+      editor.addFile("/a/file.txt", null, -1);
+      sendDeltaAndClose(editor, "/a/file.txt", null, "Public content\n");
+      editor.closeDir();
+      editor.addDir("/b", null, -1);
+      editor.addFile("/b/secret.txt", null, -1);
+      sendDeltaAndClose(editor, "/b/secret.txt", null, "Secret content\n");
+      editor.closeDir();
+      editor.closeDir();
+      editor.closeEdit();
+
+      // Recorded and replayed for user with access to whole repository.
+      final String expected = checkout(server.openSvnRepository());
+      Assert.assertTrue(expected.contains("b/secret.txt - add-file"), expected);
+      Assert.assertEquals(spoolFiles(cacheDir), 1);
+      Assert.assertEquals(checkout(server.openSvnRepository()), expected);
+      Assert.assertEquals(spoolFiles(cacheDir), 1);
+
+      // Access restricted after recording.
+      access.readable = "/a";
+      Assert.expectThrows(SVNException.class, () -> checkout(server.openSvnRepository()));
+
+      final SVNURL url = server.getUrl().appendPath("a", false);
+      final String restricted = checkout(SvnTestServer.openSvnRepository(url, SvnTestServer.USER_NAME, SvnTestServer.PASSWORD));
+      Assert.assertTrue(restricted.contains("file.txt - add-file"), restricted);
+      Assert.assertFalse(restricted.contains("secret"), restricted);
+      // Stream of user with restricted access is not recorded.
+      Assert.assertEquals(spoolFiles(cacheDir), 1);
+
+      // Access restored.
+      access.readable = "";
+      Assert.assertEquals(checkout(server.openSvnRepository()), expected);
+      Assert.assertEquals(spoolFiles(cacheDir), 1);
+    } finally {
+      TestHelper.deleteDirectory(cacheDir);
+    }
+  }
+
+  @NotNull
+  private static String checkout(@NotNull SVNRepository repo) throws SVNException {
+    final long revision = repo.getLatestRevision();
+    final ReportSVNEditor editor = new ReportSVNEditor();
+    repo.update(revision, null, SVNDepth.INFINITY, false, reporter -> {
+      reporter.setPath("", null, revision, SVNDepth.INFINITY, true);
+      reporter.finishReport();
+    }, editor);
+    return editor.toString();
+  }
+
+  private static int spoolFiles(@NotNull File cacheDir) {
+    final File[] files = cacheDir.listFiles((dir, name) -> name.endsWith(".editor"));
+    Assert.assertNotNull(files);
+    return files.length;
+  }
+
+  /**
+   * Access with read restriction, which can be changed at runtime.
+   */
+  private static final class PathAccess implements VcsAccess {
+    // Readable path (empty string - whole repository).
+    @NotNull
+    private volatile String readable = "";
+
+    @Override
+    public void checkRead(@NotNull User user, @Nullable String path) throws SVNException {
+      if (path == null || readable.isEmpty() || path.equals(readable) || path.startsWith(readable + "/")) {
+        return;
+      }
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.RA_NOT_AUTHORIZED, "You're not authorized to access " + path));
+    }
+
+    @Override
+    public void checkWrite(@NotNull User user, @Nullable String path) throws SVNException {
+      checkRead(user, path);
+    }
+  }
+}
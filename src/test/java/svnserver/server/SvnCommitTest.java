@@ -14,8 +14,11 @@ import org.testng.annotations.Test;
 import org.tmatesoft.svn.core.*;
 import org.tmatesoft.svn.core.io.ISVNEditor;
 import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
 import svnserver.SvnTestServer;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static svnserver.SvnTestHelper.*;
@@ -196,4 +199,89 @@ public class SvnCommitTest {
       }
     }
   }
+
+  /**
+   * textdelta-chunk larger than parser and chunk buffers is consumed by parts.
+   */
+  @Test
+  public void commitLargeChunks() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      // Random data is not compressible: client sends ~100KB delta windows.
+      final byte[] data = new byte[1024 * 1024];
+      new Random(42).nextBytes(data);
+
+      createFile(repo, "/large.bin", data, null);
+      checkFileContent(repo, "/large.bin", data);
+
+      // Delta against previous content.
+      final byte[] modified = Arrays.copyOf(data, data.length + 100 * 1024);
+      new Random(43).nextBytes(modified);
+      System.arraycopy(data, 0, modified, 0, data.length / 2);
+      modifyFile(repo, "/large.bin", modified, repo.getLatestRevision());
+      checkFileContent(repo, "/large.bin", modified);
+
+      // Session is still usable after large chunks.
+      createFile(repo, "/small.txt", "small", null);
+      checkFileContent(repo, "/small.txt", "small");
+    }
+  }
+
+  /**
+   * Content checksum mismatch fails commit and session stays usable.
+   */
+  @Test
+  public void commitChecksumMismatch() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      final long latestRevision = repo.getLatestRevision();
+
+      final ISVNEditor editor = repo.getCommitEditor("Checksum mismatch", null, false, null);
+      final SVNException e = Assert.expectThrows(SVNException.class, () -> {
+        editor.openRoot(-1);
+        editor.addFile("/example.txt", null, -1);
+        editor.applyTextDelta("/example.txt", null);
+        new SVNDeltaGenerator().sendDelta("/example.txt", new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)), editor, false);
+        editor.closeFile("/example.txt", "d41d8cd98f00b204e9800998ecf8427e");
+        editor.closeDir();
+        editor.closeEdit();
+      });
+      Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.CHECKSUM_MISMATCH);
+
+      Assert.assertEquals(repo.getLatestRevision(), latestRevision);
+      createFile(repo, "/example.txt", "content", null);
+      checkFileContent(repo, "/example.txt", "content");
+    }
+  }
+
+  /**
+   * Checksum mismatch of file is reported, when client continues edit without waiting for close-file result.
+   */
+  @Test
+  public void commitChecksumMismatchWithNextFiles() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      final long latestRevision = repo.getLatestRevision();
+
+      final ISVNEditor editor = repo.getCommitEditor("Checksum mismatch", null, false, null);
+      final SVNException e = Assert.expectThrows(SVNException.class, () -> {
+        editor.openRoot(-1);
+        editor.addFile("/broken.txt", null, -1);
+        editor.applyTextDelta("/broken.txt", null);
+        new SVNDeltaGenerator().sendDelta("/broken.txt", new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)), editor, false);
+        editor.closeFile("/broken.txt", "d41d8cd98f00b204e9800998ecf8427e");
+        for (int i = 0; i < 10; ++i) {
+          final String path = "/file" + i + ".txt";
+          editor.addFile(path, null, -1);
+          sendDeltaAndClose(editor, path, null, "content " + i);
+        }
+        editor.closeDir();
+        editor.closeEdit();
+      });
+      Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.CHECKSUM_MISMATCH);
+
+      Assert.assertEquals(repo.getLatestRevision(), latestRevision);
+      Assert.assertEquals(repo.checkPath("/file0.txt", -1), SVNNodeKind.NONE);
+    }
+  }
 }
@@ -0,0 +1,239 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import svnserver.StringHelper;
+import svnserver.SvnTestServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static svnserver.SvnTestHelper.*;
+
+/**
+ * Parallel file delta computation must not change editor output.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnDeltaThreadsTest {
+  @Test
+  public void sameEditorOutput() throws Exception {
+    try (SvnTestServer parallel = SvnTestServer.createEmpty(null, null, false, config -> config.setDeltaThreads(4))) {
+      final SVNRepository repo = parallel.openSvnRepository();
+      final long emptyRevision = repo.getLatestRevision();
+      final Random random = new Random(0);
+      final Map<String, String> files = new LinkedHashMap<>();
+      for (int i = 0; i < 20; ++i) {
+        files.put("/file" + i + ".txt", randomText(random, 1000 + i * 500));
+      }
+      for (Map.Entry<String, String> entry : files.entrySet()) {
+        createFile(repo, entry.getKey(), entry.getValue(), null);
+      }
+      final long createRevision = repo.getLatestRevision();
+
+      // Modified files.
+      for (int i = 0; i < 20; i += 3) {
+        final String path = "/file" + i + ".txt";
+        modifyFile(repo, path, files.get(path) + randomText(random, 100), repo.getLatestRevision());
+      }
+      // Added file with copy-from: delta source differs from prepared delta source.
+      copyFile(repo, "/file1.txt", "/copy.txt", repo.getLatestRevision());
+      // Absent file: content of files with this filter is not available.
+      createFile(repo, "/secret.deny", "secret", null);
+      createFile(repo, "/.gitattributes", "*.deny\t\t\tfilter=deny\n", null);
+      final long lastRevision = repo.getLatestRevision();
+
+      try (SvnTestServer serial = SvnTestServer.createEmpty(null, dir -> SvnReplicaTest.createReplicaMapping(parallel.getRepository()), false, config -> config.setDeltaThreads(0))) {
+        final long[][] ranges = {
+            {emptyRevision, lastRevision},
+            {createRevision, lastRevision},
+            {emptyRevision, createRevision},
+        };
+        for (long[] range : ranges) {
+          final List<String> expected = update(serial.openSvnRepository(), range[0], range[1]);
+          final List<String> actual = update(parallel.openSvnRepository(), range[0], range[1]);
+          Assert.assertEquals(actual, expected, "Update: r" + range[0] + " -> r" + range[1]);
+        }
+        final List<String> full = update(parallel.openSvnRepository(), emptyRevision, lastRevision);
+        Assert.assertTrue(full.stream().anyMatch(event -> event.endsWith("secret.deny - absent-file")), full.toString());
+      }
+    }
+  }
+
+  @NotNull
+  private static List<String> update(@NotNull SVNRepository repo, long fromRevision, long toRevision) throws SVNException {
+    final RecordEditor editor = new RecordEditor();
+    repo.update(toRevision, null, SVNDepth.INFINITY, true, reporter -> {
+      reporter.setPath("", null, fromRevision, SVNDepth.INFINITY, false);
+      reporter.finishReport();
+    }, editor);
+    return editor.events;
+  }
+
+  private static void copyFile(@NotNull SVNRepository repo, @NotNull String srcFile, @NotNull String dstFile, long srcRev) throws SVNException {
+    final ISVNEditor editor = repo.getCommitEditor("Copy file: " + srcFile + " -> " + dstFile, null, false, null);
+    editor.openRoot(-1);
+    editor.addFile(dstFile, srcFile, srcRev);
+    editor.closeFile(dstFile, null);
+    editor.closeDir();
+    editor.closeEdit();
+  }
+
+  @NotNull
+  private static String randomText(@NotNull Random random, int size) {
+    final StringBuilder builder = new StringBuilder();
+    while (builder.length() < size) {
+      builder.append("Line ").append(random.nextInt(100)).append('\n');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Editor records operations in received order with hash of delta windows.
+   */
+  private static final class RecordEditor implements ISVNEditor {
+    @NotNull
+    private final List<String> events = new ArrayList<>();
+    @NotNull
+    private final Deque<String> paths = new ArrayDeque<>();
+    @Nullable
+    private ByteArrayOutputStream delta;
+
+    @Override
+    public void targetRevision(long revision) {
+      events.add("target-rev: " + revision);
+    }
+
+    @Override
+    public void openRoot(long revision) {
+      paths.push("/");
+      events.add("/ - open-root: " + revision);
+    }
+
+    @Override
+    public void deleteEntry(String path, long revision) {
+      events.add(path + " - delete-entry: " + revision);
+    }
+
+    @Override
+    public void absentDir(String path) {
+      events.add(path + " - absent-dir");
+    }
+
+    @Override
+    public void absentFile(String path) {
+      events.add(path + " - absent-file");
+    }
+
+    @Override
+    public void addDir(String path, String copyFromPath, long copyFromRevision) {
+      paths.push(path);
+      events.add(path + " - add-dir: " + copyFromPath + "@" + copyFromRevision);
+    }
+
+    @Override
+    public void openDir(String path, long revision) {
+      paths.push(path);
+      events.add(path + " - open-dir: " + revision);
+    }
+
+    @Override
+    public void changeDirProperty(String name, SVNPropertyValue value) {
+      events.add(paths.getFirst() + " - change-dir-prop: " + prop(name, value));
+    }
+
+    @Override
+    public void closeDir() {
+      paths.pop();
+    }
+
+    @Override
+    public void addFile(String path, String copyFromPath, long copyFromRevision) {
+      events.add(path + " - add-file: " + copyFromPath + "@" + copyFromRevision);
+    }
+
+    @Override
+    public void openFile(String path, long revision) {
+      events.add(path + " - open-file: " + revision);
+    }
+
+    @Override
+    public void changeFileProperty(String path, String propertyName, SVNPropertyValue propertyValue) {
+      events.add(path + " - change-file-prop: " + prop(propertyName, propertyValue));
+    }
+
+    @Override
+    public void closeFile(String path, String textChecksum) {
+      events.add(path + " - close-file: " + textChecksum);
+    }
+
+    @Override
+    public SVNCommitInfo closeEdit() {
+      return null;
+    }
+
+    @Override
+    public void abortEdit() {
+      events.add("abort-edit");
+    }
+
+    @Override
+    public void applyTextDelta(String path, String baseChecksum) {
+      delta = new ByteArrayOutputStream();
+      events.add(path + " - apply-text-delta: " + baseChecksum);
+    }
+
+    @Override
+    public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+      Assert.assertNotNull(delta);
+      try {
+        diffWindow.writeTo(delta, false, false);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+      return null;
+    }
+
+    @Override
+    public void textDeltaEnd(String path) {
+      Assert.assertNotNull(delta);
+      events.add(path + " - delta: " + md5(delta.toByteArray()));
+      delta = null;
+    }
+
+    @NotNull
+    private static String prop(@NotNull String name, @Nullable SVNPropertyValue value) {
+      // Entry properties (like repository UUID) depend on server instance.
+      return name.startsWith("svn:entry:") ? name : name + "=" + value;
+    }
+
+    @NotNull
+    private static String md5(@NotNull byte[] data) {
+      try {
+        return StringHelper.toHex(MessageDigest.getInstance("MD5").digest(data));
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
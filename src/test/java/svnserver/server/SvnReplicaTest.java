@@ -0,0 +1,307 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLock;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.ISVNLockHandler;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestServer;
+import svnserver.auth.ReplicaAuthenticator;
+import svnserver.config.AclConfig;
+import svnserver.config.RepositoryMappingConfig;
+import svnserver.context.LocalContext;
+import svnserver.parser.FlushingInputStream;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+import svnserver.parser.SvnServerWriter;
+import svnserver.parser.token.*;
+import svnserver.repository.VcsAccess;
+import svnserver.repository.git.GitRepository;
+import svnserver.repository.git.push.GitPushEmbedded;
+import svnserver.repository.locks.PersistentLockFactory;
+import svnserver.repository.mapping.RepositoryListMapping;
+
+import java.net.Socket;
+import java.util.*;
+
+import static svnserver.SvnTestHelper.*;
+
+/**
+ * Read-only replica tests.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnReplicaTest {
+  @NotNull
+  private static final String REPLICA_TOKEN = "secret";
+
+  /**
+   * Replica serves revisions indexed by primary node, but refuses commits and locks.
+   */
+  @Test
+  public void replicaRejectsWrites() throws Exception {
+    try (SvnTestServer primary = SvnTestServer.createEmpty()) {
+      final SVNRepository primaryRepo = primary.openSvnRepository();
+      createFile(primaryRepo, "/example.txt", "content", null);
+      final long revision = primaryRepo.getLatestRevision();
+
+      try (SvnTestServer replica = SvnTestServer.createEmpty(null, dir -> createReplicaMapping(primary.getRepository()), false)) {
+        final SVNRepository replicaRepo = replica.openSvnRepository();
+        Assert.assertEquals(replicaRepo.getLatestRevision(), revision);
+        checkFileContent(replicaRepo, "/example.txt", "content");
+
+        checkReadOnly(Assert.expectThrows(SVNException.class, () -> createFile(replicaRepo, "/other.txt", "other", null)));
+        checkReadOnly(Assert.expectThrows(SVNException.class, () -> lock(replicaRepo, "/example.txt", revision)));
+
+        // Rejected writes don't break session.
+        Assert.assertEquals(replicaRepo.getLatestRevision(), revision);
+        Assert.assertEquals(primaryRepo.getLatestRevision(), revision);
+      }
+    }
+  }
+
+  /**
+   * Replica with configured primary node forwards commits, locks and lock queries.
+   */
+  @Test
+  public void replicaForwardsWrites() throws Exception {
+    try (SvnTestServer primary = SvnTestServer.createEmpty(null, null, false, config -> config.setReplicaToken(REPLICA_TOKEN))) {
+      final SVNRepository primaryRepo = primary.openSvnRepository();
+      createFile(primaryRepo, "/a.txt", "a", null);
+      createFile(primaryRepo, "/b.txt", "b", null);
+
+      try (SvnTestServer replica = SvnTestServer.createEmpty(null, dir -> createReplicaMapping(primary.getRepository()), false, config -> {
+        config.setPrimaryUrl(primary.getUrl().toString());
+        config.setReplicaToken(REPLICA_TOKEN);
+      })) {
+        final SVNRepository replicaRepo = replica.openSvnRepository();
+
+        // Commit is visible on replica right after reply.
+        final long revision = createFile(replicaRepo, "/c.txt", "c", null).getNewRevision();
+        Assert.assertEquals(replicaRepo.getLatestRevision(), revision);
+        Assert.assertEquals(primaryRepo.getLatestRevision(), revision);
+        checkFileContent(replicaRepo, "/c.txt", "c");
+
+        // Replica has own lock storage, so lock queries must be answered by primary.
+        final Map<String, Long> paths = new HashMap<>();
+        paths.put("/a.txt", revision);
+        paths.put("/b.txt", revision);
+        final Map<String, SVNLock> locks = lock(replicaRepo, paths);
+        Assert.assertEquals(locks.keySet(), paths.keySet());
+        Assert.assertEquals(replicaRepo.getLock("/a.txt").getID(), locks.get("/a.txt").getID());
+        Assert.assertEquals(primaryRepo.getLock("/b.txt").getID(), locks.get("/b.txt").getID());
+        Assert.assertEquals(replicaRepo.getLocks("/").length, 2);
+
+        final Map<String, String> tokens = new HashMap<>();
+        for (SVNLock lock : locks.values()) {
+          tokens.put(lock.getPath(), lock.getID());
+        }
+        unlock(replicaRepo, tokens);
+        Assert.assertNull(replicaRepo.getLock("/a.txt"));
+        Assert.assertEquals(replicaRepo.getLocks("/").length, 0);
+        Assert.assertEquals(primaryRepo.getLocks("/").length, 0);
+      }
+    }
+  }
+
+  /**
+   * Client gets post-commit warning, if forwarded commit is not received by replica in time.
+   */
+  @Test
+  public void replicaSyncTimeout() throws Exception {
+    try (SvnTestServer primary = SvnTestServer.createEmpty(null, null, false, config -> config.setReplicaToken(REPLICA_TOKEN))) {
+      final SVNRepository primaryRepo = primary.openSvnRepository();
+      createFile(primaryRepo, "/a.txt", "a", null);
+
+      // Replica branch has same history, but is not updated by primary node commits.
+      final Repository git = primary.getRepository();
+      final RefUpdate refUpdate = git.updateRef(Constants.R_HEADS + "replica");
+      refUpdate.setNewObjectId(git.resolve(Constants.R_HEADS + "master"));
+      Assert.assertEquals(refUpdate.update(), RefUpdate.Result.NEW);
+
+      try (SvnTestServer replica = SvnTestServer.createEmpty(null, dir -> createReplicaMapping(git, "replica"), false, config -> {
+        config.setPrimaryUrl(primary.getUrl().toString());
+        config.setReplicaToken(REPLICA_TOKEN);
+        config.setReplicaSyncTimeout(100);
+      })) {
+        final SVNRepository replicaRepo = replica.openSvnRepository();
+        final SVNCommitInfo info = createFile(replicaRepo, "/b.txt", "b", null);
+        Assert.assertEquals(info.getNewRevision(), primaryRepo.getLatestRevision());
+        final SVNErrorMessage error = info.getErrorMessage();
+        Assert.assertNotNull(error);
+        Assert.assertTrue(error.getFullMessage().contains("not yet available on replica"), error.getFullMessage());
+      }
+    }
+  }
+
+  /**
+   * Post-commit error is added to commit info with or without optional tuple.
+   */
+  @Test
+  public void addPostCommitError() throws Exception {
+    final List<SvnServerToken> commitInfo = Arrays.asList(
+        ListBeginToken.instance,
+        new NumberToken(5),
+        ListBeginToken.instance, new StringToken("2018-01-01T00:00:00.000000Z"), ListEndToken.instance,
+        ListBeginToken.instance, new StringToken("test"), ListEndToken.instance,
+        ListBeginToken.instance, ListEndToken.instance,
+        ListEndToken.instance
+    );
+    final List<SvnServerToken> withError = PrimaryConnection.addPostCommitError(commitInfo, "warning");
+    Assert.assertEquals(withError.size(), commitInfo.size() + 1);
+    Assert.assertEquals(withError.get(withError.size() - 3), new StringToken("warning"));
+
+    // Post-commit error of primary node is kept.
+    final List<SvnServerToken> merged = PrimaryConnection.addPostCommitError(withError, "replica");
+    Assert.assertEquals(merged.size(), withError.size());
+    Assert.assertEquals(merged.get(merged.size() - 3), new StringToken("warning\nreplica"));
+
+    // Commit info without post-commit error tuple.
+    final List<SvnServerToken> shortInfo = new ArrayList<>(commitInfo.subList(0, commitInfo.size() - 3));
+    shortInfo.add(ListEndToken.instance);
+    Assert.assertEquals(PrimaryConnection.addPostCommitError(shortInfo, "warning"), withError);
+  }
+
+  /**
+   * Replica authentication is offered only to connections of replica nodes.
+   */
+  @Test
+  public void replicaAuthenticationOnlyForReplica() throws Exception {
+    try (SvnTestServer primary = SvnTestServer.createEmpty(null, null, false, config -> config.setReplicaToken(REPLICA_TOKEN))) {
+      final List<String> clientMechs = getAuthMechanisms(primary.getUrl());
+      Assert.assertFalse(clientMechs.contains(ReplicaAuthenticator.METHOD_NAME), clientMechs.toString());
+      Assert.assertTrue(clientMechs.contains("CRAM-MD5"), clientMechs.toString());
+
+      final List<String> replicaMechs = getAuthMechanisms(primary.getUrl(), ReplicaAuthenticator.CAPABILITY);
+      Assert.assertEquals(replicaMechs, Collections.singletonList(ReplicaAuthenticator.METHOD_NAME));
+    }
+  }
+
+  @NotNull
+  private static List<String> getAuthMechanisms(@NotNull SVNURL url, @NotNull String... capabilities) throws Exception {
+    try (Socket socket = new Socket(url.getHost(), url.getPort())) {
+      final SvnServerWriter writer = new SvnServerWriter(socket.getOutputStream());
+      final SvnServerParser parser = new SvnServerParser(new FlushingInputStream(socket.getInputStream(), writer));
+      // Greeting.
+      parser.readItem();
+      writer
+          .listBegin()
+          .number(2)
+          .listBegin()
+          .word("edit-pipeline");
+      for (String capability : capabilities) {
+        writer.word(capability);
+      }
+      writer
+          .listEnd()
+          .string(url.toString())
+          .string("test")
+          .listBegin()
+          .listEnd()
+          .listEnd();
+      // Authentication request: ( success ( ( mech:word ... ) realm:string ) )
+      final List<String> result = new ArrayList<>();
+      for (SvnServerToken token : parser.readItem()) {
+        if (token instanceof WordToken && !token.equals(new WordToken("success"))) {
+          Collections.addAll(result, ((WordToken) token).getText().split(" "));
+        }
+      }
+      return result;
+    }
+  }
+
+  @NotNull
+  static RepositoryMappingConfig createReplicaMapping(@NotNull Repository repository) {
+    return createReplicaMapping(repository, "master");
+  }
+
+  @NotNull
+  private static RepositoryMappingConfig createReplicaMapping(@NotNull Repository repository, @NotNull String branch) {
+    return (context, canUseParallelIndexing) -> {
+      final LocalContext local = new LocalContext(context, "replica");
+      local.add(VcsAccess.class, new AclConfig(false).create(local));
+      return new RepositoryListMapping(Collections.singletonMap("", new GitRepository(
+          local,
+          repository,
+          new GitPushEmbedded(local, "", "", ""),
+          branch,
+          true,
+          new PersistentLockFactory(local),
+          true
+      )));
+    };
+  }
+
+  private static void checkReadOnly(@NotNull SVNException e) {
+    Assert.assertTrue(e.getMessage().contains("read-only replica"), e.getMessage());
+  }
+
+  @NotNull
+  private static Map<String, SVNLock> lock(@NotNull SVNRepository repo, @NotNull Map<String, Long> paths) throws SVNException {
+    final Map<String, SVNLock> result = new HashMap<>();
+    repo.lock(paths, null, false, new ISVNLockHandler() {
+      @Override
+      public void handleLock(@NotNull String path, @Nullable SVNLock lock, @Nullable SVNErrorMessage error) throws SVNException {
+        if (error != null) {
+          throw new SVNException(error);
+        }
+        Assert.assertNotNull(lock);
+        result.put(path, lock);
+      }
+
+      @Override
+      public void handleUnlock(@NotNull String path, @Nullable SVNLock lock, @Nullable SVNErrorMessage error) {
+        Assert.fail();
+      }
+    });
+    return result;
+  }
+
+  private static void unlock(@NotNull SVNRepository repo, @NotNull Map<String, String> tokens) throws SVNException {
+    repo.unlock(tokens, false, new ISVNLockHandler() {
+      @Override
+      public void handleLock(@NotNull String path, @Nullable SVNLock lock, @Nullable SVNErrorMessage error) {
+        Assert.fail();
+      }
+
+      @Override
+      public void handleUnlock(@NotNull String path, @Nullable SVNLock lock, @Nullable SVNErrorMessage error) throws SVNException {
+        if (error != null) {
+          throw new SVNException(error);
+        }
+      }
+    });
+  }
+
+  private static void lock(@NotNull SVNRepository repo, @NotNull String path, long revision) throws SVNException {
+    repo.lock(Collections.singletonMap(path, revision), null, false, new ISVNLockHandler() {
+      @Override
+      public void handleLock(@NotNull String path, @Nullable SVNLock lock, @Nullable SVNErrorMessage error) throws SVNException {
+        if (error != null) {
+          throw new SVNException(error);
+        }
+      }
+
+      @Override
+      public void handleUnlock(@NotNull String path, @Nullable SVNLock lock, @Nullable SVNErrorMessage error) {
+        Assert.fail();
+      }
+    });
+  }
+}
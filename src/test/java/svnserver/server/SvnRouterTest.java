@@ -0,0 +1,193 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestServer;
+import svnserver.config.Config;
+import svnserver.config.RepositoryMappingConfig;
+import svnserver.context.SharedContext;
+import svnserver.repository.VcsRepositoryMapping;
+import svnserver.repository.mapping.RepositoryListMapping;
+import svnserver.repository.mapping.RepositoryPlacement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static svnserver.SvnTestHelper.*;
+
+/**
+ * Routing node tests.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnRouterTest {
+  /**
+   * Session is transferred to backend node as is.
+   */
+  @Test
+  public void routeToNode() throws Exception {
+    try (SvnTestServer backend = SvnTestServer.createEmpty()) {
+      final SvnRouter router = createRouter(backend);
+      try {
+        final SVNRepository repo = SvnTestServer.openSvnRepository(getUrl(router, ""), SvnTestServer.USER_NAME, SvnTestServer.PASSWORD);
+        // Commit uploads data through router.
+        final long revision = createFile(repo, "/example.txt", "content", null).getNewRevision();
+        Assert.assertEquals(repo.getLatestRevision(), revision);
+        checkFileContent(repo, "/example.txt", "content");
+        checkFileContent(backend.openSvnRepository(), "/example.txt", "content");
+      } finally {
+        router.shutdown(TimeUnit.SECONDS.toMillis(10));
+      }
+    }
+  }
+
+  /**
+   * Router answers by itself for repositories without node.
+   */
+  @Test
+  public void routeNotFound() throws Exception {
+    try (SvnTestServer backend = SvnTestServer.createEmpty()) {
+      final SvnRouter router = createRouter(backend);
+      try {
+        final SVNRepository repo = SvnTestServer.openSvnRepository(getUrl(router, "missing"), SvnTestServer.USER_NAME, SvnTestServer.PASSWORD);
+        final SVNException e = Assert.expectThrows(SVNException.class, repo::getLatestRevision);
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.RA_SVN_REPOS_NOT_FOUND);
+      } finally {
+        router.shutdown(TimeUnit.SECONDS.toMillis(10));
+      }
+    }
+  }
+
+  /**
+   * Nodes of all possible repository names are tried, until node has repository.
+   */
+  @Test
+  public void routeGuessedNames() throws Exception {
+    try (SvnTestServer empty = SvnTestServer.createEmpty(null, dir -> (context, canUseParallelIndexing) -> new RepositoryListMapping(Collections.emptyMap()), false);
+         SvnTestServer backend = SvnTestServer.createEmpty()) {
+      final Config config = createConfig(false, empty, backend);
+      final RepositoryPlacement placement = config.getCluster().create(true);
+      Assert.assertNotNull(placement);
+      final List<String> names = Arrays.asList(findName(placement, getNode(empty)), findName(placement, getNode(backend)));
+      final SvnRouter router = startRouter(config, path -> names);
+      try {
+        final SVNRepository repo = SvnTestServer.openSvnRepository(getUrl(router, ""), SvnTestServer.USER_NAME, SvnTestServer.PASSWORD);
+        createFile(repo, "/example.txt", "content", null);
+        checkFileContent(repo, "/example.txt", "content");
+        checkFileContent(backend.openSvnRepository(), "/example.txt", "content");
+      } finally {
+        router.shutdown(TimeUnit.SECONDS.toMillis(10));
+      }
+    }
+  }
+
+  /**
+   * Client gets error, if node of repository is not available.
+   */
+  @Test
+  public void routeNodeUnavailable() throws Exception {
+    final Config config;
+    try (SvnTestServer backend = SvnTestServer.createEmpty()) {
+      config = createConfig(false, backend);
+    }
+    final SvnRouter router = startRouter(config, path -> Collections.singletonList(""));
+    try {
+      final SVNRepository repo = SvnTestServer.openSvnRepository(getUrl(router, ""), SvnTestServer.USER_NAME, SvnTestServer.PASSWORD);
+      final SVNException e = Assert.expectThrows(SVNException.class, repo::getLatestRevision);
+      Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.RA_CANNOT_CREATE_SESSION);
+    } finally {
+      router.shutdown(TimeUnit.SECONDS.toMillis(10));
+    }
+  }
+
+  /**
+   * Client already has router greeting, so node with different greeting is refused.
+   */
+  @Test
+  public void routeGreetingMismatch() throws Exception {
+    try (SvnTestServer backend = SvnTestServer.createEmpty()) {
+      final SvnRouter router = startRouter(createConfig(true, backend), path -> Collections.singletonList(""));
+      try {
+        final SVNRepository repo = SvnTestServer.openSvnRepository(getUrl(router, ""), SvnTestServer.USER_NAME, SvnTestServer.PASSWORD);
+        final SVNException e = Assert.expectThrows(SVNException.class, repo::getLatestRevision);
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.RA_SVN_BAD_VERSION);
+      } finally {
+        router.shutdown(TimeUnit.SECONDS.toMillis(10));
+      }
+    }
+  }
+
+  @NotNull
+  private static SvnRouter createRouter(@NotNull SvnTestServer backend) throws Exception {
+    return startRouter(createConfig(false, backend), path -> path.startsWith("/missing") ? Collections.emptyList() : Collections.singletonList(""));
+  }
+
+  @NotNull
+  private static Config createConfig(boolean compression, @NotNull SvnTestServer... backends) throws SVNException {
+    final Config config = new Config(backends[0].getUrl().getHost(), 0);
+    config.setCompressionEnabled(compression);
+    for (SvnTestServer backend : backends) {
+      config.getCluster().getNodes().add(getNode(backend));
+    }
+    return config;
+  }
+
+  @NotNull
+  private static SvnRouter startRouter(@NotNull Config config, @NotNull Function<String, List<String>> names) throws Exception {
+    config.setRepositoryMapping(new RepositoryMappingConfig() {
+      @NotNull
+      @Override
+      public VcsRepositoryMapping create(@NotNull SharedContext context, boolean canUseParallelIndexing) {
+        throw new UnsupportedOperationException();
+      }
+
+      @NotNull
+      @Override
+      public List<String> getRepositoryNames(@NotNull String path) {
+        return names.apply(path);
+      }
+    });
+    final SvnRouter router = new SvnRouter(config);
+    router.start();
+    return router;
+  }
+
+  @NotNull
+  private static String getNode(@NotNull SvnTestServer server) throws SVNException {
+    final SVNURL url = server.getUrl();
+    return url.getHost() + ":" + url.getPort();
+  }
+
+  /**
+   * Find repository name, placed on node.
+   */
+  @NotNull
+  private static String findName(@NotNull RepositoryPlacement placement, @NotNull String node) {
+    for (int i = 0; ; ++i) {
+      final String name = "group/project" + i;
+      if (node.equals(placement.getNode(name))) {
+        return name;
+      }
+    }
+  }
+
+  @NotNull
+  private static SVNURL getUrl(@NotNull SvnRouter router, @NotNull String path) throws SVNException {
+    return SVNURL.create("svn", null, "127.0.0.2", router.getPort(), path, true);
+  }
+}
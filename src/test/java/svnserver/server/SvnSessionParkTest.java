@@ -0,0 +1,149 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.SvnTestServer;
+
+import java.util.List;
+
+/**
+ * Parking of idle sessions on selector.
+ * <p>
+ * Server has single worker thread, so every test hangs if idle or stalled session holds it.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnSessionParkTest {
+  @NotNull
+  private static SvnTestServer createServer() throws Exception {
+    return SvnTestServer.createEmpty(null, null, true, config -> {
+      config.setMaxThreads(1);
+      config.setThreadQueueSize(1);
+    });
+  }
+
+  /**
+   * Sessions release worker thread between commands.
+   */
+  @Test
+  public void parkAndResume() throws Exception {
+    try (SvnTestServer server = createServer();
+         SvnTestSession session1 = new SvnTestSession(server.getUrl()).open();
+         SvnTestSession session2 = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      Assert.assertEquals(session1.getLatestRevision(), revision);
+      Assert.assertEquals(session2.getLatestRevision(), revision);
+      // Parked session is resumed after long idle.
+      Thread.sleep(500);
+      Assert.assertEquals(session1.getLatestRevision(), revision);
+      Assert.assertEquals(session2.getLatestRevision(), revision);
+    }
+  }
+
+  /**
+   * Stalled client with incomplete command doesn't hold worker thread.
+   */
+  @Test
+  public void incompleteCommand() throws Exception {
+    try (SvnTestServer server = createServer();
+         SvnTestSession stalled = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      stalled.sendRaw("( get-lat");
+      try (SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+        Assert.assertEquals(session.getLatestRevision(), revision);
+      }
+      stalled.sendRaw("est-rev ( ) ) ");
+      Assert.assertEquals(stalled.readLatestRevision(), revision);
+    }
+  }
+
+  /**
+   * Commands, sent without waiting for response, are processed after session is resumed.
+   */
+  @Test
+  public void pipelinedCommands() throws Exception {
+    try (SvnTestServer server = createServer();
+         SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      // Several commands in single packet.
+      session.sendRaw("( get-latest-rev ( ) ) ( get-latest-rev ( ) ) ( get-latest-rev ( ) ) ");
+      for (int i = 0; i < 3; ++i) {
+        Assert.assertEquals(session.readLatestRevision(), revision);
+      }
+      // Command end with next command start, string with brackets is split between packets.
+      session.sendRaw("( get-latest-rev ( ) ) ( check-path ( 4:");
+      Assert.assertEquals(session.readLatestRevision(), revision);
+      Thread.sleep(200);
+      session.sendRaw("a)(b ( ) ) ) ( get-latest-rev ( ) ) ");
+      // Authentication request and path kind.
+      SvnTestSession.checkSuccess(session.getParser().readItem());
+      final List<?> kind = session.getParser().readItem();
+      Assert.assertTrue(kind.toString().contains("none"), kind.toString());
+      Assert.assertEquals(session.readLatestRevision(), revision);
+    }
+  }
+
+  /**
+   * Command longer than selector buffer is processed too.
+   */
+  @Test
+  public void longCommand() throws Exception {
+    try (SvnTestServer server = createServer();
+         SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      final StringBuilder path = new StringBuilder();
+      while (path.length() <= CommandBuffer.MAX_SIZE) {
+        path.append("long-path-");
+      }
+      session.sendRaw("( check-path ( " + path.length() + ":" + path + " ( ) ) ) ");
+      SvnTestSession.checkSuccess(session.getParser().readItem());
+      final List<?> kind = session.getParser().readItem();
+      Assert.assertTrue(kind.toString().contains("none"), kind.toString());
+      Assert.assertEquals(session.getLatestRevision(), revision);
+    }
+  }
+
+  /**
+   * Parked sessions are closed on server stop.
+   */
+  @Test
+  public void stopWithParkedSessions() throws Exception {
+    try (SvnTestServer server = createServer();
+         SvnTestSession idle = new SvnTestSession(server.getUrl()).open();
+         SvnTestSession incomplete = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      Assert.assertEquals(idle.getLatestRevision(), revision);
+      incomplete.sendRaw("( get-latest-rev ");
+      // Wait while selector reads incomplete command.
+      Thread.sleep(200);
+      server.startShutdown();
+      Assert.assertTrue(idle.isClosed());
+      Assert.assertTrue(incomplete.isClosed());
+    }
+  }
+
+  /**
+   * Disconnected session with incomplete command is closed.
+   */
+  @Test
+  public void disconnectWithIncompleteCommand() throws Exception {
+    try (SvnTestServer server = createServer()) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      try (SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+        session.sendRaw("( get-latest-rev ");
+      }
+      // Closed session doesn't hold worker thread.
+      try (SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+        Assert.assertEquals(session.getLatestRevision(), revision);
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.SvnTestServer;
+import svnserver.config.Config;
+
+import java.util.function.Consumer;
+
+/**
+ * Client session timeouts.
+ * <p>
+ * Timeouts are much less than socket timeout of test session, so closing by server reaper is checked.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnSessionTimeoutTest {
+  private static final long TIMEOUT = 500;
+
+  @NotNull
+  private static SvnTestServer createServer(@NotNull Consumer<Config> configurator) throws Exception {
+    return SvnTestServer.createEmpty(null, null, true, config -> {
+      config.setMaxThreads(1);
+      config.setThreadQueueSize(1);
+      config.setIdleTimeout(0);
+      config.setHeaderTimeout(0);
+      config.setAuthTimeout(0);
+      config.setCommandTimeout(0);
+      configurator.accept(config);
+    });
+  }
+
+  /**
+   * Connection without client information is closed by header timeout.
+   */
+  @Test
+  public void headerTimeout() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setHeaderTimeout(TIMEOUT));
+         SvnTestSession session = new SvnTestSession(server.getUrl())) {
+      Assert.assertTrue(session.isClosed());
+      // Worker thread is released.
+      try (SvnTestSession other = new SvnTestSession(server.getUrl()).open()) {
+        other.getLatestRevision();
+      }
+    }
+  }
+
+  /**
+   * Header timeout doesn't limit authentication: client can wait for user input.
+   */
+  @Test
+  public void headerTimeoutBeforeAuthentication() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setHeaderTimeout(TIMEOUT))) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      try (SvnTestSession session = new SvnTestSession(server.getUrl())) {
+        session.sendClientInfo();
+        Thread.sleep(TIMEOUT * 3);
+        session.authenticate();
+        Assert.assertEquals(session.getLatestRevision(), revision);
+      }
+    }
+  }
+
+  /**
+   * Connection is closed, if client doesn't complete authentication.
+   */
+  @Test
+  public void authTimeout() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setAuthTimeout(TIMEOUT));
+         SvnTestSession session = new SvnTestSession(server.getUrl())) {
+      session.sendClientInfo();
+      Assert.assertTrue(session.isClosed());
+    }
+  }
+
+  /**
+   * Parked session is closed by idle timeout, active session is kept.
+   */
+  @Test
+  public void idleTimeout() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setIdleTimeout(TIMEOUT * 2));
+         SvnTestSession idle = new SvnTestSession(server.getUrl()).open();
+         SvnTestSession active = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = idle.getLatestRevision();
+      for (int i = 0; i < 8; ++i) {
+        Thread.sleep(TIMEOUT / 2);
+        Assert.assertEquals(active.getLatestRevision(), revision);
+      }
+      Assert.assertTrue(idle.isClosed());
+    }
+  }
+
+  /**
+   * Session with incomplete command is closed by idle timeout: it doesn't hold worker thread.
+   */
+  @Test
+  public void idleTimeoutIncompleteCommand() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setIdleTimeout(TIMEOUT));
+         SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+      session.sendRaw("( get-latest-rev ");
+      Assert.assertTrue(session.isClosed());
+    }
+  }
+
+  /**
+   * Stalled command is closed by command timeout and worker thread is released.
+   */
+  @Test
+  public void commandTimeout() throws Exception {
+    try (SvnTestServer server = createServer(config -> config.setCommandTimeout(TIMEOUT));
+         SvnTestSession session = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = session.getLatestRevision();
+      // Command is longer than selector buffer: it is read by worker thread.
+      final StringBuilder path = new StringBuilder();
+      while (path.length() <= CommandBuffer.MAX_SIZE) {
+        path.append("long-path-");
+      }
+      session.sendRaw("( check-path ( " + (path.length() * 2) + ":" + path);
+      Assert.assertTrue(session.isClosed());
+
+      try (SvnTestSession other = new SvnTestSession(server.getUrl()).open()) {
+        Assert.assertEquals(other.getLatestRevision(), revision);
+      }
+    }
+  }
+}
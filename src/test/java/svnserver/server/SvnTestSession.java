@@ -0,0 +1,171 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.tmatesoft.svn.core.SVNURL;
+import svnserver.parser.FlushingInputStream;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+import svnserver.parser.SvnServerWriter;
+import svnserver.parser.token.NumberToken;
+import svnserver.parser.token.WordToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw svn protocol session for server connection handling tests.
+ *
+ * @author agent <agent@local>
+ */
+final class SvnTestSession implements AutoCloseable {
+  static final int TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
+
+  @NotNull
+  private final SVNURL url;
+  @NotNull
+  private final Socket socket;
+  @NotNull
+  private final SvnServerWriter writer;
+  @NotNull
+  private final SvnServerParser parser;
+
+  /**
+   * Connect to server and read greeting.
+   */
+  SvnTestSession(@NotNull SVNURL url) throws IOException {
+    this.url = url;
+    socket = new Socket(url.getHost(), url.getPort());
+    socket.setSoTimeout(TIMEOUT);
+    writer = new SvnServerWriter(socket.getOutputStream());
+    parser = new SvnServerParser(new FlushingInputStream(socket.getInputStream(), writer));
+    checkSuccess(parser.readItem());
+  }
+
+  @NotNull
+  SvnServerWriter getWriter() {
+    return writer;
+  }
+
+  @NotNull
+  SvnServerParser getParser() {
+    return parser;
+  }
+
+  /**
+   * Send client information and authenticate anonymously.
+   */
+  @NotNull
+  SvnTestSession open() throws IOException {
+    sendClientInfo();
+    authenticate();
+    return this;
+  }
+
+  /**
+   * Authenticate anonymously and read repository information.
+   */
+  void authenticate() throws IOException {
+    final List<SvnServerToken> authRequest = parser.readItem();
+    checkSuccess(authRequest);
+    Assert.assertTrue(authRequest.toString().contains("ANONYMOUS"), authRequest.toString());
+    writer
+        .listBegin()
+        .word("ANONYMOUS")
+        .listBegin()
+        .string("")
+        .listEnd()
+        .listEnd()
+        .flush();
+    checkSuccess(parser.readItem());
+    // Repository announce.
+    checkSuccess(parser.readItem());
+  }
+
+  void sendClientInfo() throws IOException {
+    writer
+        .listBegin()
+        .number(2)
+        .listBegin()
+        .word("edit-pipeline")
+        .listEnd()
+        .string(url.toString())
+        .string("test")
+        .listBegin()
+        .listEnd()
+        .listEnd()
+        .flush();
+  }
+
+  /**
+   * Send data as is, without waiting for response.
+   */
+  void sendRaw(@NotNull String data) throws IOException {
+    socket.getOutputStream().write(data.getBytes(StandardCharsets.UTF_8));
+    socket.getOutputStream().flush();
+  }
+
+  int getLatestRevision() throws IOException {
+    sendRaw("( get-latest-rev ( ) ) ");
+    return readLatestRevision();
+  }
+
+  /**
+   * Read response of get-latest-rev command.
+   */
+  int readLatestRevision() throws IOException {
+    // Authentication request.
+    checkSuccess(parser.readItem());
+    final List<SvnServerToken> response = parser.readItem();
+    checkSuccess(response);
+    return ((NumberToken) response.get(3)).getNumber();
+  }
+
+  /**
+   * @return Error message of failure response.
+   */
+  @NotNull
+  String readError() throws IOException {
+    final List<SvnServerToken> response = parser.readItem();
+    Assert.assertEquals(response.get(1), new WordToken("failure"), response.toString());
+    return response.toString();
+  }
+
+  /**
+   * Check connection is closed by server.
+   */
+  boolean isClosed() throws IOException {
+    try {
+      final InputStream stream = socket.getInputStream();
+      while (true) {
+        if (stream.read() < 0) {
+          return true;
+        }
+      }
+    } catch (SocketException e) {
+      // Connection reset.
+      return true;
+    }
+  }
+
+  static void checkSuccess(@NotNull List<SvnServerToken> item) {
+    Assert.assertEquals(item.get(1), new WordToken("success"), item.toString());
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+}
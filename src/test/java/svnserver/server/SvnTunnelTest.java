@@ -0,0 +1,121 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.SvnTestServer;
+import svnserver.config.LocalUserDBConfig;
+import svnserver.config.UserDBConfig;
+import svnserver.ext.keys.KeyUserDB;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Authentication of svn+ssh sessions relayed by tools/git-as-svn-svnserve-tunnel.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnTunnelTest {
+  private static final String SECRET = "tunnel-secret";
+
+  @NotNull
+  private static SvnTestServer createServer(boolean keyAuthenticator) throws Exception {
+    final UserDBConfig users = new LocalUserDBConfig(new LocalUserDBConfig.UserEntry[]{
+        new LocalUserDBConfig.UserEntry(SvnTestServer.USER_NAME, "Test User", "foo@bar.org", SvnTestServer.PASSWORD),
+    });
+    final UserDBConfig userDB = keyAuthenticator ? context -> new KeyUserDB(users.create(context), SECRET) : users;
+    return SvnTestServer.createEmpty(userDB, null, false, config -> {
+    });
+  }
+
+  /**
+   * Same token as tunnel script: base64("\0" + secret + "\0" + key).
+   */
+  @NotNull
+  private static String tunnelHeader(@NotNull String secret, @NotNull String key) {
+    final String token = Base64.getEncoder().encodeToString(("\0" + secret + "\0" + key).getBytes(StandardCharsets.US_ASCII));
+    return "tunnel " + token.length() + ":" + token + " ";
+  }
+
+  @Nullable
+  private static String readTunnelHeader(@NotNull String data) throws Exception {
+    return SvnServer.readTunnelHeader(new SvnServerParser(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  @Test
+  public void parseHeader() throws Exception {
+    Assert.assertEquals(readTunnelHeader("tunnel 5:token ( 2 ( ) ) "), "token");
+    Assert.assertNull(readTunnelHeader("( 2 ( ) ) "));
+    Assert.expectThrows(Exception.class, () -> readTunnelHeader("other 5:token ( 2 ( ) ) "));
+  }
+
+  /**
+   * Session with valid token is authenticated as SSH user without password.
+   */
+  @Test
+  public void validToken() throws Exception {
+    try (SvnTestServer server = createServer(true);
+         SvnTestSession session = new SvnTestSession(server.getUrl())) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      session.sendRaw(tunnelHeader(SECRET, SvnTestServer.USER_NAME));
+      session.sendClientInfo();
+
+      final List<SvnServerToken> authRequest = session.getParser().readItem();
+      SvnTestSession.checkSuccess(authRequest);
+      Assert.assertTrue(authRequest.toString().contains("EXTERNAL"), authRequest.toString());
+      Assert.assertFalse(authRequest.toString().contains("ANONYMOUS"), authRequest.toString());
+      session.getWriter()
+          .listBegin()
+          .word("EXTERNAL")
+          .listBegin()
+          .string("")
+          .listEnd()
+          .listEnd()
+          .flush();
+      SvnTestSession.checkSuccess(session.getParser().readItem());
+      // Repository announce.
+      SvnTestSession.checkSuccess(session.getParser().readItem());
+      Assert.assertEquals(session.getLatestRevision(), revision);
+    }
+  }
+
+  @Test
+  public void invalidToken() throws Exception {
+    try (SvnTestServer server = createServer(true);
+         SvnTestSession session = new SvnTestSession(server.getUrl())) {
+      session.sendRaw(tunnelHeader("wrong-secret", SvnTestServer.USER_NAME));
+      session.sendClientInfo();
+      final String error = session.readError();
+      Assert.assertTrue(error.contains("Tunnel authentication failed"), error);
+      Assert.assertTrue(session.isClosed());
+    }
+  }
+
+  /**
+   * Tunneled session is refused, if server can't check token.
+   */
+  @Test
+  public void noKeyAuthenticator() throws Exception {
+    try (SvnTestServer server = createServer(false);
+         SvnTestSession session = new SvnTestSession(server.getUrl())) {
+      session.sendRaw(tunnelHeader(SECRET, SvnTestServer.USER_NAME));
+      session.sendClientInfo();
+      final String error = session.readError();
+      Assert.assertTrue(error.contains("Tunnel authentication failed"), error);
+      Assert.assertTrue(session.isClosed());
+    }
+  }
+}
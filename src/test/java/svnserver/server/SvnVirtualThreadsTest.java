@@ -0,0 +1,99 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNURL;
+import svnserver.SvnTestServer;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client sessions on virtual threads.
+ * <p>
+ * Virtual threads are available since Java 21: on older JVM server must fallback to thread pool.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnVirtualThreadsTest {
+  private static boolean isVirtualThreadsSupported() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  @NotNull
+  private static SvnTestServer createServer() throws Exception {
+    return SvnTestServer.createEmpty(null, null, true, config -> {
+      config.setVirtualThreads(true);
+      config.setMaxThreads(1);
+      config.setThreadQueueSize(0);
+    });
+  }
+
+  @Test
+  public void createExecutor() throws Exception {
+    final ExecutorService executor = SvnServer.createVirtualThreadExecutor();
+    if (!isVirtualThreadsSupported()) {
+      Assert.assertNull(executor);
+      return;
+    }
+    Assert.assertNotNull(executor);
+    try {
+      final boolean virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+      Assert.assertTrue(virtual);
+    } finally {
+      executor.shutdown();
+      Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+
+  /**
+   * Parked sessions don't hold session slots both on virtual threads and on fallback thread pool.
+   */
+  @Test
+  public void parkAndResume() throws Exception {
+    try (SvnTestServer server = createServer();
+         SvnTestSession session1 = new SvnTestSession(server.getUrl()).open();
+         SvnTestSession session2 = new SvnTestSession(server.getUrl()).open()) {
+      final long revision = server.openSvnRepository().getLatestRevision();
+      for (int i = 0; i < 3; ++i) {
+        Assert.assertEquals(session1.getLatestRevision(), revision);
+        Assert.assertEquals(session2.getLatestRevision(), revision);
+      }
+    }
+  }
+
+  /**
+   * Virtual threads are cheap, but count of active sessions is still limited by maxThreads and threadQueueSize.
+   */
+  @Test
+  public void sessionLimit() throws Exception {
+    try (SvnTestServer server = createServer()) {
+      final SVNURL url = server.getUrl();
+      // Session without client information holds session slot.
+      try (SvnTestSession active = new SvnTestSession(url);
+           Socket rejected = new Socket(url.getHost(), url.getPort())) {
+        rejected.setSoTimeout(SvnTestSession.TIMEOUT);
+        final List<SvnServerToken> error = new SvnServerParser(rejected.getInputStream()).readItem();
+        Assert.assertTrue(error.toString().contains("Server busy"), error.toString());
+      }
+    }
+  }
+}
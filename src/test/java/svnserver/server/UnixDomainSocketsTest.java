@@ -0,0 +1,80 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for unix domain socket file handling.
+ *
+ * @author agent <agent@local>
+ */
+public class UnixDomainSocketsTest {
+  @Test
+  public void bindRefuseRegularFile() throws Exception {
+    final File tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final Path path = tempDir.toPath().resolve("svn.sock");
+      Files.write(path, "data".getBytes(StandardCharsets.UTF_8));
+      Assert.expectThrows(FileAlreadyExistsException.class, () -> UnixDomainSockets.bind(path));
+      Assert.assertEquals(new String(Files.readAllBytes(path), StandardCharsets.UTF_8), "data");
+
+      UnixDomainSockets.delete(path);
+      Assert.assertTrue(Files.exists(path));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void bindReplaceStaleSocket() throws Exception {
+    final File tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final Path path = tempDir.toPath().resolve("svn.sock");
+      final ServerSocketChannel first;
+      try {
+        first = UnixDomainSockets.bind(path);
+      } catch (IOException e) {
+        throw new SkipException("Unix domain sockets are not supported", e);
+      }
+      // Socket is used by running server.
+      Assert.expectThrows(FileAlreadyExistsException.class, () -> UnixDomainSockets.bind(path));
+      first.close();
+      Assert.assertTrue(UnixDomainSockets.isSocket(path));
+
+      // Stale socket file is replaced.
+      UnixDomainSockets.bind(path).close();
+      UnixDomainSockets.delete(path);
+      Assert.assertFalse(Files.exists(path));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void bindRefuseDirectory() throws Exception {
+    final File tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      Assert.expectThrows(FileAlreadyExistsException.class, () -> UnixDomainSockets.bind(tempDir.toPath()));
+      Assert.assertTrue(tempDir.isDirectory());
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+}
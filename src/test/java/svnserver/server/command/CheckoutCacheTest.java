@@ -0,0 +1,142 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.testng.internal.junit.ArrayAsserts;
+import svnserver.TestHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Checkout editor stream cache tests.
+ *
+ * @author agent <agent@local>
+ */
+public class CheckoutCacheTest {
+  private File directory;
+
+  @BeforeMethod
+  public void before() throws IOException {
+    directory = TestHelper.createTempDir("git-as-svn-checkout");
+  }
+
+  @AfterMethod
+  public void after() throws IOException {
+    if (directory.exists()) {
+      TestHelper.deleteDirectory(directory);
+    }
+  }
+
+  @Test
+  public void recordAndReplay() throws IOException {
+    final CheckoutCache cache = new CheckoutCache(directory, 1024 * 1024);
+    Assert.assertNull(cache.open("key"));
+    try (CheckoutCache.Record record = cache.create("key")) {
+      Assert.assertNotNull(record);
+      record.getStream().write(data(100, 1));
+      // Record is not visible before commit.
+      Assert.assertNull(cache.open("key"));
+      record.commit();
+    }
+    ArrayAsserts.assertArrayEquals(data(100, 1), read(cache, "key"));
+    Assert.assertNull(cache.open("other"));
+    Assert.assertEquals(listFiles().length, 1);
+  }
+
+  @Test
+  public void discard() throws IOException {
+    final CheckoutCache cache = new CheckoutCache(directory, 1024 * 1024);
+    try (CheckoutCache.Record record = cache.create("key")) {
+      Assert.assertNotNull(record);
+      record.getStream().write(data(100, 1));
+    }
+    Assert.assertNull(cache.open("key"));
+    Assert.assertEquals(listFiles().length, 0);
+  }
+
+  /**
+   * Record errors don't break editor drive: record is dropped.
+   */
+  @Test
+  public void brokenRecord() throws IOException {
+    final CheckoutCache cache = new CheckoutCache(directory, 1024 * 1024);
+    try (CheckoutCache.Record record = cache.create("key")) {
+      Assert.assertNotNull(record);
+      record.getStream().write(data(100, 1));
+      TestHelper.deleteDirectory(directory);
+      record.commit();
+    }
+    Assert.assertNull(cache.open("key"));
+  }
+
+  @Test
+  public void leastRecentlyUsed() throws IOException {
+    final CheckoutCache cache = new CheckoutCache(directory, 250);
+    write(cache, "a", data(100, 1));
+    write(cache, "b", data(100, 2));
+    // Make access order independent of file system time resolution.
+    final long time = System.currentTimeMillis() - 60 * 1000;
+    for (File file : listFiles()) {
+      Assert.assertTrue(file.setLastModified(time));
+    }
+    read(cache, "a");
+
+    write(cache, "c", data(100, 3));
+    ArrayAsserts.assertArrayEquals(data(100, 1), read(cache, "a"));
+    Assert.assertNull(cache.open("b"));
+    ArrayAsserts.assertArrayEquals(data(100, 3), read(cache, "c"));
+  }
+
+  @NotNull
+  private File[] listFiles() {
+    final File[] files = directory.listFiles();
+    Assert.assertNotNull(files);
+    return files;
+  }
+
+  private static void write(@NotNull CheckoutCache cache, @NotNull String key, @NotNull byte[] data) throws IOException {
+    try (CheckoutCache.Record record = cache.create(key)) {
+      Assert.assertNotNull(record);
+      record.getStream().write(data);
+      record.commit();
+    }
+  }
+
+  @NotNull
+  private static byte[] read(@NotNull CheckoutCache cache, @NotNull String key) throws IOException {
+    try (InputStream stream = cache.open(key)) {
+      Assert.assertNotNull(stream);
+      final ByteArrayOutputStream result = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[1024];
+      while (true) {
+        final int size = stream.read(buffer);
+        if (size < 0) {
+          return result.toByteArray();
+        }
+        result.write(buffer, 0, size);
+      }
+    }
+  }
+
+  @NotNull
+  private static byte[] data(int size, int value) {
+    final byte[] data = new byte[size];
+    for (int i = 0; i < size; ++i) {
+      data[i] = (byte) (value + i);
+    }
+    return data;
+  }
+}
@@ -0,0 +1,149 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.testng.internal.junit.ArrayAsserts;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNProperty;
+import svnserver.repository.VcsFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for already compressed content detection.
+ *
+ * @author agent <agent@local>
+ */
+public class CompressibilityTest {
+  @Test
+  public void entropy() {
+    Assert.assertEquals(Compressibility.entropy(new byte[0], 0), 0.0, 1e-9);
+    Assert.assertEquals(Compressibility.entropy(new byte[4096], 4096), 0.0, 1e-9);
+    Assert.assertEquals(Compressibility.entropy(new byte[]{0, 1, 2, 3}, 4), 2.0, 1e-9);
+
+    final double text = Compressibility.entropy(textData(), 4096);
+    Assert.assertTrue(text > 3 && text < 6, "Text entropy: " + text);
+
+    final double random = Compressibility.entropy(randomData(4096), 4096);
+    Assert.assertTrue(random > 7.9, "Random entropy: " + random);
+  }
+
+  @Test
+  public void sampledContent() throws IOException, SVNException {
+    Assert.assertTrue(isCompressible("file.txt", null, textData()));
+    Assert.assertFalse(isCompressible("file.bin", null, randomData(64 * 1024)));
+    // Small files are not sampled.
+    Assert.assertTrue(isCompressible("file.bin", null, randomData(100)));
+  }
+
+  @Test
+  public void compressedName() throws IOException, SVNException {
+    Assert.assertFalse(isCompressible("file.ZIP", null, textData()));
+    Assert.assertFalse(isCompressible("file.png", null, textData()));
+    Assert.assertTrue(isCompressible("zip", null, textData()));
+  }
+
+  @Test
+  public void compressedMimeType() throws IOException, SVNException {
+    Assert.assertFalse(isCompressible("file", "image/png", textData()));
+    Assert.assertFalse(isCompressible("file", "video/x-custom", textData()));
+    Assert.assertTrue(isCompressible("file", "text/plain", textData()));
+  }
+
+  /**
+   * Sample must not be lost for delta generation.
+   */
+  @Test
+  public void streamRewind() throws IOException, SVNException {
+    final byte[] data = randomData(64 * 1024);
+    try (InputStream stream = Compressibility.markable(new NoMarkInputStream(data))) {
+      Assert.assertFalse(Compressibility.isCompressible(file("file.bin", null, data), stream));
+      ArrayAsserts.assertArrayEquals(data, readAll(stream));
+    }
+  }
+
+  @Test
+  public void streamWithoutMark() {
+    final byte[] data = textData();
+    Assert.expectThrows(IllegalArgumentException.class, () -> Compressibility.isCompressible(file("file.txt", null, data), new NoMarkInputStream(data)));
+  }
+
+  private static boolean isCompressible(@NotNull String fileName, @Nullable String mimeType, @NotNull byte[] data) throws IOException, SVNException {
+    return Compressibility.isCompressible(file(fileName, mimeType, data), new ByteArrayInputStream(data));
+  }
+
+  @NotNull
+  private static VcsFile file(@NotNull String fileName, @Nullable String mimeType, @NotNull byte[] data) {
+    final Map<String, String> props = mimeType == null ? Collections.emptyMap() : Collections.singletonMap(SVNProperty.MIME_TYPE, mimeType);
+    return (VcsFile) Proxy.newProxyInstance(VcsFile.class.getClassLoader(), new Class<?>[]{VcsFile.class}, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getFileName":
+          return fileName;
+        case "getProperties":
+          return props;
+        case "getSize":
+          return (long) data.length;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    });
+  }
+
+  @NotNull
+  private static byte[] textData() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; builder.length() < 16 * 1024; ++i) {
+      builder.append("Line ").append(i).append(": some text content\n");
+    }
+    return builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @NotNull
+  private static byte[] randomData(int size) {
+    final byte[] data = new byte[size];
+    new Random(0).nextBytes(data);
+    return data;
+  }
+
+  @NotNull
+  private static byte[] readAll(@NotNull InputStream stream) throws IOException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[1024];
+    while (true) {
+      final int read = stream.read(buffer);
+      if (read < 0) {
+        return result.toByteArray();
+      }
+      result.write(buffer, 0, read);
+    }
+  }
+
+  private static final class NoMarkInputStream extends FilterInputStream {
+    private NoMarkInputStream(@NotNull byte[] data) {
+      super(new ByteArrayInputStream(data));
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+}
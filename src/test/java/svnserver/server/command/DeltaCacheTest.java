@@ -0,0 +1,69 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encoded file delta cache tests.
+ *
+ * @author agent <agent@local>
+ */
+public class DeltaCacheTest {
+  @Test
+  public void hitAndMiss() {
+    final DeltaCache cache = new DeltaCache(1024 * 1024);
+    final String key = DeltaCache.key("source", "target", DeltaCompression.Zlib);
+    Assert.assertNull(cache.get(key));
+
+    final List<byte[]> windows = Arrays.asList(new byte[]{1, 2, 3}, new byte[]{4, 5});
+    cache.put(key, windows, "md5");
+    final DeltaCache.Entry entry = cache.get(key);
+    Assert.assertNotNull(entry);
+    Assert.assertEquals(entry.getMd5(), "md5");
+    Assert.assertEquals(entry.getWindows().size(), 2);
+    Assert.assertSame(entry.getWindows().get(0), windows.get(0));
+    Assert.assertSame(entry.getWindows().get(1), windows.get(1));
+
+    Assert.assertNull(cache.get(DeltaCache.key("source", "other", DeltaCompression.Zlib)));
+    Assert.assertNull(cache.get(DeltaCache.key("other", "target", DeltaCompression.Zlib)));
+    Assert.assertNull(cache.get(DeltaCache.key(null, "target", DeltaCompression.Zlib)));
+  }
+
+  @Test
+  public void oversizeSkipped() {
+    final DeltaCache cache = new DeltaCache(16 * 1024);
+    Assert.assertEquals(cache.getMaxEntrySize(), 1024L);
+
+    final String small = DeltaCache.key(null, "small", DeltaCompression.None);
+    cache.put(small, Arrays.asList(new byte[512], new byte[512]), "md5");
+    Assert.assertNotNull(cache.get(small));
+
+    final String large = DeltaCache.key(null, "large", DeltaCompression.None);
+    cache.put(large, Arrays.asList(new byte[512], new byte[513]), "md5");
+    Assert.assertNull(cache.get(large));
+  }
+
+  @Test
+  public void compressionInKey() {
+    final DeltaCache cache = new DeltaCache(1024 * 1024);
+    for (DeltaCompression compression : DeltaCompression.values()) {
+      cache.put(DeltaCache.key("source", "target", compression), Collections.singletonList(new byte[]{(byte) compression.ordinal()}), "md5");
+    }
+    for (DeltaCompression compression : DeltaCompression.values()) {
+      final DeltaCache.Entry entry = cache.get(DeltaCache.key("source", "target", compression));
+      Assert.assertNotNull(entry);
+      Assert.assertEquals(entry.getWindows().get(0)[0], (byte) compression.ordinal());
+    }
+  }
+}
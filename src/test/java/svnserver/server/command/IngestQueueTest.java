@@ -0,0 +1,99 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Commit content ingestion queue tests.
+ *
+ * @author agent <agent@local>
+ */
+public class IngestQueueTest {
+  private ExecutorService executor;
+
+  @BeforeMethod
+  public void before() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @AfterMethod
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void order() throws Exception {
+    final IngestQueue queue = new IngestQueue(executor);
+    final List<Integer> result = new ArrayList<>();
+    final List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      final int value = i;
+      queue.submit(() -> result.add(value));
+      expected.add(value);
+      if (i % 100 == 0) {
+        // Worker can return thread to pool between tasks.
+        queue.await();
+      }
+    }
+    queue.await();
+    Assert.assertEquals(result, expected);
+  }
+
+  @Test
+  public void error() throws Exception {
+    final IngestQueue queue = new IngestQueue(executor);
+    final AtomicInteger executed = new AtomicInteger();
+    final SVNException error = new SVNException(SVNErrorMessage.create(SVNErrorCode.CHECKSUM_MISMATCH, "Checksum mismatch"));
+    queue.submit(executed::incrementAndGet);
+    queue.submit(() -> {
+      throw error;
+    });
+    // Tasks after error are skipped.
+    final SVNException e = Assert.expectThrows(SVNException.class, () -> {
+      for (int i = 0; i < 1000; ++i) {
+        queue.submit(executed::incrementAndGet);
+      }
+      queue.await();
+    });
+    Assert.assertSame(e, error);
+    Assert.assertEquals(executed.get(), 1);
+    Assert.assertSame(Assert.expectThrows(SVNException.class, queue::await), error);
+  }
+
+  @Test
+  public void runtimeError() throws Exception {
+    final IngestQueue queue = new IngestQueue(executor);
+    queue.submit(() -> {
+      throw new IllegalStateException("Broken task");
+    });
+    Assert.expectThrows(IllegalStateException.class, queue::await);
+  }
+
+  @Test
+  public void cancel() throws Exception {
+    final IngestQueue queue = new IngestQueue(executor);
+    queue.submit(() -> {
+    });
+    queue.cancel();
+    final SVNException e = Assert.expectThrows(SVNException.class, queue::await);
+    Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.CANCELLED);
+  }
+}
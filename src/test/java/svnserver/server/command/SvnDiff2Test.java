@@ -0,0 +1,258 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.testng.internal.junit.ArrayAsserts;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaProcessor;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import svnserver.SvnTestServer;
+import svnserver.parser.FlushingInputStream;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+import svnserver.parser.SvnServerWriter;
+import svnserver.parser.token.StringToken;
+import svnserver.parser.token.WordToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static svnserver.SvnTestHelper.createFile;
+
+/**
+ * svndiff2 format tests.
+ *
+ * @author agent <agent@local>
+ */
+public class SvnDiff2Test {
+  @Test
+  public void compressible() throws SVNException {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 10000; ++i) {
+      builder.append("Line ").append(i % 100).append('\n');
+    }
+    final byte[] target = builder.toString().getBytes(StandardCharsets.UTF_8);
+    final byte[] delta = encode(new byte[0], target);
+    Assert.assertTrue(delta.length < target.length / 2, "Delta size: " + delta.length);
+    checkRoundTrip(new byte[0], target, delta);
+  }
+
+  /**
+   * Sections which LZ4 can't shrink are stored as is.
+   */
+  @Test
+  public void rawFallback() throws SVNException {
+    final byte[] target = new byte[200 * 1024];
+    new Random(0).nextBytes(target);
+    final byte[] delta = encode(new byte[0], target);
+    Assert.assertTrue(delta.length > target.length, "Delta size: " + delta.length);
+    checkRoundTrip(new byte[0], target, delta);
+  }
+
+  /**
+   * Copy only delta has empty new data section.
+   */
+  @Test
+  public void emptyNewData() throws SVNException {
+    final byte[] source = new byte[100 * 1024];
+    new Random(0).nextBytes(source);
+    final byte[] target = Arrays.copyOf(source, source.length / 2);
+    checkRoundTrip(source, target, encode(source, target));
+  }
+
+  /**
+   * Window without instructions and new data.
+   */
+  @Test
+  public void emptyWindow() throws SVNException, IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    SvnDiff2.writeWindow(stream, SVNDiffWindow.EMPTY, true);
+    final byte[] delta = stream.toByteArray();
+    ArrayAsserts.assertArrayEquals(new byte[]{'S', 'V', 'N', 2, 0, 0, 0, 1, 1, 0, 0}, delta);
+    checkRoundTrip(new byte[0], new byte[0], delta);
+  }
+
+  /**
+   * Server sends svndiff2 only to clients with accepts-svndiff2 capability.
+   */
+  @Test
+  public void negotiation() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(null, null, true, config -> {
+      config.setCompressionEnabled(true);
+      config.setLz4Compression(true);
+    })) {
+      final SVNRepository repo = server.openSvnRepository();
+      final StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < 1000; ++i) {
+        builder.append("Line ").append(i).append('\n');
+      }
+      final byte[] content = builder.toString().getBytes(StandardCharsets.UTF_8);
+      final long revision = createFile(repo, "/example.txt", content, null).getNewRevision();
+
+      final byte[] lz4 = replayDelta(server.getUrl(), revision, "svndiff1", "accepts-svndiff2");
+      Assert.assertEquals(lz4[3], 2);
+      checkRoundTrip(new byte[0], content, lz4);
+
+      final byte[] zlib = replayDelta(server.getUrl(), revision, "svndiff1");
+      Assert.assertEquals(zlib[3], 1);
+      checkRoundTrip(new byte[0], content, zlib);
+    }
+  }
+
+  /**
+   * Replay revision by raw protocol and return text delta of single changed file.
+   */
+  @NotNull
+  private static byte[] replayDelta(@NotNull SVNURL url, long revision, @NotNull String... capabilities) throws IOException {
+    try (Socket socket = new Socket(url.getHost(), url.getPort())) {
+      final SvnServerWriter writer = new SvnServerWriter(socket.getOutputStream());
+      final SvnServerParser parser = new SvnServerParser(new FlushingInputStream(socket.getInputStream(), writer));
+      // Greeting.
+      parser.readItem();
+      writer
+          .listBegin()
+          .number(2)
+          .listBegin()
+          .word("edit-pipeline");
+      for (String capability : capabilities) {
+        writer.word(capability);
+      }
+      writer
+          .listEnd()
+          .string(url.toString())
+          .string("test")
+          .listBegin()
+          .listEnd()
+          .listEnd();
+      // Authentication request.
+      parser.readItem();
+      writer
+          .listBegin()
+          .word("ANONYMOUS")
+          .listBegin()
+          .string("")
+          .listEnd()
+          .listEnd();
+      // Authentication result.
+      checkSuccess(parser.readItem());
+      // Repository info.
+      checkSuccess(parser.readItem());
+
+      writer
+          .listBegin()
+          .word("replay")
+          .listBegin()
+          .number(revision)
+          .number(0)
+          .word("true")
+          .listEnd()
+          .listEnd();
+      // Command authentication.
+      checkSuccess(parser.readItem());
+
+      final ByteArrayOutputStream delta = new ByteArrayOutputStream();
+      while (true) {
+        final List<SvnServerToken> item = parser.readItem();
+        final String command = ((WordToken) item.get(1)).getText();
+        if (command.equals("finish-replay")) {
+          break;
+        }
+        if (command.equals("textdelta-chunk")) {
+          final byte[] chunk = ((StringToken) item.get(4)).getData();
+          delta.write(chunk, 0, chunk.length);
+        }
+      }
+      checkSuccess(parser.readItem());
+      return delta.toByteArray();
+    }
+  }
+
+  private static void checkSuccess(@NotNull List<SvnServerToken> item) {
+    Assert.assertEquals(item.get(1), new WordToken("success"), item.toString());
+  }
+
+  private static void checkRoundTrip(@NotNull byte[] source, @NotNull byte[] target, @NotNull byte[] delta) throws SVNException {
+    // Whole delta at once.
+    ArrayAsserts.assertArrayEquals(target, decode(source, delta, delta.length));
+    // Window header and sections can be split between chunks.
+    ArrayAsserts.assertArrayEquals(target, decode(source, delta, 7));
+  }
+
+  @NotNull
+  private static byte[] encode(@NotNull byte[] source, @NotNull byte[] target) throws SVNException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    new SVNDeltaGenerator().sendDelta("", new ByteArrayInputStream(source), 0, new ByteArrayInputStream(target), new ISVNDeltaConsumer() {
+      private boolean header = true;
+
+      @Override
+      public void applyTextDelta(String path, String baseChecksum) {
+      }
+
+      @Override
+      public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        try {
+          SvnDiff2.writeWindow(stream, diffWindow, header);
+          header = false;
+          return null;
+        } catch (IOException e) {
+          throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR), e);
+        }
+      }
+
+      @Override
+      public void textDeltaEnd(String path) {
+      }
+    }, false);
+    final byte[] delta = stream.toByteArray();
+    Assert.assertEquals(delta[3], 2);
+    return delta;
+  }
+
+  @NotNull
+  private static byte[] decode(@NotNull byte[] source, @NotNull byte[] delta, int chunkSize) throws SVNException {
+    final ByteArrayOutputStream target = new ByteArrayOutputStream();
+    final SVNDeltaProcessor processor = new SVNDeltaProcessor();
+    processor.applyTextDelta(new ByteArrayInputStream(source), target, false);
+    final ISVNDeltaConsumer consumer = new ISVNDeltaConsumer() {
+      @Override
+      public void applyTextDelta(String path, String baseChecksum) {
+      }
+
+      @Override
+      public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        return processor.textDeltaChunk(diffWindow);
+      }
+
+      @Override
+      public void textDeltaEnd(String path) {
+      }
+    };
+    final SvnDiff2.Reader reader = new SvnDiff2.Reader();
+    for (int offset = 0; offset < delta.length; offset += chunkSize) {
+      reader.nextWindow(delta, offset, Math.min(chunkSize, delta.length - offset), "", consumer);
+    }
+    processor.textDeltaEnd();
+    return target.toByteArray();
+  }
+}